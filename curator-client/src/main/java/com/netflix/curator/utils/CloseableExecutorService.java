@@ -0,0 +1,191 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.utils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Sets;
+import java.io.Closeable;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorates an {@link ExecutorService} that may be shared by many recipe instances. Closing this
+ * object cancels only the tasks that were submitted through it - the wrapped executor is shut down
+ * only if it is owned by this object. Delayed tasks are timed by a single process-wide daemon thread
+ * and then run on the wrapped executor so that the number of threads does not grow with the number
+ * of recipe instances.
+ */
+public class CloseableExecutorService implements Closeable
+{
+    private final ExecutorService executorService;
+    private final boolean shutdownOnClose;
+    private final Set<TrackedTask> futures = Sets.newConcurrentHashSet();
+    private boolean isClosed = false;   // guarded by this
+
+    private static final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, ThreadUtils.newThreadFactory("CloseableExecutorService-timer"));
+
+    /**
+     * @param executorService the (shared) executor to use. It is not shut down when this object is closed.
+     */
+    public CloseableExecutorService(ExecutorService executorService)
+    {
+        this(executorService, false);
+    }
+
+    /**
+     * @param executorService the executor to use
+     * @param shutdownOnClose if true, the executor is shut down when this object is closed
+     */
+    public CloseableExecutorService(ExecutorService executorService, boolean shutdownOnClose)
+    {
+        this.executorService = Preconditions.checkNotNull(executorService, "executorService cannot be null");
+        this.shutdownOnClose = shutdownOnClose;
+    }
+
+    /**
+     * Return the wrapped executor
+     *
+     * @return executor
+     */
+    public ExecutorService getExecutorService()
+    {
+        return executorService;
+    }
+
+    /**
+     * Return true if this object has been closed or the wrapped executor has been shut down
+     *
+     * @return true/false
+     */
+    public synchronized boolean isShutdown()
+    {
+        return isClosed || executorService.isShutdown();
+    }
+
+    /**
+     * Submit a task to the executor
+     *
+     * @param task the task
+     * @return a future that can be used to cancel the task
+     */
+    public synchronized Future<?> submit(Runnable task)
+    {
+        Preconditions.checkState(!isClosed, "closed");
+
+        TrackedTask trackedTask = new TrackedTask(task);
+        futures.add(trackedTask);
+        executorService.execute(trackedTask);
+        return trackedTask;
+    }
+
+    /**
+     * Run a task on the executor after the given delay
+     *
+     * @param task the task
+     * @param delay time to wait before running the task
+     * @param unit time unit of delay
+     * @return a future that can be used to cancel the task
+     */
+    public synchronized Future<?> schedule(Runnable task, long delay, TimeUnit unit)
+    {
+        Preconditions.checkState(!isClosed, "closed");
+
+        final TrackedTask trackedTask = new TrackedTask(task);
+        futures.add(trackedTask);
+        trackedTask.timerFuture = timer.schedule
+        (
+            new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    if ( !trackedTask.isDone() )
+                    {
+                        try
+                        {
+                            executorService.execute(trackedTask);
+                        }
+                        catch ( RuntimeException e )
+                        {
+                            trackedTask.cancel(false);
+                        }
+                    }
+                }
+            },
+            delay,
+            unit
+        );
+        return trackedTask;
+    }
+
+    /**
+     * Cancel (and interrupt) all tasks submitted through this object that have not completed
+     */
+    @Override
+    public void close()
+    {
+        synchronized(this)
+        {
+            isClosed = true;
+        }
+
+        boolean purgeTimer = false;
+        for ( TrackedTask future : futures )
+        {
+            future.cancel(true);
+            purgeTimer |= (future.timerFuture != null);
+        }
+        futures.clear();
+        if ( purgeTimer )
+        {
+            // cancelled delayed tasks would otherwise stay in the shared timer until their delay expires
+            timer.purge();
+        }
+
+        if ( shutdownOnClose )
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    private class TrackedTask extends FutureTask<Void>
+    {
+        private volatile Future<?> timerFuture = null;
+
+        private TrackedTask(Runnable task)
+        {
+            super(task, null);
+        }
+
+        @Override
+        protected void done()
+        {
+            futures.remove(this);
+
+            Future<?> localTimerFuture = timerFuture;
+            if ( localTimerFuture != null )
+            {
+                localTimerFuture.cancel(false);
+            }
+        }
+    }
+}
@@ -119,6 +119,32 @@ public interface CuratorFramework extends Closeable
      */
     public CuratorTransaction inTransaction();
 
+    /**
+     * Returns the client's read cache. Reads made via the cache are served locally
+     * until a watch (set by the cache) fires for the path or the connection is
+     * SUSPENDED/LOST. The cache is shared by this instance and its namespace facades.
+     * See {@link CuratorFrameworkFactory.Builder#readCacheSize(int)}.
+     *
+     * @return read cache
+     */
+    public ReadCache cached();
+
+    /**
+     * Returns the client's watch multiplexer. Watchers subscribed via the multiplexer share a
+     * single ZooKeeper watch per path and watch type. The multiplexer is shared by this instance
+     * and its namespace facades.
+     *
+     * @return watch multiplexer
+     */
+    public WatchMultiplexer getWatchMultiplexer();
+
+    /**
+     * Return gauges for the client's background operations
+     *
+     * @return stats
+     */
+    public BackgroundOperationStats getBackgroundOperationStats();
+
     /**
      * Perform a sync on the given path - syncs are always in the background
      *
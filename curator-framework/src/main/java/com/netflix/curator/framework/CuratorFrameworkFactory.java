@@ -17,10 +17,12 @@
  */
 package com.netflix.curator.framework;
 
+import com.google.common.base.Preconditions;
 import com.netflix.curator.RetryPolicy;
 import com.netflix.curator.ensemble.EnsembleProvider;
 import com.netflix.curator.ensemble.fixed.FixedEnsembleProvider;
 import com.netflix.curator.framework.api.ACLProvider;
+import com.netflix.curator.framework.api.BackgroundOverflowPolicy;
 import com.netflix.curator.framework.api.CompressionProvider;
 import com.netflix.curator.framework.api.PathAndBytesable;
 import com.netflix.curator.framework.imps.CuratorFrameworkImpl;
@@ -51,6 +53,9 @@ public class CuratorFrameworkFactory
     private static final DefaultZookeeperFactory    DEFAULT_ZOOKEEPER_FACTORY = new DefaultZookeeperFactory();
     private static final DefaultACLProvider         DEFAULT_ACL_PROVIDER = new DefaultACLProvider();
     private static final long                       DEFAULT_INACTIVE_THRESHOLD_MS = (int)TimeUnit.MINUTES.toMillis(3);
+    private static final int                        DEFAULT_BACKGROUND_THREADS = 1;
+    private static final int                        DEFAULT_BATCH_LINGER_MS = 5;
+    private static final int                        DEFAULT_READ_CACHE_SIZE = 1000;
 
     /**
      * Return a new builder that builds a CuratorFramework
@@ -110,6 +115,12 @@ public class CuratorFrameworkFactory
         private ZookeeperFactory    zookeeperFactory = DEFAULT_ZOOKEEPER_FACTORY;
         private ACLProvider         aclProvider = DEFAULT_ACL_PROVIDER;
         private boolean             canBeReadOnly = false;
+        private int                 backgroundThreads = DEFAULT_BACKGROUND_THREADS;
+        private int                 backgroundBatchSize = 0;
+        private long                backgroundBatchLingerMs = DEFAULT_BATCH_LINGER_MS;
+        private int                 readCacheSize = DEFAULT_READ_CACHE_SIZE;
+        private int                 backgroundQueueCapacity = 0;
+        private BackgroundOverflowPolicy    backgroundOverflowPolicy = BackgroundOverflowPolicy.BLOCK;
 
         /**
          * Apply the current values and build a new CuratorFramework
@@ -300,6 +311,74 @@ public class CuratorFrameworkFactory
             return this;
         }
 
+        /**
+         * Set the number of threads used to process background operations that are queued
+         * for (re)execution. Operations are assigned to a thread based on their path so
+         * that operations for the same path are always processed in order. The default is 1.
+         *
+         * @param backgroundThreads number of background threads
+         * @return this
+         */
+        public Builder backgroundThreads(int backgroundThreads)
+        {
+            Preconditions.checkArgument(backgroundThreads > 0, "backgroundThreads must be greater than 0");
+            this.backgroundThreads = backgroundThreads;
+            return this;
+        }
+
+        /**
+         * Enable coalescing of background mutations (create, setData and delete) into ZooKeeper
+         * transactions (multi). Mutations are gathered until <code>maxBatchSize</code> is reached or
+         * <code>linger</code> has elapsed since the first mutation of the batch and are then sent as a single
+         * multi. Results are delivered to each operation's callback/listeners as if the operation had executed
+         * on its own. If the multi fails, each operation in the batch is executed individually. Batching
+         * is disabled by default.
+         *
+         * @param maxBatchSize max number of operations per multi - must be greater than 1
+         * @param linger max time to wait for a batch to fill
+         * @param unit linger unit
+         * @return this
+         */
+        public Builder backgroundBatching(int maxBatchSize, long linger, TimeUnit unit)
+        {
+            Preconditions.checkArgument(maxBatchSize > 1, "maxBatchSize must be greater than 1");
+            this.backgroundBatchSize = maxBatchSize;
+            this.backgroundBatchLingerMs = unit.toMillis(linger);
+            return this;
+        }
+
+        /**
+         * Set the maximum number of entries held by the read cache (see {@link CuratorFramework#cached()}).
+         * When full, the least recently used entries are evicted. The default is 1000.
+         *
+         * @param readCacheSize max entries
+         * @return this
+         */
+        public Builder readCacheSize(int readCacheSize)
+        {
+            Preconditions.checkArgument(readCacheSize > 0, "readCacheSize must be greater than 0");
+            this.readCacheSize = readCacheSize;
+            return this;
+        }
+
+        /**
+         * Limit the number of outstanding background operations - operations that have been started
+         * and are in flight to the server or waiting to be retried. Retries of an operation don't count
+         * against the limit again. When a new operation would exceed the capacity the given policy is applied.
+         * By default there is no limit.
+         *
+         * @param capacity max outstanding background operations
+         * @param policy what to do when the capacity is reached
+         * @return this
+         */
+        public Builder backgroundQueueCapacity(int capacity, BackgroundOverflowPolicy policy)
+        {
+            Preconditions.checkArgument(capacity > 0, "capacity must be greater than 0");
+            this.backgroundQueueCapacity = capacity;
+            this.backgroundOverflowPolicy = Preconditions.checkNotNull(policy, "policy cannot be null");
+            return this;
+        }
+
         public ACLProvider getAclProvider()
         {
             return aclProvider;
@@ -365,6 +444,36 @@ public class CuratorFrameworkFactory
             return canBeReadOnly;
         }
 
+        public int getBackgroundThreads()
+        {
+            return backgroundThreads;
+        }
+
+        public int getBackgroundBatchSize()
+        {
+            return backgroundBatchSize;
+        }
+
+        public long getBackgroundBatchLingerMs()
+        {
+            return backgroundBatchLingerMs;
+        }
+
+        public int getReadCacheSize()
+        {
+            return readCacheSize;
+        }
+
+        public int getBackgroundQueueCapacity()
+        {
+            return backgroundQueueCapacity;
+        }
+
+        public BackgroundOverflowPolicy getBackgroundOverflowPolicy()
+        {
+            return backgroundOverflowPolicy;
+        }
+
         private Builder()
         {
         }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.api;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+public interface AsyncPathable<T>
+{
+    /**
+     * Commit the currently building operation in the background using the given path. The
+     * returned future completes with the same value that {@link Pathable#forPath(String)} would
+     * return or fails with the {@link org.apache.zookeeper.KeeperException} (or other exception)
+     * that ended the operation. Retries are managed by the client's retry policy.
+     *
+     * @param path the path
+     * @return future for the operation result
+     */
+    public ListenableFuture<T>     forPathAsync(String path);
+}
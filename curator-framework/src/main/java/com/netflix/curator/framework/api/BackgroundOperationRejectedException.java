@@ -0,0 +1,30 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.api;
+
+/**
+ * Thrown when a background operation is rejected (or abandoned) because the client
+ * has reached its capacity of outstanding background operations
+ */
+public class BackgroundOperationRejectedException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    public BackgroundOperationRejectedException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.api;
+
+/**
+ * Gauges for the client's background operations
+ */
+public interface BackgroundOperationStats
+{
+    /**
+     * Return the number of background operations that have been started and have not
+     * yet completed (in flight to the server or waiting to be retried)
+     *
+     * @return count
+     */
+    public int      getOutstandingCount();
+
+    /**
+     * Return the number of background operations waiting in the queue to be (re)executed
+     *
+     * @return queue depth
+     */
+    public int      getQueuedCount();
+
+    /**
+     * Return how long the most recently dequeued operation waited after it was ready to run.
+     * This does not include retry sleep time.
+     *
+     * @return time in milliseconds
+     */
+    public long     getLastQueuedTimeMs();
+
+    /**
+     * Return the maximum time any operation waited in the queue after it was ready to run
+     *
+     * @return time in milliseconds
+     */
+    public long     getMaxQueuedTimeMs();
+
+    /**
+     * Return the number of operations that were rejected or shed because of the capacity
+     *
+     * @return count
+     */
+    public long     getRejectedCount();
+}
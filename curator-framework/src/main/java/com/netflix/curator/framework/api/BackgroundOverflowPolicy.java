@@ -0,0 +1,43 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.api;
+
+/**
+ * What to do when a new background operation is started and the client already has the
+ * maximum number of outstanding background operations. See
+ * {@link com.netflix.curator.framework.CuratorFrameworkFactory.Builder#backgroundQueueCapacity(int, BackgroundOverflowPolicy)}
+ */
+public enum BackgroundOverflowPolicy
+{
+    /**
+     * Block the calling thread until an outstanding operation completes. Threads that deliver
+     * framework callbacks/watchers are never blocked (that would deadlock the client) - operations
+     * they start are admitted over the capacity.
+     */
+    BLOCK,
+
+    /**
+     * Throw {@link BackgroundOperationRejectedException} to the caller
+     */
+    FAIL,
+
+    /**
+     * Abandon the oldest operation that is waiting to be retried (its future/error callback is
+     * notified as if its retries were exhausted) and admit the new operation. If no operation
+     * is waiting to be retried, {@link BackgroundOperationRejectedException} is thrown.
+     */
+    SHED_OLDEST
+}
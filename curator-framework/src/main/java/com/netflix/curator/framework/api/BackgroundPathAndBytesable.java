@@ -19,6 +19,7 @@ package com.netflix.curator.framework.api;
 
 public interface BackgroundPathAndBytesable<T> extends
     Backgroundable<PathAndBytesable<T>>,
-    PathAndBytesable<T>
+    PathAndBytesable<T>,
+    AsyncPathAndBytesable<T>
 {
 }
@@ -19,6 +19,7 @@ package com.netflix.curator.framework.api;
 
 public interface BackgroundPathable<T> extends
     Backgroundable<Pathable<T>>,
-    Pathable<T>
+    Pathable<T>,
+    AsyncPathable<T>
 {
 }
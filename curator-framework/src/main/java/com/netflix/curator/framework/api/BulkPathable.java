@@ -0,0 +1,48 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.api;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface BulkPathable<T>
+{
+    /**
+     * NOTE: this is a BLOCKING method. It waits for the ZooKeeper callbacks of the reads so it must not be
+     * called from a watcher, a background callback or any other code running in the ZooKeeper event thread -
+     * doing so deadlocks that thread. Read all of the given paths. The reads are pipelined - they are issued asynchronously with up to
+     * a default number of requests in flight - so the total cost is a few round trips instead of one
+     * per path. Connection problems are retried (for the paths that have not completed)
+     * using the client's retry policy.
+     *
+     * @param paths the paths to read
+     * @return results keyed by path, in the iteration order of <code>paths</code>. Per-path
+     * errors are reported in the result rather than thrown.
+     * @throws Exception non per-path errors (e.g. interruption)
+     */
+    public Map<String, BulkResult<T>>  forPaths(Collection<String> paths) throws Exception;
+
+    /**
+     * NOTE: this is a BLOCKING method (see {@link #forPaths(Collection)}). Same as {@link #forPaths(Collection)}
+     * but with an explicit window
+     *
+     * @param paths the paths to read
+     * @param maxInFlight maximum number of requests to have outstanding at once
+     * @return results keyed by path, in the iteration order of <code>paths</code>
+     * @throws Exception non per-path errors (e.g. interruption)
+     */
+    public Map<String, BulkResult<T>>  forPaths(Collection<String> paths, int maxInFlight) throws Exception;
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.api;
+
+import org.apache.zookeeper.data.Stat;
+
+/**
+ * Holds the result of reading one path in a {@link BulkPathable#forPaths(java.util.Collection)} call
+ */
+public class BulkResult<T>
+{
+    private final String        path;
+    private final T             value;
+    private final Stat          stat;
+    private final Exception     error;
+
+    public BulkResult(String path, T value, Stat stat, Exception error)
+    {
+        this.path = path;
+        this.value = value;
+        this.stat = stat;
+        this.error = error;
+    }
+
+    /**
+     * Returns the path as passed to forPaths()
+     *
+     * @return path
+     */
+    public String getPath()
+    {
+        return path;
+    }
+
+    /**
+     * Returns the value that forPath() would have returned for this path or <code>null</code>
+     * if there was an error
+     *
+     * @return value or null
+     */
+    public T getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Returns the node's stat or <code>null</code>
+     *
+     * @return stat or null
+     */
+    public Stat getStat()
+    {
+        return stat;
+    }
+
+    /**
+     * Returns the exception that forPath() would have thrown for this path (usually a
+     * {@link org.apache.zookeeper.KeeperException}) or <code>null</code>
+     *
+     * @return error or null
+     */
+    public Exception getError()
+    {
+        return error;
+    }
+
+    /**
+     * Returns true if the path was read successfully
+     *
+     * @return true/false
+     */
+    public boolean isSuccess()
+    {
+        return error == null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BulkResult{" +
+            "path='" + path + '\'' +
+            ", stat=" + stat +
+            ", error=" + error +
+            '}';
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.api;
+
+/**
+ * A block compression algorithm for use with
+ * {@link com.netflix.curator.framework.imps.CodecCompressionProvider}. Implementations must be thread safe.
+ */
+public interface CompressionCodec
+{
+    /**
+     * Return the id written in the compressed data header. Ids 1-15 are reserved for
+     * the codecs that ship with Curator and can't be used by custom codecs.
+     *
+     * @return id
+     */
+    public byte     getId();
+
+    /**
+     * Compress <code>data</code> into <code>dest</code> starting at <code>destOffset</code>
+     *
+     * @param data the data to compress
+     * @param dest destination buffer
+     * @param destOffset offset in dest to start writing at
+     * @return number of bytes written or -1 if the compressed data would not fit in <code>dest</code>
+     * @throws Exception errors
+     */
+    public int      compress(byte[] data, byte[] dest, int destOffset) throws Exception;
+
+    /**
+     * Decompress data written by {@link #compress(byte[], byte[], int)}. The uncompressed data can be at
+     * most {@link com.netflix.curator.framework.imps.CodecCompressionProvider#MAX_EXPANSION_RATIO} times
+     * the size of the compressed data.
+     *
+     * @param compressedData buffer holding the compressed data
+     * @param offset offset of the compressed data
+     * @param length length of the compressed data
+     * @param dest destination buffer - its length is exactly the uncompressed length
+     * @throws Exception errors (e.g. malformed data)
+     */
+    public void     decompress(byte[] compressedData, int offset, int length, byte[] dest) throws Exception;
+}
@@ -17,6 +17,7 @@
  */
 package com.netflix.curator.framework.api;
 
+import com.netflix.curator.framework.api.transaction.CuratorTransactionResult;
 import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.data.ACL;
 import org.apache.zookeeper.data.Stat;
@@ -85,4 +86,12 @@ public interface CuratorEvent
      * @return any WatchedEvent
      */
     public WatchedEvent getWatchedEvent();
+
+    /**
+     * If {@link #getType()} returns {@link CuratorEventType#TRANSACTION} this will
+     * return the results of the transaction's operations
+     *
+     * @return any transaction results or null
+     */
+    public List<CuratorTransactionResult> getOpResults();
 }
@@ -18,6 +18,7 @@
 package com.netflix.curator.framework.api;
 
 import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.api.transaction.CuratorTransactionFinal;
 import org.apache.zookeeper.Watcher;
 
 public enum CuratorEventType
@@ -67,6 +68,12 @@ public enum CuratorEventType
      */
     WATCHED,
 
+    /**
+     * Corresponds to {@link CuratorTransactionFinal#commitInBackground(BackgroundCallback)} and
+     * {@link CuratorTransactionFinal#commitAsync()}
+     */
+    TRANSACTION,
+
     /**
      * Event sent when client is being closed
      */
@@ -18,8 +18,8 @@
 package com.netflix.curator.framework.api;
 
 public interface GetDataBuilder extends
-    Watchable<BackgroundPathable<byte[]>>,
-    BackgroundPathable<byte[]>,
+    Watchable<BackgroundBulkPathable<byte[]>>,
+    BackgroundBulkPathable<byte[]>,
     Statable<WatchPathable<byte[]>>,
     Decompressible<GetDataWatchBackgroundStatable>
 {
@@ -18,8 +18,8 @@
 package com.netflix.curator.framework.api;
 
 public interface GetDataWatchBackgroundStatable extends
-    Watchable<BackgroundPathable<byte[]>>,
-    BackgroundPathable<byte[]>,
+    Watchable<BackgroundBulkPathable<byte[]>>,
+    BackgroundBulkPathable<byte[]>,
     Statable<WatchPathable<byte[]>>
 {
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.api;
+
+import org.apache.zookeeper.data.Stat;
+import java.util.List;
+
+/**
+ * A client-side cache of reads. The first read of a path goes to the server with a watch
+ * attached and the result is cached until the watch fires, the connection is SUSPENDED/LOST
+ * or the entry is evicted because the cache is full. Get an instance via
+ * {@link com.netflix.curator.framework.CuratorFramework#cached()}.
+ */
+public interface ReadCache
+{
+    /**
+     * Same as <code>getData().forPath(path)</code> but served from the cache when possible
+     *
+     * @param path the path
+     * @return data
+     * @throws Exception errors (e.g. {@link org.apache.zookeeper.KeeperException.NoNodeException})
+     */
+    public byte[]       getData(String path) throws Exception;
+
+    /**
+     * Same as <code>checkExists().forPath(path)</code> but served from the cache when possible.
+     * Non-existence is cached too.
+     *
+     * @param path the path
+     * @return stat or null if the node does not exist
+     * @throws Exception errors
+     */
+    public Stat         checkExists(String path) throws Exception;
+
+    /**
+     * Same as <code>getChildren().forPath(path)</code> but served from the cache when possible
+     *
+     * @param path the path
+     * @return children
+     * @throws Exception errors (e.g. {@link org.apache.zookeeper.KeeperException.NoNodeException})
+     */
+    public List<String> getChildren(String path) throws Exception;
+
+    /**
+     * Remove any cached values for the given path
+     *
+     * @param path the path
+     */
+    public void         invalidate(String path);
+
+    /**
+     * Remove all cached values
+     */
+    public void         clear();
+
+    /**
+     * Return the number of entries currently cached
+     *
+     * @return size
+     */
+    public long         size();
+
+    /**
+     * Return the number of reads served from the cache
+     *
+     * @return hit count
+     */
+    public long         getHitCount();
+
+    /**
+     * Return the number of reads that went to the server
+     *
+     * @return miss count
+     */
+    public long         getMissCount();
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.api;
+
+import org.apache.zookeeper.Watcher;
+
+/**
+ * <p>
+ *     Shares ZooKeeper watches between all the watchers of a client. Only one ZooKeeper watch is set
+ *     per path and {@link WatchType} no matter how many watchers are subscribed. When the watch fires
+ *     it is re-armed once and the event is then delivered to every subscriber.
+ * </p>
+ *
+ * <p>
+ *     Unlike watchers set via <code>usingWatcher()</code>, subscriptions are persistent: a subscriber
+ *     receives events until it is removed. Because the watch is re-armed before subscribers are notified,
+ *     a subscriber that re-reads the node when notified will not miss later changes. Connection state
+ *     events are not delivered to subscribers - use a {@link com.netflix.curator.framework.state.ConnectionStateListener}.
+ *     Watches lost with the session are re-armed when the connection is RECONNECTED.
+ * </p>
+ *
+ * <p>
+ *     Get an instance via {@link com.netflix.curator.framework.CuratorFramework#getWatchMultiplexer()}.
+ * </p>
+ */
+public interface WatchMultiplexer
+{
+    /**
+     * Subscribe a watcher to the given path. If this is the first subscriber for the path and type
+     * the ZooKeeper watch is set before this method returns.
+     *
+     * @param path the path
+     * @param type type of watch
+     * @param watcher the watcher
+     * @throws Exception errors setting the watch
+     */
+    public void     addWatcher(String path, WatchType type, Watcher watcher) throws Exception;
+
+    /**
+     * Subscribe a watcher to the given path. If this is the first subscriber for the path and type
+     * the ZooKeeper watch is set before this method returns.
+     *
+     * @param path the path
+     * @param type type of watch
+     * @param watcher the watcher
+     * @throws Exception errors setting the watch
+     */
+    public void     addWatcher(String path, WatchType type, CuratorWatcher watcher) throws Exception;
+
+    /**
+     * Unsubscribe a watcher. When the last subscriber for a path and type is removed, the ZooKeeper
+     * watch is removed too.
+     *
+     * @param path the path
+     * @param type type of watch
+     * @param watcher the watcher
+     */
+    public void     removeWatcher(String path, WatchType type, Watcher watcher);
+
+    /**
+     * Unsubscribe a watcher. When the last subscriber for a path and type is removed, the ZooKeeper
+     * watch is removed too.
+     *
+     * @param path the path
+     * @param type type of watch
+     * @param watcher the watcher
+     */
+    public void     removeWatcher(String path, WatchType type, CuratorWatcher watcher);
+
+    /**
+     * Return the number of distinct path/type watches
+     *
+     * @return watch count
+     */
+    public int      getWatchCount();
+
+    /**
+     * Return the total number of subscribers
+     *
+     * @return subscriber count
+     */
+    public int      getSubscriberCount();
+}
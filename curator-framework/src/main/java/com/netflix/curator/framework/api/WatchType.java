@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.api;
+
+/**
+ * The kind of watch shared by a {@link WatchMultiplexer}
+ */
+public enum WatchType
+{
+    /**
+     * Watches the node itself: {@link org.apache.zookeeper.Watcher.Event.EventType#NodeCreated},
+     * {@link org.apache.zookeeper.Watcher.Event.EventType#NodeDataChanged} and
+     * {@link org.apache.zookeeper.Watcher.Event.EventType#NodeDeleted}. The node does not need to exist.
+     */
+    DATA,
+
+    /**
+     * Watches the node's children: {@link org.apache.zookeeper.Watcher.Event.EventType#NodeChildrenChanged}
+     * and {@link org.apache.zookeeper.Watcher.Event.EventType#NodeDeleted}. If the node does not exist,
+     * subscribers receive {@link org.apache.zookeeper.Watcher.Event.EventType#NodeCreated} when it is created.
+     */
+    CHILDREN
+}
@@ -18,7 +18,12 @@
 
 package com.netflix.curator.framework.api.transaction;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.CuratorEvent;
+import com.netflix.curator.framework.api.CuratorEventType;
 import java.util.Collection;
+import java.util.concurrent.Executor;
 
 /**
  * Adds commit to the transaction interface
@@ -35,4 +40,49 @@ public interface CuratorTransactionFinal extends CuratorTransaction
      * @throws Exception errors
      */
     public Collection<CuratorTransactionResult> commit() throws Exception;
+
+    /**
+     * Commit all added operations as an atomic unit in the background. The returned
+     * future completes with the same results that {@link #commit()} would return or
+     * fails with the exception that ended the transaction. Retries are managed by the
+     * client's retry policy.
+     *
+     * @return future for the operation results
+     */
+    public ListenableFuture<Collection<CuratorTransactionResult>> commitAsync();
+
+    /**
+     * Commit all added operations as an atomic unit in the background. The callback is
+     * called with an event of type {@link CuratorEventType#TRANSACTION}. If the commit
+     * succeeds, {@link CuratorEvent#getOpResults()} returns the operation results. Retries
+     * are managed by the client's retry policy.
+     *
+     * @param callback a functor that will get called when the transaction has completed
+     */
+    public void commitInBackground(BackgroundCallback callback);
+
+    /**
+     * Commit all added operations as an atomic unit in the background
+     *
+     * @param callback a functor that will get called when the transaction has completed
+     * @param context context object - will be available from the event sent to the callback
+     */
+    public void commitInBackground(BackgroundCallback callback, Object context);
+
+    /**
+     * Commit all added operations as an atomic unit in the background
+     *
+     * @param callback a functor that will get called when the transaction has completed
+     * @param executor executor to use for the background call
+     */
+    public void commitInBackground(BackgroundCallback callback, Executor executor);
+
+    /**
+     * Commit all added operations as an atomic unit in the background
+     *
+     * @param callback a functor that will get called when the transaction has completed
+     * @param context context object - will be available from the event sent to the callback
+     * @param executor executor to use for the background call
+     */
+    public void commitInBackground(BackgroundCallback callback, Object context, Executor executor);
 }
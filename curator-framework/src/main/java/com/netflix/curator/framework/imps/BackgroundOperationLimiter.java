@@ -0,0 +1,222 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.imps;
+
+import com.netflix.curator.framework.api.BackgroundOperationRejectedException;
+import com.netflix.curator.framework.api.BackgroundOperationStats;
+import com.netflix.curator.framework.api.BackgroundOverflowPolicy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the outstanding background operations of a client and, when a capacity is set,
+ * applies the {@link BackgroundOverflowPolicy} as new operations are started. Retries of an
+ * admitted operation don't need to be admitted again so the total number of operations in flight
+ * or queued stays bounded.
+ */
+class BackgroundOperationLimiter implements BackgroundOperationStats
+{
+    private final CuratorFrameworkImpl          client;
+    private final StripedBackgroundQueue        queue;
+    private final int                           capacity;
+    private final BackgroundOverflowPolicy      policy;
+    private final AtomicInteger                 outstanding = new AtomicInteger(0);
+    private final AtomicLong                    rejected = new AtomicLong(0);
+    private final AtomicLong                    lastQueuedTimeMs = new AtomicLong(0);
+    private final AtomicLong                    maxQueuedTimeMs = new AtomicLong(0);
+    private final ThreadLocal<Boolean>          isCallbackThread = new ThreadLocal<Boolean>();
+
+    /**
+     * @param client the client
+     * @param queue the client's background queue
+     * @param capacity max outstanding operations or 0 for unbounded
+     * @param policy what to do when the capacity is reached
+     */
+    BackgroundOperationLimiter(CuratorFrameworkImpl client, StripedBackgroundQueue queue, int capacity, BackgroundOverflowPolicy policy)
+    {
+        this.client = client;
+        this.queue = queue;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    @Override
+    public int getOutstandingCount()
+    {
+        return outstanding.get();
+    }
+
+    @Override
+    public int getQueuedCount()
+    {
+        return queue.size();
+    }
+
+    @Override
+    public long getLastQueuedTimeMs()
+    {
+        return lastQueuedTimeMs.get();
+    }
+
+    @Override
+    public long getMaxQueuedTimeMs()
+    {
+        return maxQueuedTimeMs.get();
+    }
+
+    @Override
+    public long getRejectedCount()
+    {
+        return rejected.get();
+    }
+
+    /**
+     * Mark the current thread as one that delivers framework callbacks/watchers
+     *
+     * @return the previous marking to pass to {@link #callbackComplete(Boolean)}
+     */
+    Boolean callbackStarting()
+    {
+        Boolean     previous = isCallbackThread.get();
+        isCallbackThread.set(Boolean.TRUE);
+        return previous;
+    }
+
+    void callbackComplete(Boolean previous)
+    {
+        isCallbackThread.set(previous);
+    }
+
+    /**
+     * Admit a new operation according to the policy
+     *
+     * @param operationAndData the operation
+     * @throws BackgroundOperationRejectedException if the operation cannot be admitted
+     */
+    void admit(OperationAndData<?> operationAndData)
+    {
+        if ( capacity <= 0 )
+        {
+            add(operationAndData);
+            return;
+        }
+
+        for(;;)
+        {
+            int     current = outstanding.get();
+            if ( current < capacity )
+            {
+                if ( outstanding.compareAndSet(current, current + 1) )
+                {
+                    operationAndData.setAdmitted(true);
+                    return;
+                }
+                continue;
+            }
+
+            switch ( policy )
+            {
+                case BLOCK:
+                {
+                    if ( isCallbackThread.get() != null )
+                    {
+                        // blocking here would prevent the outstanding operations from completing
+                        add(operationAndData);
+                        return;
+                    }
+                    waitForCapacity();
+                    break;
+                }
+
+                case FAIL:
+                {
+                    throw reject();
+                }
+
+                case SHED_OLDEST:
+                {
+                    OperationAndData<?>     oldest = queue.removeOldest();
+                    if ( oldest == null )
+                    {
+                        throw reject();
+                    }
+                    client.abandonOperation(oldest, reject());
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Called when an operation completes (successfully or not)
+     *
+     * @param operationAndData the operation
+     */
+    void release(OperationAndData<?> operationAndData)
+    {
+        if ( operationAndData.setAdmitted(false) )
+        {
+            outstanding.decrementAndGet();
+            if ( (capacity > 0) && (policy == BackgroundOverflowPolicy.BLOCK) )
+            {
+                synchronized(this)
+                {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    void recordQueuedTime(long queuedTimeMs)
+    {
+        lastQueuedTimeMs.set(queuedTimeMs);
+
+        long    max;
+        do
+        {
+            max = maxQueuedTimeMs.get();
+        } while ( (queuedTimeMs > max) && !maxQueuedTimeMs.compareAndSet(max, queuedTimeMs) );
+    }
+
+    private void add(OperationAndData<?> operationAndData)
+    {
+        outstanding.incrementAndGet();
+        operationAndData.setAdmitted(true);
+    }
+
+    private BackgroundOperationRejectedException reject()
+    {
+        rejected.incrementAndGet();
+        client.getZookeeperClient().getTracerDriver().addCount("background-operations-rejected", 1);
+        return new BackgroundOperationRejectedException("Background operation capacity (" + capacity + ") reached");
+    }
+
+    private synchronized void waitForCapacity()
+    {
+        try
+        {
+            while ( outstanding.get() >= capacity )
+            {
+                wait();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw reject();
+        }
+    }
+}
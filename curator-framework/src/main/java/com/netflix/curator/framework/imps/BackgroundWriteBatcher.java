@@ -0,0 +1,359 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.imps;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.netflix.curator.TimeTrace;
+import org.apache.zookeeper.AsyncCallback;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     Coalesces initial executions of background mutations (create/setData/delete) into
+ *     a single {@link org.apache.zookeeper.ZooKeeper#multi(Iterable)}. A batch is sent when it reaches
+ *     the max batch size or when the linger time has elapsed since the first operation was added.
+ *     If the multi fails for any reason, each operation in the batch is executed individually so that
+ *     callers see the same results (and retries) they would have seen without batching.
+ * </p>
+ *
+ * <p>
+ *     ZooKeeper executes a session's requests in the order they are sent, so operations must reach
+ *     ZooKeeper in the order they were submitted. To keep that order:
+ * </p>
+ * <ul>
+ *     <li>every initial execution - batchable or not - goes through this object. An operation that can't
+ *     be batched (e.g. a read) flushes the pending writes ahead of it instead of overtaking them</li>
+ *     <li>operations are sent from a single thread</li>
+ *     <li>only one multi is in flight at a time. Later operations are held until it completes so that, if it
+ *     fails, its operations are re-executed individually before anything that was submitted after them</li>
+ * </ul>
+ */
+class BackgroundWriteBatcher implements Closeable
+{
+    private final Logger                        log = LoggerFactory.getLogger(getClass());
+    private final CuratorFrameworkImpl          client;
+    private final int                           maxBatchSize;
+    private final long                          lingerMs;
+    private final int                           closeWaitMs;
+    private final ScheduledThreadPoolExecutor   executorService;
+
+    // all guarded by this
+    private final Queue<OperationAndData<?>>    pending = new ArrayDeque<OperationAndData<?>>();
+    private boolean                             flushRequested = false;
+    private boolean                             lingerScheduled = false;
+    private boolean                             sendScheduled = false;
+    private boolean                             isSending = false;
+    private boolean                             inFlight = false;
+    private boolean                             isClosed = false;
+
+    private final Runnable      lingerTask = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            synchronized(BackgroundWriteBatcher.this)
+            {
+                lingerScheduled = false;
+                if ( !pending.isEmpty() )
+                {
+                    flushRequested = true;
+                }
+            }
+            sendPending();
+        }
+    };
+
+    private final Runnable      sendTask = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            synchronized(BackgroundWriteBatcher.this)
+            {
+                sendScheduled = false;
+            }
+            sendPending();
+        }
+    };
+
+    BackgroundWriteBatcher(CuratorFrameworkImpl client, int maxBatchSize, long lingerMs, int closeWaitMs, ThreadFactory threadFactory)
+    {
+        this.client = client;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMs = lingerMs;
+        this.closeWaitMs = closeWaitMs;
+        executorService = new ScheduledThreadPoolExecutor(1, threadFactory);
+    }
+
+    /**
+     * Send any pending operations individually (after waiting for an in-flight multi) and stop batching.
+     * Must be called before the ZooKeeper handle is closed so that the pending operations get their
+     * results (or retries) just as they would have without batching.
+     */
+    @Override
+    public void close()
+    {
+        synchronized(this)
+        {
+            isClosed = true;
+        }
+
+        executorService.shutdownNow();
+        List<OperationAndData<?>>   remaining;
+        try
+        {
+            // let a send that's in progress finish
+            executorService.awaitTermination(closeWaitMs, TimeUnit.MILLISECONDS);
+            synchronized(this)
+            {
+                // the multi's operations (or their individual re-executions) must stay ahead of the pending ones
+                long    startMs = System.currentTimeMillis();
+                long    waitMs;
+                while ( inFlight && ((waitMs = closeWaitMs - (System.currentTimeMillis() - startMs)) > 0) )
+                {
+                    wait(waitMs);
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            synchronized(this)
+            {
+                remaining = ImmutableList.copyOf(pending);
+                pending.clear();
+            }
+        }
+
+        for ( OperationAndData<?> operationAndData : remaining )
+        {
+            client.performBackgroundOperation(operationAndData);
+        }
+    }
+
+    /**
+     * Execute the initial attempt of a background operation, batching it if possible
+     *
+     * @param operationAndData the operation
+     */
+    void submit(OperationAndData<?> operationAndData)
+    {
+        boolean     sendNow = false;
+        synchronized(this)
+        {
+            if ( isClosed )
+            {
+                sendNow = true;
+            }
+            else if ( !canBatch(operationAndData) && pending.isEmpty() && !isSending && !inFlight )
+            {
+                // nothing is ahead of it - no need to go through the sending thread
+                sendNow = true;
+            }
+            else
+            {
+                pending.add(operationAndData);
+                if ( !canBatch(operationAndData) )
+                {
+                    // everything ahead of it must be sent first - don't wait for the linger
+                    flushRequested = true;
+                }
+
+                if ( flushRequested || (pending.size() >= maxBatchSize) )
+                {
+                    scheduleSend();
+                }
+                else if ( !lingerScheduled )
+                {
+                    lingerScheduled = true;
+                    try
+                    {
+                        executorService.schedule(lingerTask, lingerMs, TimeUnit.MILLISECONDS);
+                    }
+                    catch ( RejectedExecutionException e )
+                    {
+                        lingerScheduled = false;    // closing - close() sends the pending operations
+                    }
+                }
+            }
+        }
+
+        if ( sendNow )
+        {
+            client.performBackgroundOperation(operationAndData);
+        }
+    }
+
+    private boolean canBatch(OperationAndData<?> operationAndData)
+    {
+        return (operationAndData.getOperation() instanceof BatchableOperation) && ((BatchableOperation<?>)operationAndData.getOperation()).isBatchable();
+    }
+
+    // guarded by this
+    private void scheduleSend()
+    {
+        if ( !sendScheduled && !isClosed )
+        {
+            sendScheduled = true;
+            try
+            {
+                executorService.execute(sendTask);
+            }
+            catch ( RejectedExecutionException e )
+            {
+                sendScheduled = false;  // closing - close() sends the pending operations
+            }
+        }
+    }
+
+    // only called from the executor's thread
+    private void sendPending()
+    {
+        for(;;)
+        {
+            List<OperationAndData<?>>   batch;
+            synchronized(this)
+            {
+                if ( inFlight || pending.isEmpty() || !(flushRequested || (pending.size() >= maxBatchSize)) )
+                {
+                    isSending = false;
+                    return;
+                }
+
+                batch = takeBatch();
+                if ( pending.isEmpty() )
+                {
+                    flushRequested = false;
+                }
+                inFlight = (batch.size() > 1);
+                isSending = true;
+            }
+
+            if ( batch.size() == 1 )
+            {
+                client.performBackgroundOperation(batch.get(0));
+            }
+            else
+            {
+                sendMulti(batch);
+            }
+        }
+    }
+
+    // guarded by this
+    private List<OperationAndData<?>> takeBatch()
+    {
+        List<OperationAndData<?>>   batch = Lists.newArrayList();
+        OperationAndData<?>         head = pending.remove();
+        batch.add(head);
+        if ( canBatch(head) )
+        {
+            while ( (batch.size() < maxBatchSize) && (pending.peek() != null) && canBatch(pending.peek()) )
+            {
+                batch.add(pending.remove());
+            }
+        }
+        return batch;
+    }
+
+    private void sendMulti(final List<OperationAndData<?>> batch)
+    {
+        try
+        {
+            CuratorMultiTransactionRecord   record = new CuratorMultiTransactionRecord();
+            for ( OperationAndData<?> operationAndData : batch )
+            {
+                addToRecord(record, operationAndData);
+            }
+
+            final TimeTrace                 trace = client.getZookeeperClient().startTracer("BackgroundWriteBatcher-multi");
+            AsyncCallback.MultiCallback     callback = new AsyncCallback.MultiCallback()
+            {
+                @Override
+                public void processResult(int rc, String path, Object ctx, List<OpResult> opResults)
+                {
+                    trace.commit();
+                    if ( (rc == KeeperException.Code.OK.intValue()) && (opResults != null) && (opResults.size() == batch.size()) )
+                    {
+                        multiComplete();
+                        for ( int i = 0; i < batch.size(); ++i )
+                        {
+                            sendResult(batch.get(i), opResults.get(i));
+                        }
+                    }
+                    else
+                    {
+                        log.debug("Batch failed, executing operations individually. rc: " + rc);
+                        sendIndividually(batch);
+                        multiComplete();
+                    }
+                }
+            };
+            client.getZooKeeper().multi(record, callback, null);
+        }
+        catch ( Throwable e )
+        {
+            log.debug("Could not send batch, executing operations individually", e);
+            sendIndividually(batch);
+            multiComplete();
+        }
+    }
+
+    private synchronized void multiComplete()
+    {
+        inFlight = false;
+        notifyAll();
+        scheduleSend();
+    }
+
+    private void sendIndividually(List<OperationAndData<?>> batch)
+    {
+        for ( OperationAndData<?> operationAndData : batch )
+        {
+            client.performBackgroundOperation(operationAndData);
+        }
+    }
+
+    private static <T> void addToRecord(CuratorMultiTransactionRecord record, OperationAndData<T> operationAndData) throws Exception
+    {
+        BatchableOperation<T>   operation = (BatchableOperation<T>)operationAndData.getOperation();
+        Op                      op = operation.makeBatchOp(operationAndData);
+        record.add(op, operation.getBatchOperationType(), op.getPath());
+    }
+
+    private <T> void sendResult(OperationAndData<T> operationAndData, OpResult result)
+    {
+        BatchableOperation<T>   operation = (BatchableOperation<T>)operationAndData.getOperation();
+        client.processBackgroundOperation(operationAndData, operation.makeBatchEvent(operationAndData, result));
+    }
+}
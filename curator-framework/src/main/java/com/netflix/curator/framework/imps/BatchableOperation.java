@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.imps;
+
+import com.netflix.curator.framework.api.CuratorEvent;
+import com.netflix.curator.framework.api.transaction.OperationType;
+import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
+
+/**
+ * A background operation that can be coalesced with others into a single
+ * {@link org.apache.zookeeper.ZooKeeper#multi(Iterable)} by {@link BackgroundWriteBatcher}
+ */
+interface BatchableOperation<T> extends BackgroundOperation<T>
+{
+    /**
+     * @return true if this operation can currently be batched
+     */
+    public boolean isBatchable();
+
+    /**
+     * @return the transaction type for this operation
+     */
+    public OperationType getBatchOperationType();
+
+    /**
+     * Return the operation to add to the multi
+     *
+     * @param operationAndData the operation
+     * @return multi op
+     * @throws Exception errors
+     */
+    public Op makeBatchOp(OperationAndData<T> operationAndData) throws Exception;
+
+    /**
+     * Build the event that would have been generated had this operation executed
+     * on its own and produced the given result
+     *
+     * @param operationAndData the operation
+     * @param result the operation's result from the multi
+     * @return event
+     */
+    public CuratorEvent makeBatchEvent(OperationAndData<T> operationAndData, OpResult result);
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.netflix.curator.RetryLoop;
+import com.netflix.curator.TimeTrace;
+import com.netflix.curator.framework.api.BulkResult;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.Stat;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reads many paths by issuing async requests with a bounded number in flight. Paths
+ * that fail with a retry-able error are re-read (as a group) per the client's retry policy.
+ * The calling thread blocks until the ZooKeeper callbacks have completed so reads must never be
+ * started from the ZooKeeper event thread.
+ */
+abstract class BulkReader<T>
+{
+    static final int        DEFAULT_MAX_IN_FLIGHT = 100;
+
+    private final CuratorFrameworkImpl          client;
+    private final int                           maxInFlight;
+    private final String                        tracerName;
+    private List<String>                        unfixedPaths;
+    private AtomicReferenceArray<BulkResult<T>> results;
+
+    class Request
+    {
+        private final int           index;
+        private final String        path;
+        private final Semaphore     window;
+
+        private Request(int index, String path, Semaphore window)
+        {
+            this.index = index;
+            this.path = path;
+            this.window = window;
+        }
+
+        /**
+         * Complete the request with the given result code
+         *
+         * @param rc ZooKeeper result code
+         * @param value value if successful
+         * @param stat stat if available
+         */
+        void complete(int rc, T value, Stat stat)
+        {
+            KeeperException.Code    code = KeeperException.Code.get(rc);
+            if ( isSuccess(code) )
+            {
+                set(new BulkResult<T>(unfixedPaths.get(index), value, stat, null));
+            }
+            else
+            {
+                completeWithError((code != null) ? KeeperException.create(code, path) : new Exception("Unknown result code: " + rc));
+            }
+        }
+
+        /**
+         * Complete the request with an error
+         *
+         * @param e the error
+         */
+        void completeWithError(Exception e)
+        {
+            set(new BulkResult<T>(unfixedPaths.get(index), null, null, e));
+        }
+
+        private void set(BulkResult<T> result)
+        {
+            results.set(index, result);
+            window.release();
+        }
+    }
+
+    BulkReader(CuratorFrameworkImpl client, int maxInFlight, String tracerName)
+    {
+        Preconditions.checkArgument(maxInFlight > 0, "maxInFlight must be greater than 0");
+
+        this.client = client;
+        this.maxInFlight = maxInFlight;
+        this.tracerName = tracerName;
+    }
+
+    /**
+     * Start an async read of the given (namespace fixed) path. The callback must eventually call
+     * one of the request's complete methods.
+     *
+     * @param zooKeeper ZK handle
+     * @param path path to read
+     * @param request the request to complete
+     * @throws Exception errors
+     */
+    abstract void readAsync(ZooKeeper zooKeeper, String path, Request request) throws Exception;
+
+    /**
+     * Return true if the given result code should be reported as a success
+     *
+     * @param code result code
+     * @return true/false
+     */
+    boolean isSuccess(KeeperException.Code code)
+    {
+        return code == KeeperException.Code.OK;
+    }
+
+    Map<String, BulkResult<T>> read(Collection<String> paths) throws Exception
+    {
+        unfixedPaths = ImmutableList.copyOf(Sets.newLinkedHashSet(paths));
+        results = new AtomicReferenceArray<BulkResult<T>>(unfixedPaths.size());
+
+        final List<Integer>     pending = Lists.newArrayList();
+        for ( int i = 0; i < unfixedPaths.size(); ++i )
+        {
+            pending.add(i);
+        }
+
+        TimeTrace   trace = client.getZookeeperClient().startTracer(tracerName);
+        try
+        {
+            RetryLoop.callWithRetry
+            (
+                client.getZookeeperClient(),
+                new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        readPending(pending);
+                        return null;
+                    }
+                }
+            );
+        }
+        catch ( KeeperException e )
+        {
+            if ( !RetryLoop.isRetryException(e) )
+            {
+                throw e;
+            }
+            // retries exhausted - the remaining paths keep their connection errors
+        }
+        trace.commit();
+
+        Map<String, BulkResult<T>>  resultMap = Maps.newLinkedHashMap();
+        for ( int i = 0; i < unfixedPaths.size(); ++i )
+        {
+            resultMap.put(unfixedPaths.get(i), results.get(i));
+        }
+        return resultMap;
+    }
+
+    private void readPending(List<Integer> pending) throws Exception
+    {
+        ZooKeeper   zooKeeper = client.getZooKeeper();
+        Semaphore   window = new Semaphore(maxInFlight);
+        for ( int index : pending )
+        {
+            window.acquire();
+
+            String      path = client.fixForNamespace(unfixedPaths.get(index));
+            Request     request = new Request(index, path, window);
+            try
+            {
+                readAsync(zooKeeper, path, request);
+            }
+            catch ( Exception e )
+            {
+                request.completeWithError(e);
+            }
+        }
+        window.acquire(maxInFlight);    // wait for the outstanding requests
+
+        KeeperException     retryException = null;
+        Iterator<Integer>   iterator = pending.iterator();
+        while ( iterator.hasNext() )
+        {
+            Exception   error = results.get(iterator.next()).getError();
+            if ( RetryLoop.isRetryException(error) )
+            {
+                if ( retryException == null )
+                {
+                    retryException = (KeeperException)error;
+                }
+            }
+            else
+            {
+                iterator.remove();
+            }
+        }
+        if ( retryException != null )
+        {
+            throw retryException;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import com.netflix.curator.framework.api.CompressionCodec;
+import com.netflix.curator.framework.api.CompressionProvider;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * <p>
+ *     A compression provider that writes a small self-describing header before the compressed
+ *     data: two magic bytes, the codec id and the uncompressed length. The header lets
+ *     {@link #decompress(String, byte[])} pick the right codec so data written with different codecs -
+ *     or by {@link GzipCompressionProvider} (the legacy default) - can be read by the same client.
+ * </p>
+ *
+ * <p>
+ *     Payloads smaller than the minimum size, and payloads that don't get smaller, are stored as-is
+ *     (with a header) to avoid wasting CPU on data that won't benefit.
+ * </p>
+ *
+ * <p>
+ *     The uncompressed length in the header is only trusted up to {@link #MAX_EXPANSION_RATIO} times the size
+ *     of the compressed data (the limit of deflate) so that corrupt data can't cause a huge allocation.
+ * </p>
+ *
+ * <p>
+ *     NOTE: clients that use {@link GzipCompressionProvider} cannot read data written by this provider.
+ * </p>
+ */
+public class CodecCompressionProvider implements CompressionProvider
+{
+    public static final int     DEFAULT_MIN_COMPRESS_SIZE = 64;
+    public static final int     MAX_EXPANSION_RATIO = 1032;
+
+    private static final byte   MAGIC_0 = (byte)0xc5;
+    private static final byte   MAGIC_1 = (byte)0x7a;
+    private static final byte   STORED_ID = 0;
+    private static final int    HEADER_SIZE = 7;    // magic (2) + codec id (1) + uncompressed length (4)
+    private static final int    MAX_RESERVED_ID = 15;
+
+    private static final byte   GZIP_MAGIC_0 = (byte)0x1f;
+    private static final byte   GZIP_MAGIC_1 = (byte)0x8b;
+
+    private final CompressionCodec          codec;
+    private final int                       minCompressSize;
+    private final CompressionCodec[]        codecs = new CompressionCodec[0x100];
+    private final GzipCompressionProvider   legacyProvider = new GzipCompressionProvider();
+
+    /**
+     * Uses {@link Lz4CompressionCodec} and {@link #DEFAULT_MIN_COMPRESS_SIZE}
+     */
+    public CodecCompressionProvider()
+    {
+        this(new Lz4CompressionCodec(), DEFAULT_MIN_COMPRESS_SIZE);
+    }
+
+    /**
+     * @param codec codec to use when compressing
+     * @param minCompressSize payloads smaller than this are stored uncompressed
+     * @param additionalCodecs any other custom codecs that might be needed for decompression. The
+     *                         built-in codecs are always available. Custom codecs cannot use the reserved ids.
+     */
+    public CodecCompressionProvider(CompressionCodec codec, int minCompressSize, CompressionCodec... additionalCodecs)
+    {
+        Preconditions.checkNotNull(codec, "codec cannot be null");
+        Preconditions.checkArgument(codec.getId() != STORED_ID, "codec id cannot be " + STORED_ID);
+        Preconditions.checkArgument(minCompressSize >= 0, "minCompressSize cannot be negative");
+
+        this.codec = codec;
+        this.minCompressSize = minCompressSize;
+
+        codecs[Lz4CompressionCodec.ID] = new Lz4CompressionCodec();
+        codecs[DeflateCompressionCodec.ID] = new DeflateCompressionCodec();
+        for ( CompressionCodec additionalCodec : additionalCodecs )
+        {
+            register(additionalCodec);
+        }
+        register(codec);
+    }
+
+    @Override
+    public byte[] compress(String path, byte[] data) throws Exception
+    {
+        if ( (data.length > 0) && (data.length >= minCompressSize) )
+        {
+            // only keep the compressed form if it's smaller than storing
+            byte[]      compressed = new byte[HEADER_SIZE + data.length - 1];
+            int         length = codec.compress(data, compressed, HEADER_SIZE);
+            if ( length >= 0 )
+            {
+                writeHeader(compressed, codec.getId(), data.length);
+                return Arrays.copyOf(compressed, HEADER_SIZE + length);
+            }
+        }
+
+        byte[]      stored = new byte[HEADER_SIZE + data.length];
+        writeHeader(stored, STORED_ID, data.length);
+        System.arraycopy(data, 0, stored, HEADER_SIZE, data.length);
+        return stored;
+    }
+
+    @Override
+    public byte[] decompress(String path, byte[] compressedData) throws Exception
+    {
+        if ( (compressedData.length >= 2) && (compressedData[0] == GZIP_MAGIC_0) && (compressedData[1] == GZIP_MAGIC_1) )
+        {
+            return legacyProvider.decompress(path, compressedData);
+        }
+
+        if ( (compressedData.length < HEADER_SIZE) || (compressedData[0] != MAGIC_0) || (compressedData[1] != MAGIC_1) )
+        {
+            throw new DataFormatException("Unknown compression format for path: " + path);
+        }
+
+        byte        id = compressedData[2];
+        int         length = ((compressedData[3] & 0xff) << 24) | ((compressedData[4] & 0xff) << 16) | ((compressedData[5] & 0xff) << 8) | (compressedData[6] & 0xff);
+        if ( (length < 0) || (length > ((long)(compressedData.length - HEADER_SIZE) * MAX_EXPANSION_RATIO)) )
+        {
+            throw new DataFormatException("Bad uncompressed length (" + length + ") for path: " + path);
+        }
+
+        if ( id == STORED_ID )
+        {
+            if ( length != (compressedData.length - HEADER_SIZE) )
+            {
+                throw new DataFormatException("Bad stored length for path: " + path);
+            }
+            return Arrays.copyOfRange(compressedData, HEADER_SIZE, compressedData.length);
+        }
+
+        CompressionCodec    dataCodec = codecs[id & 0xff];
+        if ( dataCodec == null )
+        {
+            throw new DataFormatException("No codec registered for id " + id + " - path: " + path);
+        }
+        byte[]      data = new byte[length];
+        dataCodec.decompress(compressedData, HEADER_SIZE, compressedData.length - HEADER_SIZE, data);
+        return data;
+    }
+
+    private void register(CompressionCodec codec)
+    {
+        int                 id = codec.getId() & 0xff;
+        CompressionCodec    existing = codecs[id];
+        if ( (existing != null) && (existing.getClass() == codec.getClass()) )
+        {
+            codecs[id] = codec; // e.g. a built-in codec with different settings
+            return;
+        }
+        Preconditions.checkArgument(id > MAX_RESERVED_ID, "Codec id " + id + " is reserved for the built-in codecs: " + codec.getClass().getName());
+        Preconditions.checkArgument(existing == null, "Codec id " + id + " is already used by: " + ((existing != null) ? existing.getClass().getName() : null));
+        codecs[id] = codec;
+    }
+
+    private static void writeHeader(byte[] bytes, byte id, int length)
+    {
+        bytes[0] = MAGIC_0;
+        bytes[1] = MAGIC_1;
+        bytes[2] = id;
+        bytes[3] = (byte)(length >>> 24);
+        bytes[4] = (byte)(length >>> 16);
+        bytes[5] = (byte)(length >>> 8);
+        bytes[6] = (byte)length;
+    }
+}
@@ -20,9 +20,11 @@ package com.netflix.curator.framework.imps;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.curator.RetryLoop;
 import com.netflix.curator.TimeTrace;
 import com.netflix.curator.framework.api.*;
+import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.framework.api.transaction.CuratorTransactionBridge;
 import com.netflix.curator.framework.api.transaction.OperationType;
 import com.netflix.curator.framework.api.transaction.TransactionCreateBuilder;
@@ -31,6 +33,7 @@ import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import org.apache.zookeeper.data.ACL;
 import java.util.List;
 import java.util.UUID;
@@ -38,7 +41,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndBytes>
+class CreateBuilderImpl implements CreateBuilder, BatchableOperation<PathAndBytes>
 {
     private final CuratorFrameworkImpl      client;
     private CreateMode                      createMode;
@@ -179,6 +182,18 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
             {
                 return CreateBuilderImpl.this.forPath(path);
             }
+
+            @Override
+            public ListenableFuture<String> forPathAsync(String path, byte[] data)
+            {
+                return CreateBuilderImpl.this.forPathAsync(path, data);
+            }
+
+            @Override
+            public ListenableFuture<String> forPathAsync(String path)
+            {
+                return CreateBuilderImpl.this.forPathAsync(path);
+            }
         };
     }
 
@@ -241,6 +256,18 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
             {
                 return CreateBuilderImpl.this.forPath(path);
             }
+
+            @Override
+            public ListenableFuture<String> forPathAsync(String path, byte[] data)
+            {
+                return CreateBuilderImpl.this.forPathAsync(path, data);
+            }
+
+            @Override
+            public ListenableFuture<String> forPathAsync(String path)
+            {
+                return CreateBuilderImpl.this.forPathAsync(path);
+            }
         };
     }
 
@@ -315,6 +342,18 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
             {
                 return CreateBuilderImpl.this.forPath(path);
             }
+
+            @Override
+            public ListenableFuture<String> forPathAsync(String path, byte[] data)
+            {
+                return CreateBuilderImpl.this.forPathAsync(path, data);
+            }
+
+            @Override
+            public ListenableFuture<String> forPathAsync(String path)
+            {
+                return CreateBuilderImpl.this.forPathAsync(path);
+            }
         };
     }
 
@@ -402,6 +441,38 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
         return this;
     }
 
+    @Override
+    public ListenableFuture<String> forPathAsync(String path)
+    {
+        return forPathAsync(path, client.getDefaultData());
+    }
+
+    @Override
+    public ListenableFuture<String> forPathAsync(final String path, final byte[] data)
+    {
+        FutureBackgroundCallback<String>   callback = new FutureBackgroundCallback<String>()
+        {
+            @Override
+            String result(CuratorEvent event)
+            {
+                return event.getName();
+            }
+        };
+        backgrounding = new Backgrounding(callback);
+        return FutureBackgroundCallback.forPathAsync
+        (
+            callback,
+            new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    return forPath(path, data);
+                }
+            }
+        );
+    }
+
     @Override
     public String forPath(String path) throws Exception
     {
@@ -462,6 +533,34 @@ class CreateBuilderImpl implements CreateBuilder, BackgroundOperation<PathAndByt
         );
     }
 
+    @Override
+    public boolean isBatchable()
+    {
+        // protected mode relies on finding the node again after a failure, don't mix it with other operations
+        return !doProtected && !failNextCreateForTesting;
+    }
+
+    @Override
+    public OperationType getBatchOperationType()
+    {
+        return OperationType.CREATE;
+    }
+
+    @Override
+    public Op makeBatchOp(OperationAndData<PathAndBytes> operationAndData) throws Exception
+    {
+        String      path = operationAndData.getData().getPath();
+        return Op.create(path, operationAndData.getData().getData(), acling.getAclList(path), createMode);
+    }
+
+    @Override
+    public CuratorEvent makeBatchEvent(OperationAndData<PathAndBytes> operationAndData, OpResult result)
+    {
+        String      path = client.unfixForNamespace(operationAndData.getData().getPath());
+        String      name = client.unfixForNamespace(((OpResult.CreateResult)result).getPath());
+        return new CuratorEventImpl(client, CuratorEventType.CREATE, KeeperException.Code.OK.intValue(), path, name, backgrounding.getContext(), null, null, null, null, null);
+    }
+
     private String getProtectedPrefix()
     {
         return PROTECTED_PREFIX + protectedId + "-";
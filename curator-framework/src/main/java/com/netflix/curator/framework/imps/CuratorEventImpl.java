@@ -20,6 +20,7 @@ package com.netflix.curator.framework.imps;
 import com.google.common.collect.ImmutableList;
 import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.framework.api.CuratorEventType;
+import com.netflix.curator.framework.api.transaction.CuratorTransactionResult;
 import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.data.ACL;
 import org.apache.zookeeper.data.Stat;
@@ -38,6 +39,7 @@ class CuratorEventImpl implements CuratorEvent
     private final byte[]            data;
     private final WatchedEvent      watchedEvent;
     private final List<ACL>         aclList;
+    private final List<CuratorTransactionResult>    opResults;
 
     @Override
     public CuratorEventType getType()
@@ -99,6 +101,12 @@ class CuratorEventImpl implements CuratorEvent
         return aclList;
     }
 
+    @Override
+    public List<CuratorTransactionResult> getOpResults()
+    {
+        return opResults;
+    }
+
     @Override
     public String toString()
     {
@@ -113,10 +121,16 @@ class CuratorEventImpl implements CuratorEvent
             ", data=" + Arrays.toString(data) +
             ", watchedEvent=" + watchedEvent +
             ", aclList=" + aclList +
+            ", opResults=" + opResults +
             '}';
     }
 
     CuratorEventImpl(CuratorFrameworkImpl client, CuratorEventType type, int resultCode, String path, String name, Object context, Stat stat, byte[] data, List<String> children, WatchedEvent watchedEvent, List<ACL> aclList)
+    {
+        this(client, type, resultCode, path, name, context, stat, data, children, watchedEvent, aclList, null);
+    }
+
+    CuratorEventImpl(CuratorFrameworkImpl client, CuratorEventType type, int resultCode, String path, String name, Object context, Stat stat, byte[] data, List<String> children, WatchedEvent watchedEvent, List<ACL> aclList, List<CuratorTransactionResult> opResults)
     {
         this.type = type;
         this.resultCode = resultCode;
@@ -128,5 +142,6 @@ class CuratorEventImpl implements CuratorEvent
         this.children = children;
         this.watchedEvent = (watchedEvent != null) ? new NamespaceWatchedEvent(client, watchedEvent) : watchedEvent;
         this.aclList = (aclList != null) ? ImmutableList.copyOf(aclList) : null;
+        this.opResults = (opResults != null) ? ImmutableList.copyOf(opResults) : null;
     }
 }
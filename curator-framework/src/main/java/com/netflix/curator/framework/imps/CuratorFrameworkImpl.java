@@ -42,12 +42,11 @@ import org.apache.zookeeper.ZooKeeper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.Arrays;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.DelayQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class CuratorFrameworkImpl implements CuratorFramework
@@ -57,7 +56,8 @@ public class CuratorFrameworkImpl implements CuratorFramework
     private final ListenerContainer<CuratorListener>                    listeners;
     private final ListenerContainer<UnhandledErrorListener>             unhandledErrorListeners;
     private final ThreadFactory                                         threadFactory;
-    private final BlockingQueue<OperationAndData<?>>                    backgroundOperations;
+    private final StripedBackgroundQueue                                backgroundOperations;
+    private final BackgroundOperationLimiter                            backgroundOperationLimiter;
     private final NamespaceImpl                                         namespace;
     private final ConnectionStateManager                                connectionStateManager;
     private final AtomicReference<AuthInfo>                             authInfo = new AtomicReference<AuthInfo>();
@@ -67,6 +67,10 @@ public class CuratorFrameworkImpl implements CuratorFramework
     private final ACLProvider                                           aclProvider;
     private final NamespaceFacadeCache                                  namespaceFacadeCache;
     private final NamespaceWatcherMap                                   namespaceWatcherMap = new NamespaceWatcherMap(this);
+    private final BackgroundWriteBatcher                                backgroundWriteBatcher;
+    private final AtomicReference<ReadCacheStore>                       readCacheStore;
+    private final int                                                   readCacheSize;
+    private final AtomicReference<MultiplexedWatchStore>                multiplexedWatchStore;
 
     private volatile ExecutorService                                    executorService;
 
@@ -112,6 +116,19 @@ public class CuratorFrameworkImpl implements CuratorFramework
             {
                 @Override
                 public void process(WatchedEvent watchedEvent)
+                {
+                    Boolean         previous = backgroundOperationLimiter.callbackStarting();
+                    try
+                    {
+                        processWatchedEvent(watchedEvent);
+                    }
+                    finally
+                    {
+                        backgroundOperationLimiter.callbackComplete(previous);
+                    }
+                }
+
+                private void processWatchedEvent(WatchedEvent watchedEvent)
                 {
                     CuratorEvent event = new CuratorEventImpl
                     (
@@ -136,7 +153,8 @@ public class CuratorFrameworkImpl implements CuratorFramework
 
         listeners = new ListenerContainer<CuratorListener>();
         unhandledErrorListeners = new ListenerContainer<UnhandledErrorListener>();
-        backgroundOperations = new DelayQueue<OperationAndData<?>>();
+        backgroundOperations = new StripedBackgroundQueue(builder.getBackgroundThreads());
+        backgroundOperationLimiter = new BackgroundOperationLimiter(this, backgroundOperations, builder.getBackgroundQueueCapacity(), builder.getBackgroundOverflowPolicy());
         namespace = new NamespaceImpl(this, builder.getNamespace());
         threadFactory = getThreadFactory(builder);
         connectionStateManager = new ConnectionStateManager(this, builder.getThreadFactory());
@@ -153,7 +171,11 @@ public class CuratorFrameworkImpl implements CuratorFramework
         }
 
         failedDeleteManager = new FailedDeleteManager(this);
-        namespaceFacadeCache = new NamespaceFacadeCache(this);
+        backgroundWriteBatcher = (builder.getBackgroundBatchSize() > 1) ? new BackgroundWriteBatcher(this, builder.getBackgroundBatchSize(), builder.getBackgroundBatchLingerMs(), builder.getConnectionTimeoutMs(), threadFactory) : null;
+        readCacheStore = new AtomicReference<ReadCacheStore>();
+        readCacheSize = builder.getReadCacheSize();
+        multiplexedWatchStore = new AtomicReference<MultiplexedWatchStore>();
+        namespaceFacadeCache = new NamespaceFacadeCache(this);  // must be last - it creates a facade that copies this instance's fields
     }
 
     private ZookeeperFactory makeZookeeperFactory(final ZookeeperFactory actualZookeeperFactory)
@@ -192,12 +214,17 @@ public class CuratorFrameworkImpl implements CuratorFramework
         unhandledErrorListeners = parent.unhandledErrorListeners;
         threadFactory = parent.threadFactory;
         backgroundOperations = parent.backgroundOperations;
+        backgroundOperationLimiter = parent.backgroundOperationLimiter;
         connectionStateManager = parent.connectionStateManager;
         defaultData = parent.defaultData;
         failedDeleteManager = parent.failedDeleteManager;
         compressionProvider = parent.compressionProvider;
         aclProvider = parent.aclProvider;
         namespaceFacadeCache = parent.namespaceFacadeCache;
+        readCacheStore = parent.readCacheStore;
+        readCacheSize = parent.readCacheSize;
+        multiplexedWatchStore = parent.multiplexedWatchStore;
+        backgroundWriteBatcher = null;  // facades pass their background operations to the parent, which owns the batcher
         namespace = new NamespaceImpl(this, null);
         state = parent.state;
     }
@@ -229,20 +256,24 @@ public class CuratorFrameworkImpl implements CuratorFramework
         {
             connectionStateManager.start(); // ordering dependency - must be called before client.start()
             client.start();
-            executorService = Executors.newFixedThreadPool(2, threadFactory);  // 1 for listeners, 1 for background ops
+            executorService = Executors.newFixedThreadPool(1 + backgroundOperations.stripes(), threadFactory);  // 1 for listeners, N for background ops
 
-            executorService.submit
-            (
-                new Callable<Object>()
-                {
-                    @Override
-                    public Object call() throws Exception
+            for ( int i = 0; i < backgroundOperations.stripes(); ++i )
+            {
+                final int   stripe = i;
+                executorService.submit
+                (
+                    new Callable<Object>()
                     {
-                        backgroundOperationsLoop();
-                        return null;
+                        @Override
+                        public Object call() throws Exception
+                        {
+                            backgroundOperationsLoop(stripe);
+                            return null;
+                        }
                     }
-                }
-            );
+                );
+            }
         }
         catch ( Exception e )
         {
@@ -280,6 +311,10 @@ public class CuratorFrameworkImpl implements CuratorFramework
             listeners.clear();
             unhandledErrorListeners.clear();
             connectionStateManager.close();
+            if ( backgroundWriteBatcher != null )
+            {
+                backgroundWriteBatcher.close();    // sends any pending operations so must be before the client is closed
+            }
             client.close();
             namespaceWatcherMap.close();
             if ( executorService != null )
@@ -326,6 +361,41 @@ public class CuratorFrameworkImpl implements CuratorFramework
         return new DeleteBuilderImpl(this);
     }
 
+    @Override
+    public BackgroundOperationStats getBackgroundOperationStats()
+    {
+        return backgroundOperationLimiter;
+    }
+
+    @Override
+    public ReadCache cached()
+    {
+        Preconditions.checkState(isStarted(), "instance must be started before calling this method");
+
+        return new ReadCacheImpl(this, getReadCacheStore());
+    }
+
+    @Override
+    public WatchMultiplexer getWatchMultiplexer()
+    {
+        Preconditions.checkState(isStarted(), "instance must be started before calling this method");
+
+        MultiplexedWatchStore   store = multiplexedWatchStore.get();
+        if ( store == null )
+        {
+            synchronized(multiplexedWatchStore)
+            {
+                store = multiplexedWatchStore.get();
+                if ( store == null )
+                {
+                    store = new MultiplexedWatchStore(this);
+                    multiplexedWatchStore.set(store);
+                }
+            }
+        }
+        return new WatchMultiplexerImpl(this, store);
+    }
+
     @Override
     public ExistsBuilder checkExists()
     {
@@ -459,10 +529,32 @@ public class CuratorFrameworkImpl implements CuratorFramework
         boolean     isInitialExecution = (event == null);
         if ( isInitialExecution )
         {
-            performBackgroundOperation(operationAndData);
+            backgroundOperationLimiter.admit(operationAndData);
+            if ( backgroundWriteBatcher != null )
+            {
+                backgroundWriteBatcher.submit(operationAndData);
+            }
+            else
+            {
+                performBackgroundOperation(operationAndData);
+            }
             return;
         }
 
+        Boolean     previous = backgroundOperationLimiter.callbackStarting();
+        try
+        {
+            processBackgroundResult(operationAndData, event);
+        }
+        finally
+        {
+            backgroundOperationLimiter.callbackComplete(previous);
+        }
+    }
+
+    @SuppressWarnings({"ThrowableResultOfMethodCallIgnored"})
+    private <DATA_TYPE> void processBackgroundResult(OperationAndData<DATA_TYPE> operationAndData, CuratorEvent event)
+    {
         boolean     doQueueOperation = false;
         do
         {
@@ -492,11 +584,14 @@ public class CuratorFrameworkImpl implements CuratorFramework
                     {
                         e = new Exception("Unknown result code: " + event.getResultCode());
                     }
+                    backgroundOperationLimiter.release(operationAndData);
                     logError("Background operation retry gave up", e);
+                    failFuture(operationAndData, e);
                 }
                 break;
             }
 
+            backgroundOperationLimiter.release(operationAndData);
             if ( operationAndData.getCallback() != null )
             {
                 sendToBackgroundCallback(operationAndData, event);
@@ -569,6 +664,24 @@ public class CuratorFrameworkImpl implements CuratorFramework
         return namespaceFacadeCache;
     }
 
+    ReadCacheStore getReadCacheStore()
+    {
+        ReadCacheStore      store = readCacheStore.get();
+        if ( store == null )
+        {
+            synchronized(readCacheStore)
+            {
+                store = readCacheStore.get();
+                if ( store == null )
+                {
+                    store = new ReadCacheStore(this, readCacheSize);
+                    readCacheStore.set(store);
+                }
+            }
+        }
+        return store;
+    }
+
     NamespaceWatcherMap getNamespaceWatcherMap()
     {
         return namespaceWatcherMap;
@@ -618,18 +731,58 @@ public class CuratorFrameworkImpl implements CuratorFramework
                 }
             }
 
+            if ( operationAndData != null )
+            {
+                backgroundOperationLimiter.release(operationAndData);
+            }
             logError("Background exception was not retry-able or retry gave up", e);
+            failFuture(operationAndData, e);
         } while ( false );
     }
 
-    private void backgroundOperationsLoop()
+    /**
+     * Give up on an operation that has not completed
+     *
+     * @param operationAndData the operation
+     * @param e the reason
+     */
+    <DATA_TYPE> void abandonOperation(OperationAndData<DATA_TYPE> operationAndData, Exception e)
+    {
+        backgroundOperationLimiter.release(operationAndData);
+        if ( operationAndData.getErrorCallback() != null )
+        {
+            operationAndData.getErrorCallback().retriesExhausted(operationAndData);
+        }
+        logError("Background operation abandoned", e);
+        failFuture(operationAndData, e);
+    }
+
+    BackgroundOperationLimiter getBackgroundOperationLimiter()
+    {
+        return backgroundOperationLimiter;
+    }
+
+    private <DATA_TYPE> void failFuture(OperationAndData<DATA_TYPE> operationAndData, Throwable e)
+    {
+        // the callback isn't called for abandoned operations - make sure any waiting future is completed
+        if ( (operationAndData != null) && (operationAndData.getCallback() instanceof FutureBackgroundCallback) )
+        {
+            ((FutureBackgroundCallback<?>)operationAndData.getCallback()).setException(e);
+        }
+    }
+
+    private void backgroundOperationsLoop(int stripe)
     {
         while ( !Thread.interrupted() )
         {
             OperationAndData<?>         operationAndData;
             try
             {
-                operationAndData = backgroundOperations.take();
+                operationAndData = backgroundOperations.take(stripe);
+
+                long    queuedTimeMs = operationAndData.getQueuedTimeMs();
+                backgroundOperationLimiter.recordQueuedTime(queuedTimeMs);
+                client.getTracerDriver().addTrace("background-queue-time", queuedTimeMs, TimeUnit.MILLISECONDS);
                 if ( debugListener != null )
                 {
                     debugListener.listen(operationAndData);
@@ -645,7 +798,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
         }
     }
 
-    private void performBackgroundOperation(OperationAndData<?> operationAndData)
+    void performBackgroundOperation(OperationAndData<?> operationAndData)
     {
         try
         {
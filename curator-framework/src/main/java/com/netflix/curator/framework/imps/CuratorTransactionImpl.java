@@ -20,7 +20,12 @@ package com.netflix.curator.framework.imps;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.curator.RetryLoop;
+import com.netflix.curator.TimeTrace;
+import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.CuratorEvent;
+import com.netflix.curator.framework.api.CuratorEventType;
 import com.netflix.curator.framework.api.Pathable;
 import com.netflix.curator.framework.api.transaction.CuratorTransaction;
 import com.netflix.curator.framework.api.transaction.CuratorTransactionBridge;
@@ -31,6 +36,7 @@ import com.netflix.curator.framework.api.transaction.TransactionCheckBuilder;
 import com.netflix.curator.framework.api.transaction.TransactionCreateBuilder;
 import com.netflix.curator.framework.api.transaction.TransactionDeleteBuilder;
 import com.netflix.curator.framework.api.transaction.TransactionSetDataBuilder;
+import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Op;
 import org.apache.zookeeper.OpResult;
@@ -39,14 +45,16 @@ import org.apache.zookeeper.data.Stat;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-class CuratorTransactionImpl implements CuratorTransaction, CuratorTransactionBridge, CuratorTransactionFinal
+class CuratorTransactionImpl implements CuratorTransaction, CuratorTransactionBridge, CuratorTransactionFinal, BackgroundOperation<CuratorMultiTransactionRecord>
 {
     private final CuratorFrameworkImpl              client;
     private final CuratorMultiTransactionRecord     transaction;
 
     private boolean         isCommitted = false;
+    private Backgrounding   backgrounding = new Backgrounding();
 
     CuratorTransactionImpl(CuratorFrameworkImpl client)
     {
@@ -131,6 +139,77 @@ class CuratorTransactionImpl implements CuratorTransaction, CuratorTransactionBr
             }
         );
         
+        return wrapResults(resultList);
+    }
+
+    @Override
+    public ListenableFuture<Collection<CuratorTransactionResult>> commitAsync()
+    {
+        FutureBackgroundCallback<Collection<CuratorTransactionResult>>  callback = new FutureBackgroundCallback<Collection<CuratorTransactionResult>>()
+        {
+            @Override
+            Collection<CuratorTransactionResult> result(CuratorEvent event)
+            {
+                return event.getOpResults();
+            }
+        };
+        commitInBackground(new Backgrounding(callback));
+        return callback.getFuture();
+    }
+
+    @Override
+    public void commitInBackground(BackgroundCallback callback)
+    {
+        commitInBackground(new Backgrounding(callback));
+    }
+
+    @Override
+    public void commitInBackground(BackgroundCallback callback, Object context)
+    {
+        commitInBackground(new Backgrounding(callback, context));
+    }
+
+    @Override
+    public void commitInBackground(BackgroundCallback callback, Executor executor)
+    {
+        commitInBackground(new Backgrounding(client, callback, executor));
+    }
+
+    @Override
+    public void commitInBackground(BackgroundCallback callback, Object context, Executor executor)
+    {
+        commitInBackground(new Backgrounding(client, callback, context, executor));
+    }
+
+    private void commitInBackground(Backgrounding backgrounding)
+    {
+        Preconditions.checkState(!isCommitted, "transaction already committed");
+        isCommitted = true;
+
+        this.backgrounding = backgrounding;
+        client.processBackgroundOperation(new OperationAndData<CuratorMultiTransactionRecord>(this, transaction, backgrounding.getCallback(), null), null);
+    }
+
+    @Override
+    public void performBackgroundOperation(final OperationAndData<CuratorMultiTransactionRecord> operationAndData) throws Exception
+    {
+        final TimeTrace   trace = client.getZookeeperClient().startTracer("CuratorTransactionImpl-Background");
+        AsyncCallback.MultiCallback callback = new AsyncCallback.MultiCallback()
+        {
+            @Override
+            public void processResult(int rc, String path, Object ctx, List<OpResult> opResults)
+            {
+                trace.commit();
+                List<CuratorTransactionResult>  curatorResults = (rc == KeeperException.Code.OK.intValue()) ? wrapResults(opResults) : null;
+                CuratorEvent                    event = new CuratorEventImpl(client, CuratorEventType.TRANSACTION, rc, path, null, ctx, null, null, null, null, null, curatorResults);
+                client.processBackgroundOperation(operationAndData, event);
+            }
+        };
+        client.getZooKeeper().multi(operationAndData.getData(), callback, backgrounding.getContext());
+    }
+
+    private List<CuratorTransactionResult> wrapResults(List<OpResult> resultList)
+    {
         if ( resultList.size() != transaction.metadataSize() )
         {
             throw new IllegalStateException(String.format("Result size (%d) doesn't match input size (%d)", resultList.size(), transaction.metadataSize()));
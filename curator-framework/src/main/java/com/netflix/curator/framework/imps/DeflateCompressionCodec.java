@@ -0,0 +1,145 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import com.netflix.curator.framework.api.CompressionCodec;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate (zlib) codec with a configurable level. {@link Deflater}/{@link Inflater} instances
+ * (and their native buffers) are pooled instead of being allocated for each call.
+ */
+public class DeflateCompressionCodec implements CompressionCodec
+{
+    public static final byte    ID = 2;
+
+    private static final int    DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final int                       level;
+    private final BlockingQueue<Deflater>   deflaters;
+    private final BlockingQueue<Inflater>   inflaters;
+
+    public DeflateCompressionCodec()
+    {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param level compression level (0-9 or {@link Deflater#DEFAULT_COMPRESSION})
+     */
+    public DeflateCompressionCodec(int level)
+    {
+        this(level, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param level compression level (0-9 or {@link Deflater#DEFAULT_COMPRESSION})
+     * @param poolSize max number of idle deflaters/inflaters to keep
+     */
+    public DeflateCompressionCodec(int level, int poolSize)
+    {
+        Preconditions.checkArgument((level == Deflater.DEFAULT_COMPRESSION) || ((level >= Deflater.NO_COMPRESSION) && (level <= Deflater.BEST_COMPRESSION)), "Invalid level: " + level);
+        Preconditions.checkArgument(poolSize > 0, "poolSize must be greater than 0");
+
+        this.level = level;
+        deflaters = new ArrayBlockingQueue<Deflater>(poolSize);
+        inflaters = new ArrayBlockingQueue<Inflater>(poolSize);
+    }
+
+    @Override
+    public byte getId()
+    {
+        return ID;
+    }
+
+    @Override
+    public int compress(byte[] data, byte[] dest, int destOffset) throws Exception
+    {
+        Deflater    deflater = deflaters.poll();
+        if ( deflater == null )
+        {
+            deflater = new Deflater(level);
+        }
+
+        try
+        {
+            deflater.setInput(data);
+            deflater.finish();
+
+            int     position = destOffset;
+            while ( !deflater.finished() )
+            {
+                if ( position >= dest.length )
+                {
+                    return -1;
+                }
+                position += deflater.deflate(dest, position, dest.length - position);
+            }
+            return position - destOffset;
+        }
+        finally
+        {
+            deflater.reset();
+            if ( !deflaters.offer(deflater) )
+            {
+                deflater.end();
+            }
+        }
+    }
+
+    @Override
+    public void decompress(byte[] compressedData, int offset, int length, byte[] dest) throws Exception
+    {
+        Inflater    inflater = inflaters.poll();
+        if ( inflater == null )
+        {
+            inflater = new Inflater();
+        }
+
+        try
+        {
+            inflater.setInput(compressedData, offset, length);
+
+            int     position = 0;
+            while ( !inflater.finished() )
+            {
+                int     count = inflater.inflate(dest, position, dest.length - position);
+                if ( (count == 0) && !inflater.finished() )
+                {
+                    throw new DataFormatException(inflater.needsInput() ? "Truncated deflate data" : "Deflate data is larger than the expected length");
+                }
+                position += count;
+            }
+            if ( position != dest.length )
+            {
+                throw new DataFormatException("Expected " + dest.length + " bytes, got " + position);
+            }
+        }
+        finally
+        {
+            inflater.reset();
+            if ( !inflaters.offer(inflater) )
+            {
+                inflater.end();
+            }
+        }
+    }
+}
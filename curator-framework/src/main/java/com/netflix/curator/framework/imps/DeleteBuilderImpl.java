@@ -17,6 +17,7 @@
  */
 package com.netflix.curator.framework.imps;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.curator.RetryLoop;
 import com.netflix.curator.TimeTrace;
 import com.netflix.curator.framework.api.BackgroundCallback;
@@ -32,10 +33,11 @@ import com.netflix.curator.framework.api.transaction.TransactionDeleteBuilder;
 import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 
-class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<String>
+class DeleteBuilderImpl implements DeleteBuilder, BatchableOperation<String>
 {
     private final CuratorFrameworkImpl  client;
     private int                         version;
@@ -149,6 +151,56 @@ class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<String>
         );
     }
 
+    @Override
+    public boolean isBatchable()
+    {
+        return true;
+    }
+
+    @Override
+    public OperationType getBatchOperationType()
+    {
+        return OperationType.DELETE;
+    }
+
+    @Override
+    public Op makeBatchOp(OperationAndData<String> operationAndData) throws Exception
+    {
+        return Op.delete(operationAndData.getData(), version);
+    }
+
+    @Override
+    public CuratorEvent makeBatchEvent(OperationAndData<String> operationAndData, OpResult result)
+    {
+        return new CuratorEventImpl(client, CuratorEventType.DELETE, KeeperException.Code.OK.intValue(), operationAndData.getData(), null, backgrounding.getContext(), null, null, null, null, null);
+    }
+
+    @Override
+    public ListenableFuture<Void> forPathAsync(final String path)
+    {
+        FutureBackgroundCallback<Void>   callback = new FutureBackgroundCallback<Void>()
+        {
+            @Override
+            Void result(CuratorEvent event)
+            {
+                return null;
+            }
+        };
+        backgrounding = new Backgrounding(callback);
+        return FutureBackgroundCallback.forPathAsync
+        (
+            callback,
+            new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    return forPath(path);
+                }
+            }
+        );
+    }
+
     @Override
     public Void forPath(String path) throws Exception
     {
@@ -17,18 +17,24 @@
  */
 package com.netflix.curator.framework.imps;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.curator.RetryLoop;
 import com.netflix.curator.TimeTrace;
+import com.netflix.curator.framework.api.BackgroundBulkPathable;
 import com.netflix.curator.framework.api.BackgroundCallback;
-import com.netflix.curator.framework.api.BackgroundPathable;
+import com.netflix.curator.framework.api.BulkResult;
 import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.framework.api.CuratorEventType;
 import com.netflix.curator.framework.api.CuratorWatcher;
 import com.netflix.curator.framework.api.ExistsBuilder;
 import com.netflix.curator.framework.api.Pathable;
 import org.apache.zookeeper.AsyncCallback;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
 import org.apache.zookeeper.data.Stat;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 
@@ -46,21 +52,21 @@ class ExistsBuilderImpl implements ExistsBuilder, BackgroundOperation<String>
     }
 
     @Override
-    public BackgroundPathable<Stat> watched()
+    public BackgroundBulkPathable<Stat> watched()
     {
         watching = new Watching(true);
         return this;
     }
 
     @Override
-    public BackgroundPathable<Stat> usingWatcher(Watcher watcher)
+    public BackgroundBulkPathable<Stat> usingWatcher(Watcher watcher)
     {
         watching = new Watching(client, watcher);
         return this;
     }
 
     @Override
-    public BackgroundPathable<Stat> usingWatcher(CuratorWatcher watcher)
+    public BackgroundBulkPathable<Stat> usingWatcher(CuratorWatcher watcher)
     {
         watching = new Watching(client, watcher);
         return this;
@@ -132,6 +138,79 @@ class ExistsBuilderImpl implements ExistsBuilder, BackgroundOperation<String>
         }
     }
 
+    @Override
+    public ListenableFuture<Stat> forPathAsync(final String path)
+    {
+        FutureBackgroundCallback<Stat>   callback = new FutureBackgroundCallback<Stat>()
+        {
+            @Override
+            Stat result(CuratorEvent event)
+            {
+                return event.getStat();
+            }
+            @Override
+            boolean isSuccess(KeeperException.Code code)
+            {
+                return (code == KeeperException.Code.OK) || (code == KeeperException.Code.NONODE);
+            }
+
+        };
+        backgrounding = new Backgrounding(callback);
+        return FutureBackgroundCallback.forPathAsync
+        (
+            callback,
+            new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    return forPath(path);
+                }
+            }
+        );
+    }
+
+    @Override
+    public Map<String, BulkResult<Stat>> forPaths(Collection<String> paths) throws Exception
+    {
+        return forPaths(paths, BulkReader.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    @Override
+    public Map<String, BulkResult<Stat>> forPaths(Collection<String> paths, int maxInFlight) throws Exception
+    {
+        BulkReader<Stat>    reader = new BulkReader<Stat>(client, maxInFlight, "ExistsBuilderImpl-Bulk")
+        {
+            @Override
+            void readAsync(ZooKeeper zooKeeper, String path, final Request request)
+            {
+                AsyncCallback.StatCallback callback = new AsyncCallback.StatCallback()
+                {
+                    @Override
+                    public void processResult(int rc, String path, Object ctx, Stat stat)
+                    {
+                        request.complete(rc, stat, stat);
+                    }
+                };
+                if ( watching.isWatched() )
+                {
+                    zooKeeper.exists(path, true, callback, null);
+                }
+                else
+                {
+                    zooKeeper.exists(path, watching.getWatcher(), callback, null);
+                }
+            }
+
+            @Override
+            boolean isSuccess(KeeperException.Code code)
+            {
+                return (code == KeeperException.Code.OK) || (code == KeeperException.Code.NONODE);
+            }
+        };
+        return reader.read(paths);
+    }
+
     @Override
     public Stat forPath(String path) throws Exception
     {
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.imps;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.CuratorEvent;
+import org.apache.zookeeper.KeeperException;
+import java.util.concurrent.Callable;
+
+/**
+ * Background callback that completes a future with a typed value extracted from the event.
+ * The framework also fails the future if the operation is abandoned (retries exhausted or
+ * a non-retryable exception) as the callback is never called in those cases.
+ */
+abstract class FutureBackgroundCallback<T> implements BackgroundCallback
+{
+    private final SettableFuture<T>     future = SettableFuture.create();
+
+    /**
+     * Start a background operation whose result completes the given callback's future. The builder
+     * must already be set to report to <code>callback</code>. If starting the operation fails, the
+     * future is failed with that exception instead of it being thrown.
+     *
+     * @param callback the callback the builder reports to
+     * @param forPath starts the operation (i.e. calls the builder's <code>forPath()</code>)
+     * @return the callback's future
+     */
+    static <T> ListenableFuture<T> forPathAsync(FutureBackgroundCallback<T> callback, Callable<?> forPath)
+    {
+        try
+        {
+            forPath.call();
+        }
+        catch ( Exception e )
+        {
+            callback.setException(e);
+        }
+        return callback.getFuture();
+    }
+
+    /**
+     * Extract the result value from a successful event
+     *
+     * @param event the event
+     * @return value
+     * @throws Exception errors
+     */
+    abstract T result(CuratorEvent event) throws Exception;
+
+    /**
+     * Return true if the given result code should complete the future normally
+     *
+     * @param code result code
+     * @return true/false
+     */
+    boolean isSuccess(KeeperException.Code code)
+    {
+        return code == KeeperException.Code.OK;
+    }
+
+    ListenableFuture<T> getFuture()
+    {
+        return future;
+    }
+
+    void setException(Throwable e)
+    {
+        future.setException(e);
+    }
+
+    @Override
+    public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+    {
+        KeeperException.Code    code = KeeperException.Code.get(event.getResultCode());
+        if ( isSuccess(code) )
+        {
+            try
+            {
+                future.set(result(event));
+            }
+            catch ( Exception e )
+            {
+                future.setException(e);
+            }
+        }
+        else
+        {
+            future.setException((code != null) ? KeeperException.create(code, event.getPath()) : new Exception("Unknown result code: " + event.getResultCode()));
+        }
+    }
+}
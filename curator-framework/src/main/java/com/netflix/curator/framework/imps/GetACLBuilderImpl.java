@@ -17,9 +17,11 @@
  */
 package com.netflix.curator.framework.imps;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.curator.RetryLoop;
 import com.netflix.curator.TimeTrace;
 import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.framework.api.CuratorEventType;
 import com.netflix.curator.framework.api.GetACLBuilder;
 import com.netflix.curator.framework.api.Pathable;
@@ -110,6 +112,32 @@ class GetACLBuilderImpl implements GetACLBuilder, BackgroundOperation<String>
         client.getZooKeeper().getACL(operationAndData.getData(), responseStat, callback, backgrounding.getContext());
     }
 
+    @Override
+    public ListenableFuture<List<ACL>> forPathAsync(final String path)
+    {
+        FutureBackgroundCallback<List<ACL>>   callback = new FutureBackgroundCallback<List<ACL>>()
+        {
+            @Override
+            List<ACL> result(CuratorEvent event)
+            {
+                return event.getACLList();
+            }
+        };
+        backgrounding = new Backgrounding(callback);
+        return FutureBackgroundCallback.forPathAsync
+        (
+            callback,
+            new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    return forPath(path);
+                }
+            }
+        );
+    }
+
     @Override
     public List<ACL> forPath(String path) throws Exception
     {
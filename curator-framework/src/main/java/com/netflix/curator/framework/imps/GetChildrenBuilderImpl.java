@@ -18,10 +18,12 @@
 package com.netflix.curator.framework.imps;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.curator.RetryLoop;
 import com.netflix.curator.TimeTrace;
 import com.netflix.curator.framework.api.BackgroundCallback;
 import com.netflix.curator.framework.api.BackgroundPathable;
+import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.framework.api.CuratorEventType;
 import com.netflix.curator.framework.api.CuratorWatcher;
 import com.netflix.curator.framework.api.GetChildrenBuilder;
@@ -175,6 +177,32 @@ class GetChildrenBuilderImpl implements GetChildrenBuilder, BackgroundOperation<
         }
     }
 
+    @Override
+    public ListenableFuture<List<String>> forPathAsync(final String path)
+    {
+        FutureBackgroundCallback<List<String>>   callback = new FutureBackgroundCallback<List<String>>()
+        {
+            @Override
+            List<String> result(CuratorEvent event)
+            {
+                return event.getChildren();
+            }
+        };
+        backgrounding = new Backgrounding(callback);
+        return FutureBackgroundCallback.forPathAsync
+        (
+            callback,
+            new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    return forPath(path);
+                }
+            }
+        );
+    }
+
     @Override
     public List<String> forPath(String path) throws Exception
     {
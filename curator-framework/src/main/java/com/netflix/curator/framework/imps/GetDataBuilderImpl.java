@@ -17,10 +17,13 @@
  */
 package com.netflix.curator.framework.imps;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.curator.RetryLoop;
 import com.netflix.curator.TimeTrace;
+import com.netflix.curator.framework.api.BackgroundBulkPathable;
 import com.netflix.curator.framework.api.BackgroundCallback;
 import com.netflix.curator.framework.api.BackgroundPathable;
+import com.netflix.curator.framework.api.BulkResult;
 import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.framework.api.CuratorEventType;
 import com.netflix.curator.framework.api.CuratorWatcher;
@@ -31,9 +34,12 @@ import com.netflix.curator.framework.api.WatchPathable;
 import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 
@@ -103,6 +109,24 @@ class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<String>
                 return GetDataBuilderImpl.this.forPath(path);
             }
 
+            @Override
+            public ListenableFuture<byte[]> forPathAsync(String path)
+            {
+                return GetDataBuilderImpl.this.forPathAsync(path);
+            }
+
+            @Override
+            public Map<String, BulkResult<byte[]>> forPaths(Collection<String> paths) throws Exception
+            {
+                return GetDataBuilderImpl.this.forPaths(paths);
+            }
+
+            @Override
+            public Map<String, BulkResult<byte[]>> forPaths(Collection<String> paths, int maxInFlight) throws Exception
+            {
+                return GetDataBuilderImpl.this.forPaths(paths, maxInFlight);
+            }
+
             @Override
             public WatchPathable<byte[]> storingStatIn(Stat stat)
             {
@@ -110,19 +134,19 @@ class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<String>
             }
 
             @Override
-            public BackgroundPathable<byte[]> watched()
+            public BackgroundBulkPathable<byte[]> watched()
             {
                 return GetDataBuilderImpl.this.watched();
             }
 
             @Override
-            public BackgroundPathable<byte[]> usingWatcher(Watcher watcher)
+            public BackgroundBulkPathable<byte[]> usingWatcher(Watcher watcher)
             {
                 return GetDataBuilderImpl.this.usingWatcher(watcher);
             }
 
             @Override
-            public BackgroundPathable<byte[]> usingWatcher(CuratorWatcher watcher)
+            public BackgroundBulkPathable<byte[]> usingWatcher(CuratorWatcher watcher)
             {
                 return GetDataBuilderImpl.this.usingWatcher(watcher);
             }
@@ -207,21 +231,21 @@ class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<String>
     }
 
     @Override
-    public BackgroundPathable<byte[]> watched()
+    public BackgroundBulkPathable<byte[]> watched()
     {
         watching = new Watching(true);
         return this;
     }
 
     @Override
-    public BackgroundPathable<byte[]> usingWatcher(Watcher watcher)
+    public BackgroundBulkPathable<byte[]> usingWatcher(Watcher watcher)
     {
         watching = new Watching(client, watcher);
         return this;
     }
 
     @Override
-    public BackgroundPathable<byte[]> usingWatcher(CuratorWatcher watcher)
+    public BackgroundBulkPathable<byte[]> usingWatcher(CuratorWatcher watcher)
     {
         watching = new Watching(client, watcher);
         return this;
@@ -263,6 +287,79 @@ class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<String>
         }
     }
 
+    @Override
+    public ListenableFuture<byte[]> forPathAsync(final String path)
+    {
+        FutureBackgroundCallback<byte[]>   callback = new FutureBackgroundCallback<byte[]>()
+        {
+            @Override
+            byte[] result(CuratorEvent event)
+            {
+                return event.getData();
+            }
+        };
+        backgrounding = new Backgrounding(callback);
+        return FutureBackgroundCallback.forPathAsync
+        (
+            callback,
+            new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    return forPath(path);
+                }
+            }
+        );
+    }
+
+    @Override
+    public Map<String, BulkResult<byte[]>> forPaths(Collection<String> paths) throws Exception
+    {
+        return forPaths(paths, BulkReader.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    @Override
+    public Map<String, BulkResult<byte[]>> forPaths(Collection<String> paths, int maxInFlight) throws Exception
+    {
+        BulkReader<byte[]>  reader = new BulkReader<byte[]>(client, maxInFlight, "GetDataBuilderImpl-Bulk")
+        {
+            @Override
+            void readAsync(ZooKeeper zooKeeper, String path, final Request request)
+            {
+                AsyncCallback.DataCallback callback = new AsyncCallback.DataCallback()
+                {
+                    @Override
+                    public void processResult(int rc, String path, Object ctx, byte[] data, Stat stat)
+                    {
+                        if ( decompress && (data != null) )
+                        {
+                            try
+                            {
+                                data = client.getCompressionProvider().decompress(path, data);
+                            }
+                            catch ( Exception e )
+                            {
+                                request.completeWithError(e);
+                                return;
+                            }
+                        }
+                        request.complete(rc, data, stat);
+                    }
+                };
+                if ( watching.isWatched() )
+                {
+                    zooKeeper.getData(path, true, callback, null);
+                }
+                else
+                {
+                    zooKeeper.getData(path, watching.getWatcher(), callback, null);
+                }
+            }
+        };
+        return reader.read(paths);
+    }
+
     @Override
     public byte[] forPath(String path) throws Exception
     {
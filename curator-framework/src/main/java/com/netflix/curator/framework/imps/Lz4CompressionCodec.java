@@ -0,0 +1,234 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.imps;
+
+import com.netflix.curator.framework.api.CompressionCodec;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * A pure Java implementation of the LZ4 block format. It favors speed over ratio and
+ * is a good fit for the small (1-100K) payloads typically stored in ZooKeeper.
+ */
+public class Lz4CompressionCodec implements CompressionCodec
+{
+    public static final byte    ID = 1;
+
+    private static final int    MIN_MATCH = 4;
+    private static final int    MF_LIMIT = 12;          // the last match must start at least this many bytes before the end
+    private static final int    LAST_LITERALS = 5;      // the last bytes are always literals
+    private static final int    MAX_DISTANCE = 0xffff;
+    private static final int    HASH_LOG = 12;
+    private static final int    SKIP_TRIGGER = 6;       // speeds up the scan of incompressible data
+
+    private static final ThreadLocal<int[]>     hashTable = new ThreadLocal<int[]>()
+    {
+        @Override
+        protected int[] initialValue()
+        {
+            return new int[1 << HASH_LOG];
+        }
+    };
+
+    @Override
+    public byte getId()
+    {
+        return ID;
+    }
+
+    @Override
+    public int compress(byte[] data, byte[] dest, int destOffset) throws Exception
+    {
+        int         position = destOffset;
+        int         anchor = 0;
+        if ( data.length > MF_LIMIT )
+        {
+            int[]       table = hashTable.get();
+            Arrays.fill(table, -1);
+
+            int         matchStartLimit = data.length - MF_LIMIT;
+            int         matchEndLimit = data.length - LAST_LITERALS;
+            int         index = 0;
+            int         misses = 0;
+            while ( index < matchStartLimit )
+            {
+                int     sequence = readInt(data, index);
+                int     hash = hash(sequence);
+                int     reference = table[hash];
+                table[hash] = index;
+                if ( (reference < 0) || ((index - reference) > MAX_DISTANCE) || (readInt(data, reference) != sequence) )
+                {
+                    index += 1 + (misses++ >>> SKIP_TRIGGER);
+                    continue;
+                }
+                misses = 0;
+
+                int     matchLength = MIN_MATCH;
+                while ( ((index + matchLength) < matchEndLimit) && (data[reference + matchLength] == data[index + matchLength]) )
+                {
+                    ++matchLength;
+                }
+
+                position = writeSequence(data, anchor, index - anchor, index - reference, matchLength, dest, position);
+                if ( position < 0 )
+                {
+                    return -1;
+                }
+                index += matchLength;
+                anchor = index;
+            }
+        }
+
+        position = writeSequence(data, anchor, data.length - anchor, 0, 0, dest, position);
+        return (position < 0) ? -1 : (position - destOffset);
+    }
+
+    @Override
+    public void decompress(byte[] compressedData, int offset, int length, byte[] dest) throws Exception
+    {
+        int     sourceIndex = offset;
+        int     sourceEnd = offset + length;
+        int     destIndex = 0;
+        for(;;)
+        {
+            checkAvailable(sourceIndex, 1, sourceEnd);
+            int     token = compressedData[sourceIndex++] & 0xff;
+
+            int     literalLength = token >>> 4;
+            if ( literalLength == 0xf )
+            {
+                int     value;
+                do
+                {
+                    checkAvailable(sourceIndex, 1, sourceEnd);
+                    value = compressedData[sourceIndex++] & 0xff;
+                    literalLength += value;
+                } while ( value == 0xff );
+            }
+            checkAvailable(sourceIndex, literalLength, sourceEnd);
+            checkAvailable(destIndex, literalLength, dest.length);
+            System.arraycopy(compressedData, sourceIndex, dest, destIndex, literalLength);
+            sourceIndex += literalLength;
+            destIndex += literalLength;
+
+            if ( sourceIndex == sourceEnd )
+            {
+                break;  // the last sequence has no match
+            }
+
+            checkAvailable(sourceIndex, 2, sourceEnd);
+            int     distance = (compressedData[sourceIndex] & 0xff) | ((compressedData[sourceIndex + 1] & 0xff) << 8);
+            sourceIndex += 2;
+
+            int     matchLength = token & 0xf;
+            if ( matchLength == 0xf )
+            {
+                int     value;
+                do
+                {
+                    checkAvailable(sourceIndex, 1, sourceEnd);
+                    value = compressedData[sourceIndex++] & 0xff;
+                    matchLength += value;
+                } while ( value == 0xff );
+            }
+            matchLength += MIN_MATCH;
+
+            int     reference = destIndex - distance;
+            if ( (distance == 0) || (reference < 0) )
+            {
+                throw new DataFormatException("Malformed LZ4 data: bad match distance");
+            }
+            checkAvailable(destIndex, matchLength, dest.length);
+            if ( distance >= matchLength )
+            {
+                System.arraycopy(dest, reference, dest, destIndex, matchLength);
+                destIndex += matchLength;
+            }
+            else
+            {
+                // overlapping match - must be copied byte by byte
+                for ( int i = 0; i < matchLength; ++i )
+                {
+                    dest[destIndex++] = dest[reference++];
+                }
+            }
+        }
+
+        if ( destIndex != dest.length )
+        {
+            throw new DataFormatException("Expected " + dest.length + " bytes, got " + destIndex);
+        }
+    }
+
+    private static int writeSequence(byte[] data, int literalStart, int literalLength, int distance, int matchLength, byte[] dest, int position)
+    {
+        // worst case size of the sequence
+        int     required = 1 + literalLength + (literalLength / 0xff) + 1 + ((matchLength > 0) ? (2 + (matchLength / 0xff) + 1) : 0);
+        if ( (position + required) > dest.length )
+        {
+            return -1;
+        }
+
+        int     matchCode = (matchLength > 0) ? (matchLength - MIN_MATCH) : 0;
+        dest[position++] = (byte)((Math.min(literalLength, 0xf) << 4) | Math.min(matchCode, 0xf));
+        if ( literalLength >= 0xf )
+        {
+            position = writeLength(literalLength - 0xf, dest, position);
+        }
+        System.arraycopy(data, literalStart, dest, position, literalLength);
+        position += literalLength;
+
+        if ( matchLength > 0 )
+        {
+            dest[position++] = (byte)distance;
+            dest[position++] = (byte)(distance >>> 8);
+            if ( matchCode >= 0xf )
+            {
+                position = writeLength(matchCode - 0xf, dest, position);
+            }
+        }
+        return position;
+    }
+
+    private static int writeLength(int length, byte[] dest, int position)
+    {
+        while ( length >= 0xff )
+        {
+            dest[position++] = (byte)0xff;
+            length -= 0xff;
+        }
+        dest[position++] = (byte)length;
+        return position;
+    }
+
+    private static void checkAvailable(int index, int count, int end) throws DataFormatException
+    {
+        if ( (index + count) > end )
+        {
+            throw new DataFormatException("Malformed LZ4 data: truncated");
+        }
+    }
+
+    private static int readInt(byte[] data, int index)
+    {
+        return (data[index] & 0xff) | ((data[index + 1] & 0xff) << 8) | ((data[index + 2] & 0xff) << 16) | ((data[index + 3] & 0xff) << 24);
+    }
+
+    private static int hash(int sequence)
+    {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.imps;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+import com.netflix.curator.RetryLoop;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.api.WatchType;
+import com.netflix.curator.framework.state.ConnectionState;
+import com.netflix.curator.framework.state.ConnectionStateListener;
+import org.apache.zookeeper.AsyncCallback;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The watches behind {@link WatchMultiplexerImpl}. One instance is shared by a client and all of its
+ * namespace facades so watches are keyed by full (namespace fixed) path. Each path/type has a single
+ * {@link Entry} that is the only watcher ZooKeeper knows about for it. When the entry's watch fires it
+ * is re-armed asynchronously and the event is delivered to the subscribers from the re-arm callback so
+ * that ZooKeeper's event ordering is kept.
+ */
+class MultiplexedWatchStore
+{
+    private final Logger                            log = LoggerFactory.getLogger(getClass());
+    private final CuratorFrameworkImpl              client;
+    private final ConcurrentMap<Key, Entry>         entries = Maps.newConcurrentMap();
+
+    private final ConnectionStateListener   connectionStateListener = new ConnectionStateListener()
+    {
+        @Override
+        public void stateChanged(CuratorFramework client, ConnectionState newState)
+        {
+            if ( newState == ConnectionState.RECONNECTED )
+            {
+                rearmLostWatches();
+            }
+        }
+    };
+
+    private static class Key
+    {
+        private final String        path;
+        private final WatchType     type;
+
+        private Key(String path, WatchType type)
+        {
+            this.path = path;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+
+            Key key = (Key)o;
+            return (type == key.type) && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(path, type);
+        }
+    }
+
+    private class Entry implements Watcher
+    {
+        private final Key                                       key;
+        private final ConcurrentMap<Object, NamespaceWatcher>   subscribers = Maps.newConcurrentMap();
+        private volatile boolean                                armed = false;
+        private volatile boolean                                closed = false;
+        private boolean                                         initialized = false;
+
+        private Entry(Key key)
+        {
+            this.key = key;
+        }
+
+        @Override
+        public void process(final WatchedEvent event)
+        {
+            if ( event.getType() == Event.EventType.None )
+            {
+                if ( event.getState() == Event.KeeperState.Expired )
+                {
+                    // ZooKeeper drops all watches with the session
+                    armed = false;
+                }
+                return;
+            }
+            if ( !isWatchEvent(event.getType()) || closed )
+            {
+                return;
+            }
+
+            armed = false;
+            armInBackground
+            (
+                new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        notifySubscribers(event);
+                    }
+                }
+            );
+        }
+
+        private boolean isWatchEvent(Event.EventType type)
+        {
+            switch ( type )
+            {
+                case NodeCreated:
+                case NodeDeleted:
+                {
+                    return true;
+                }
+
+                case NodeDataChanged:
+                {
+                    return key.type == WatchType.DATA;
+                }
+
+                case NodeChildrenChanged:
+                {
+                    return key.type == WatchType.CHILDREN;
+                }
+            }
+            return false;
+        }
+
+        private synchronized void initialize() throws Exception
+        {
+            if ( !initialized )
+            {
+                RetryLoop.callWithRetry
+                (
+                    client.getZookeeperClient(),
+                    new Callable<Void>()
+                    {
+                        @Override
+                        public Void call() throws Exception
+                        {
+                            arm();
+                            return null;
+                        }
+                    }
+                );
+                armed = true;
+                initialized = true;
+            }
+        }
+
+        private void arm() throws Exception
+        {
+            ZooKeeper   zooKeeper = client.getZooKeeper();
+            if ( key.type == WatchType.DATA )
+            {
+                zooKeeper.exists(key.path, this);
+                return;
+            }
+
+            for(;;)
+            {
+                try
+                {
+                    zooKeeper.getChildren(key.path, this);
+                    return;
+                }
+                catch ( KeeperException.NoNodeException ignore )
+                {
+                    // wait for the node to be created
+                }
+                if ( zooKeeper.exists(key.path, this) == null )
+                {
+                    return;
+                }
+                // it was created in the meantime - watch its children
+            }
+        }
+
+        private void armInBackground(final Runnable then)
+        {
+            try
+            {
+                final ZooKeeper     zooKeeper = client.getZooKeeper();
+                if ( key.type == WatchType.DATA )
+                {
+                    AsyncCallback.StatCallback      callback = new AsyncCallback.StatCallback()
+                    {
+                        @Override
+                        public void processResult(int rc, String path, Object ctx, Stat stat)
+                        {
+                            armComplete((rc == KeeperException.Code.OK.intValue()) || (rc == KeeperException.Code.NONODE.intValue()), then);
+                        }
+                    };
+                    zooKeeper.exists(key.path, this, callback, null);
+                    return;
+                }
+
+                final AsyncCallback.StatCallback    existsCallback = new AsyncCallback.StatCallback()
+                {
+                    @Override
+                    public void processResult(int rc, String path, Object ctx, Stat stat)
+                    {
+                        if ( rc == KeeperException.Code.OK.intValue() )
+                        {
+                            // it was created in the meantime - watch its children
+                            armInBackground(then);
+                        }
+                        else
+                        {
+                            armComplete(rc == KeeperException.Code.NONODE.intValue(), then);
+                        }
+                    }
+                };
+                AsyncCallback.ChildrenCallback      childrenCallback = new AsyncCallback.ChildrenCallback()
+                {
+                    @Override
+                    public void processResult(int rc, String path, Object ctx, List<String> children)
+                    {
+                        if ( rc == KeeperException.Code.NONODE.intValue() )
+                        {
+                            // wait for the node to be created
+                            zooKeeper.exists(key.path, Entry.this, existsCallback, null);
+                        }
+                        else
+                        {
+                            armComplete(rc == KeeperException.Code.OK.intValue(), then);
+                        }
+                    }
+                };
+                zooKeeper.getChildren(key.path, this, childrenCallback, null);
+            }
+            catch ( Exception e )
+            {
+                client.logError("Could not re-arm watch for: " + key.path, e);
+                armComplete(false, then);
+            }
+        }
+
+        private void armComplete(boolean success, Runnable then)
+        {
+            armed = success;
+            if ( !success )
+            {
+                log.debug("Watch not re-armed (will retry on reconnect): " + key.path);
+            }
+            if ( then != null )
+            {
+                then.run();
+            }
+        }
+
+        private void notifySubscribers(WatchedEvent event)
+        {
+            for ( NamespaceWatcher watcher : subscribers.values() )
+            {
+                try
+                {
+                    watcher.process(event);
+                }
+                catch ( Exception e )
+                {
+                    client.logError("Watcher exception", e);
+                }
+            }
+        }
+    }
+
+    MultiplexedWatchStore(CuratorFrameworkImpl client)
+    {
+        this.client = client;
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+    }
+
+    /**
+     * @param path full path
+     * @param type watch type
+     * @param watcher the subscriber's watcher (the map key)
+     * @param namespaceWatcher wrapper that un-fixes the event path for the subscriber's namespace
+     * @throws Exception errors setting the watch
+     */
+    void addWatcher(String path, WatchType type, Object watcher, NamespaceWatcher namespaceWatcher) throws Exception
+    {
+        Key         key = new Key(path, type);
+        Entry       entry;
+        synchronized(this)
+        {
+            entry = entries.get(key);
+            if ( entry == null )
+            {
+                entry = new Entry(key);
+                entries.put(key, entry);
+            }
+            entry.subscribers.put(watcher, namespaceWatcher);
+        }
+
+        try
+        {
+            entry.initialize();
+        }
+        catch ( Exception e )
+        {
+            removeWatcher(path, type, watcher);
+            throw e;
+        }
+    }
+
+    void removeWatcher(String path, WatchType type, Object watcher)
+    {
+        Key         key = new Key(path, type);
+        Entry       removedEntry = null;
+        synchronized(this)
+        {
+            Entry   entry = entries.get(key);
+            if ( (entry != null) && (entry.subscribers.remove(watcher) != null) && entry.subscribers.isEmpty() )
+            {
+                entries.remove(key);
+                entry.closed = true;
+                removedEntry = entry;
+            }
+        }
+
+        if ( removedEntry != null )
+        {
+            try
+            {
+                AsyncCallback.VoidCallback  callback = new AsyncCallback.VoidCallback()
+                {
+                    @Override
+                    public void processResult(int rc, String path, Object ctx)
+                    {
+                        // ignore - the watch may have already fired
+                    }
+                };
+                Watcher.WatcherType     watcherType = (type == WatchType.DATA) ? Watcher.WatcherType.Data : Watcher.WatcherType.Children;
+                client.getZooKeeper().removeWatches(path, removedEntry, watcherType, true, callback, null);
+            }
+            catch ( Exception e )
+            {
+                log.debug("Could not remove watch for: " + path, e);
+            }
+        }
+    }
+
+    int getWatchCount()
+    {
+        return entries.size();
+    }
+
+    int getSubscriberCount()
+    {
+        int     count = 0;
+        for ( Entry entry : entries.values() )
+        {
+            count += entry.subscribers.size();
+        }
+        return count;
+    }
+
+    private void rearmLostWatches()
+    {
+        for ( Entry entry : entries.values() )
+        {
+            if ( !entry.armed && !entry.closed )
+            {
+                entry.armInBackground(null);
+            }
+        }
+    }
+}
@@ -129,6 +129,12 @@ class NamespaceFacade extends CuratorFrameworkImpl
         client.processBackgroundOperation(operationAndData, event);
     }
 
+    @Override
+    ReadCacheStore getReadCacheStore()
+    {
+        return client.getReadCacheStore();
+    }
+
     @Override
     void logError(String reason, Throwable e)
     {
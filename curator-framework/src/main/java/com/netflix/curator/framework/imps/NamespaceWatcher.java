@@ -44,6 +44,19 @@ class NamespaceWatcher implements Watcher
 
     @Override
     public void process(WatchedEvent event)
+    {
+        Boolean     previous = client.getBackgroundOperationLimiter().callbackStarting();
+        try
+        {
+            processEvent(event);
+        }
+        finally
+        {
+            client.getBackgroundOperationLimiter().callbackComplete(previous);
+        }
+    }
+
+    private void processEvent(WatchedEvent event)
     {
         if ( actualWatcher != null )
         {
@@ -17,11 +17,11 @@
  */
 package com.netflix.curator.framework.imps;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.netflix.curator.RetrySleeper;
 import com.netflix.curator.framework.api.BackgroundCallback;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -37,6 +37,8 @@ class OperationAndData<T> implements Delayed, RetrySleeper
     private final AtomicInteger             retryCount = new AtomicInteger(0);
     private final AtomicLong                sleepUntilTimeMs = new AtomicLong(0);
     private final long                      ordinal = nextOrdinal.getAndIncrement();
+    private final AtomicBoolean             admitted = new AtomicBoolean(false);
+    private volatile long                   queuedTimeMs = 0;
 
     interface ErrorCallback<T>
     {
@@ -81,12 +83,44 @@ class OperationAndData<T> implements Delayed, RetrySleeper
         return errorCallback;
     }
 
-    @VisibleForTesting
     BackgroundOperation<T> getOperation()
     {
         return operation;
     }
 
+    long getOrdinal()
+    {
+        return ordinal;
+    }
+
+    /**
+     * Set whether this operation holds a slot in the client's {@link BackgroundOperationLimiter}
+     *
+     * @param value new value
+     * @return true if the value changed
+     */
+    boolean setAdmitted(boolean value)
+    {
+        return admitted.getAndSet(value) != value;
+    }
+
+    void markQueued()
+    {
+        queuedTimeMs = System.currentTimeMillis();
+    }
+
+    /**
+     * Return how long this operation has been in the queue since it became ready to run (i.e.
+     * not counting any retry sleep)
+     *
+     * @return time in milliseconds
+     */
+    long getQueuedTimeMs()
+    {
+        long    readyTimeMs = Math.max(queuedTimeMs, sleepUntilTimeMs.get());
+        return Math.max(0, System.currentTimeMillis() - readyTimeMs);
+    }
+
     @Override
     public void sleepFor(long time, TimeUnit unit) throws InterruptedException
     {
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.imps;
+
+import com.netflix.curator.framework.api.ReadCache;
+import org.apache.zookeeper.data.Stat;
+import java.util.List;
+
+/**
+ * Namespace aware view of the client's shared {@link ReadCacheStore}
+ */
+class ReadCacheImpl implements ReadCache
+{
+    private final CuratorFrameworkImpl  client;
+    private final ReadCacheStore        store;
+
+    ReadCacheImpl(CuratorFrameworkImpl client, ReadCacheStore store)
+    {
+        this.client = client;
+        this.store = store;
+    }
+
+    @Override
+    public byte[] getData(String path) throws Exception
+    {
+        return store.getData(client.fixForNamespace(path));
+    }
+
+    @Override
+    public Stat checkExists(String path) throws Exception
+    {
+        return store.checkExists(client.fixForNamespace(path));
+    }
+
+    @Override
+    public List<String> getChildren(String path) throws Exception
+    {
+        return store.getChildren(client.fixForNamespace(path));
+    }
+
+    @Override
+    public void invalidate(String path)
+    {
+        store.invalidate(client.fixForNamespace(path));
+    }
+
+    @Override
+    public void clear()
+    {
+        store.clear();
+    }
+
+    @Override
+    public long size()
+    {
+        return store.size();
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return store.getHitCount();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return store.getMissCount();
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.netflix.curator.framework.imps;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.netflix.curator.RetryLoop;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.state.ConnectionState;
+import com.netflix.curator.framework.state.ConnectionStateListener;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The cache behind {@link ReadCacheImpl}. One instance is shared by a client and all of its
+ * namespace facades so entries are keyed by full (namespace fixed) path. It is always created by
+ * the root client and a single, unwrapped watcher instance is used for every read so event paths
+ * are the cache keys and ZooKeeper keeps at most one watch per path and watch type for the cache.
+ */
+class ReadCacheStore
+{
+    private static final int    GENERATION_STRIPES = 64;
+    private static final Object NO_NODE = new Object();
+
+    private final CuratorFrameworkImpl      client;
+    private final Cache<Key, Object>        cache;
+    private final AtomicLongArray           generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Watcher                   watcher;
+
+    private final ConnectionStateListener   connectionStateListener = new ConnectionStateListener()
+    {
+        @Override
+        public void stateChanged(CuratorFramework client, ConnectionState newState)
+        {
+            if ( (newState == ConnectionState.SUSPENDED) || (newState == ConnectionState.LOST) )
+            {
+                clear();
+            }
+        }
+    };
+
+    private enum Type
+    {
+        DATA,
+        EXISTS,
+        CHILDREN
+    }
+
+    private static class Key
+    {
+        private final Type      type;
+        private final String    path;
+
+        private Key(Type type, String path)
+        {
+            this.type = type;
+            this.path = path;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+
+            Key key = (Key)o;
+            return (type == key.type) && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(type, path);
+        }
+    }
+
+    private static class DataEntry
+    {
+        private final byte[]    data;
+
+        private DataEntry(byte[] data)
+        {
+            this.data = data;
+        }
+    }
+
+    ReadCacheStore(CuratorFrameworkImpl client, int maxEntries)
+    {
+        this.client = client;
+        cache = CacheBuilder.newBuilder().maximumSize(maxEntries).recordStats().build();
+        watcher = new Watcher()
+        {
+            @Override
+            public void process(WatchedEvent event)
+            {
+                processWatchedEvent(event);
+            }
+        };
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+    }
+
+    byte[] getData(final String path) throws Exception
+    {
+        Key             key = new Key(Type.DATA, path);
+        DataEntry       entry = (DataEntry)cache.getIfPresent(key);
+        if ( entry == null )
+        {
+            long        generation = getGeneration(path);
+            byte[]      data = RetryLoop.callWithRetry
+            (
+                client.getZookeeperClient(),
+                new Callable<byte[]>()
+                {
+                    @Override
+                    public byte[] call() throws Exception
+                    {
+                        return client.getZooKeeper().getData(path, watcher, null);
+                    }
+                }
+            );
+            entry = new DataEntry(data);
+            put(key, entry, generation);
+        }
+        return (entry.data != null) ? Arrays.copyOf(entry.data, entry.data.length) : null;
+    }
+
+    Stat checkExists(final String path) throws Exception
+    {
+        Key         key = new Key(Type.EXISTS, path);
+        Object      value = cache.getIfPresent(key);
+        if ( value == null )
+        {
+            long        generation = getGeneration(path);
+            Stat        stat = RetryLoop.callWithRetry
+            (
+                client.getZookeeperClient(),
+                new Callable<Stat>()
+                {
+                    @Override
+                    public Stat call() throws Exception
+                    {
+                        return client.getZooKeeper().exists(path, watcher);
+                    }
+                }
+            );
+            value = (stat != null) ? stat : NO_NODE;
+            put(key, value, generation);
+        }
+        return (value != NO_NODE) ? copyStat((Stat)value) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<String> getChildren(final String path) throws Exception
+    {
+        Key             key = new Key(Type.CHILDREN, path);
+        List<String>    children = (List<String>)cache.getIfPresent(key);
+        if ( children == null )
+        {
+            long        generation = getGeneration(path);
+            children = ImmutableList.copyOf
+            (
+                RetryLoop.callWithRetry
+                (
+                    client.getZookeeperClient(),
+                    new Callable<List<String>>()
+                    {
+                        @Override
+                        public List<String> call() throws Exception
+                        {
+                            return client.getZooKeeper().getChildren(path, watcher);
+                        }
+                    }
+                )
+            );
+            put(key, children, generation);
+        }
+        return children;
+    }
+
+    void invalidate(String path)
+    {
+        // bump the generation first so that in-flight reads of the path don't re-cache stale values
+        generations.incrementAndGet(stripeFor(path));
+        for ( Type type : Type.values() )
+        {
+            cache.invalidate(new Key(type, path));
+        }
+    }
+
+    void clear()
+    {
+        for ( int i = 0; i < GENERATION_STRIPES; ++i )
+        {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    long size()
+    {
+        return cache.size();
+    }
+
+    long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    private void processWatchedEvent(WatchedEvent event)
+    {
+        if ( event.getType() == Watcher.Event.EventType.None )
+        {
+            if ( event.getState() != Watcher.Event.KeeperState.SyncConnected )
+            {
+                clear();
+            }
+        }
+        else if ( event.getPath() != null )
+        {
+            invalidate(event.getPath());
+        }
+    }
+
+    private void put(Key key, Object value, long generation)
+    {
+        int     stripe = stripeFor(key.path);
+        if ( generations.get(stripe) == generation )
+        {
+            cache.put(key, value);
+
+            // an invalidation may have raced with the put - if so, drop the value
+            if ( generations.get(stripe) != generation )
+            {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    private long getGeneration(String path)
+    {
+        return generations.get(stripeFor(path));
+    }
+
+    private static int stripeFor(String path)
+    {
+        return (path.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    private static Stat copyStat(Stat stat)
+    {
+        return new Stat
+        (
+            stat.getCzxid(),
+            stat.getMzxid(),
+            stat.getCtime(),
+            stat.getMtime(),
+            stat.getVersion(),
+            stat.getCversion(),
+            stat.getAversion(),
+            stat.getEphemeralOwner(),
+            stat.getDataLength(),
+            stat.getNumChildren(),
+            stat.getPzxid()
+        );
+    }
+}
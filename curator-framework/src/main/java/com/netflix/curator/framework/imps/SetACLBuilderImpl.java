@@ -17,6 +17,7 @@
  */
 package com.netflix.curator.framework.imps;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.curator.RetryLoop;
 import com.netflix.curator.TimeTrace;
 import com.netflix.curator.framework.api.*;
@@ -103,6 +104,32 @@ class SetACLBuilderImpl implements SetACLBuilder, BackgroundPathable<Stat>, Back
         return this;
     }
 
+    @Override
+    public ListenableFuture<Stat> forPathAsync(final String path)
+    {
+        FutureBackgroundCallback<Stat>   callback = new FutureBackgroundCallback<Stat>()
+        {
+            @Override
+            Stat result(CuratorEvent event)
+            {
+                return event.getStat();
+            }
+        };
+        backgrounding = new Backgrounding(callback);
+        return FutureBackgroundCallback.forPathAsync
+        (
+            callback,
+            new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    return forPath(path);
+                }
+            }
+        );
+    }
+
     @Override
     public Stat forPath(String path) throws Exception
     {
@@ -17,6 +17,7 @@
  */
 package com.netflix.curator.framework.imps;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.curator.RetryLoop;
 import com.netflix.curator.TimeTrace;
 import com.netflix.curator.framework.api.BackgroundCallback;
@@ -30,12 +31,14 @@ import com.netflix.curator.framework.api.transaction.CuratorTransactionBridge;
 import com.netflix.curator.framework.api.transaction.OperationType;
 import com.netflix.curator.framework.api.transaction.TransactionSetDataBuilder;
 import org.apache.zookeeper.AsyncCallback;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Op;
+import org.apache.zookeeper.OpResult;
 import org.apache.zookeeper.data.Stat;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 
-class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndBytes>
+class SetDataBuilderImpl implements SetDataBuilder, BatchableOperation<PathAndBytes>
 {
     private final CuratorFrameworkImpl      client;
     private Backgrounding                   backgrounding;
@@ -131,6 +134,18 @@ class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndB
                 return SetDataBuilderImpl.this.forPath(path);
             }
 
+            @Override
+            public ListenableFuture<Stat> forPathAsync(String path, byte[] data)
+            {
+                return SetDataBuilderImpl.this.forPathAsync(path, data);
+            }
+
+            @Override
+            public ListenableFuture<Stat> forPathAsync(String path)
+            {
+                return SetDataBuilderImpl.this.forPathAsync(path);
+            }
+
             @Override
             public BackgroundPathAndBytesable<Stat> withVersion(int version)
             {
@@ -212,6 +227,63 @@ class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<PathAndB
         );
     }
 
+    @Override
+    public boolean isBatchable()
+    {
+        return true;
+    }
+
+    @Override
+    public OperationType getBatchOperationType()
+    {
+        return OperationType.SET_DATA;
+    }
+
+    @Override
+    public Op makeBatchOp(OperationAndData<PathAndBytes> operationAndData) throws Exception
+    {
+        return Op.setData(operationAndData.getData().getPath(), operationAndData.getData().getData(), version);
+    }
+
+    @Override
+    public CuratorEvent makeBatchEvent(OperationAndData<PathAndBytes> operationAndData, OpResult result)
+    {
+        Stat        stat = ((OpResult.SetDataResult)result).getStat();
+        return new CuratorEventImpl(client, CuratorEventType.SET_DATA, KeeperException.Code.OK.intValue(), operationAndData.getData().getPath(), null, backgrounding.getContext(), stat, null, null, null, null);
+    }
+
+    @Override
+    public ListenableFuture<Stat> forPathAsync(String path)
+    {
+        return forPathAsync(path, client.getDefaultData());
+    }
+
+    @Override
+    public ListenableFuture<Stat> forPathAsync(final String path, final byte[] data)
+    {
+        FutureBackgroundCallback<Stat>   callback = new FutureBackgroundCallback<Stat>()
+        {
+            @Override
+            Stat result(CuratorEvent event)
+            {
+                return event.getStat();
+            }
+        };
+        backgrounding = new Backgrounding(callback);
+        return FutureBackgroundCallback.forPathAsync
+        (
+            callback,
+            new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    return forPath(path, data);
+                }
+            }
+        );
+    }
+
     @Override
     public Stat forPath(String path) throws Exception
     {
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.imps;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.DelayQueue;
+
+/**
+ * A set of delay queues, one per background worker. Operations are assigned to a
+ * queue based on their path so that all operations for a given path are processed
+ * by the same worker (and, thus, in order). Each queue is a {@link DelayQueue} so an
+ * operation that is sleeping before a retry never blocks operations that are ready.
+ */
+class StripedBackgroundQueue
+{
+    private final DelayQueue<OperationAndData<?>>[]     queues;
+
+    StripedBackgroundQueue(int stripes)
+    {
+        Preconditions.checkArgument(stripes > 0, "stripes must be greater than 0");
+
+        queues = newQueueArray(stripes);
+        for ( int i = 0; i < stripes; ++i )
+        {
+            queues[i] = new DelayQueue<OperationAndData<?>>();
+        }
+    }
+
+    int stripes()
+    {
+        return queues.length;
+    }
+
+    void offer(OperationAndData<?> operationAndData)
+    {
+        operationAndData.markQueued();
+        queues[stripeFor(operationAndData)].offer(operationAndData);
+    }
+
+    /**
+     * Remove and return the operation that was started first or <code>null</code> if the queue is empty
+     *
+     * @return operation or null
+     */
+    OperationAndData<?> removeOldest()
+    {
+        for(;;)
+        {
+            OperationAndData<?>                 oldest = null;
+            DelayQueue<OperationAndData<?>>     oldestQueue = null;
+            for ( DelayQueue<OperationAndData<?>> queue : queues )
+            {
+                for ( OperationAndData<?> operationAndData : queue )
+                {
+                    if ( (oldest == null) || (operationAndData.getOrdinal() < oldest.getOrdinal()) )
+                    {
+                        oldest = operationAndData;
+                        oldestQueue = queue;
+                    }
+                }
+            }
+
+            if ( oldest == null )
+            {
+                return null;
+            }
+            if ( oldestQueue.remove(oldest) )
+            {
+                return oldest;
+            }
+            // it was taken by a worker in the meantime - try again
+        }
+    }
+
+    OperationAndData<?> take(int stripe) throws InterruptedException
+    {
+        return queues[stripe].take();
+    }
+
+    int size()
+    {
+        int     size = 0;
+        for ( DelayQueue<OperationAndData<?>> queue : queues )
+        {
+            size += queue.size();
+        }
+        return size;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static DelayQueue<OperationAndData<?>>[] newQueueArray(int stripes)
+    {
+        return new DelayQueue[stripes];
+    }
+
+    private int stripeFor(OperationAndData<?> operationAndData)
+    {
+        if ( queues.length == 1 )
+        {
+            return 0;
+        }
+
+        String      path = getPath(operationAndData.getData());
+        int         hash = (path != null) ? path.hashCode() : 0;
+        return (hash & Integer.MAX_VALUE) % queues.length;
+    }
+
+    private static String getPath(Object data)
+    {
+        if ( data instanceof String )
+        {
+            return (String)data;
+        }
+        if ( data instanceof PathAndBytes )
+        {
+            return ((PathAndBytes)data).getPath();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.imps;
+
+import com.netflix.curator.framework.api.CuratorWatcher;
+import com.netflix.curator.framework.api.WatchMultiplexer;
+import com.netflix.curator.framework.api.WatchType;
+import org.apache.zookeeper.Watcher;
+
+/**
+ * Namespace aware view of the client's shared {@link MultiplexedWatchStore}
+ */
+class WatchMultiplexerImpl implements WatchMultiplexer
+{
+    private final CuratorFrameworkImpl      client;
+    private final MultiplexedWatchStore     store;
+
+    WatchMultiplexerImpl(CuratorFrameworkImpl client, MultiplexedWatchStore store)
+    {
+        this.client = client;
+        this.store = store;
+    }
+
+    @Override
+    public void addWatcher(String path, WatchType type, Watcher watcher) throws Exception
+    {
+        store.addWatcher(client.fixForNamespace(path), type, watcher, new NamespaceWatcher(client, watcher));
+    }
+
+    @Override
+    public void addWatcher(String path, WatchType type, CuratorWatcher watcher) throws Exception
+    {
+        store.addWatcher(client.fixForNamespace(path), type, watcher, new NamespaceWatcher(client, watcher));
+    }
+
+    @Override
+    public void removeWatcher(String path, WatchType type, Watcher watcher)
+    {
+        store.removeWatcher(client.fixForNamespace(path), type, watcher);
+    }
+
+    @Override
+    public void removeWatcher(String path, WatchType type, CuratorWatcher watcher)
+    {
+        store.removeWatcher(client.fixForNamespace(path), type, watcher);
+    }
+
+    @Override
+    public int getWatchCount()
+    {
+        return store.getWatchCount();
+    }
+
+    @Override
+    public int getSubscriberCount()
+    {
+        return store.getSubscriberCount();
+    }
+}
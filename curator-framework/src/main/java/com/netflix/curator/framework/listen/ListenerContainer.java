@@ -19,45 +19,74 @@
 package com.netflix.curator.framework.listen;
 
 import com.google.common.base.Function;
-import com.google.common.collect.Maps;
+import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.concurrent.Executor;
 
 /**
- * Abstracts an object that has listeners
+ * Abstracts an object that has listeners. Listeners are kept in a copy-on-write array so that
+ * delivering an event doesn't allocate or lock. Listeners added without an executor are called
+ * directly in the delivering thread.
  */
 public class ListenerContainer<T> implements Listenable<T>
 {
     private final Logger                        log = LoggerFactory.getLogger(getClass());
-    private final Map<T, ListenerEntry<T>>      listeners = Maps.newConcurrentMap();
+    private volatile ListenerEntry<T>[]         entries = newArray(0);
 
     @Override
     public void addListener(T listener)
     {
-        addListener(listener, MoreExecutors.sameThreadExecutor());
+        put(new ListenerEntry<T>(listener, MoreExecutors.sameThreadExecutor(), true));
     }
 
     @Override
     public void addListener(T listener, Executor executor)
     {
-        listeners.put(listener, new ListenerEntry<T>(listener, executor));
+        put(new ListenerEntry<T>(listener, executor));
+    }
+
+    /**
+     * Add the given listener with a bounded queue. Events for the listener are queued and delivered,
+     * in order, by a single task at a time running in the given executor. A slow listener therefore
+     * doesn't delay the thread that delivers events (unless the policy is {@link ListenerOverflowPolicy#BLOCK}
+     * and the queue is full).
+     *
+     * @param listener listener to add
+     * @param executor executor to run listener in - should not be a same thread executor
+     * @param queueCapacity max events waiting for the listener
+     * @param policy what to do with an event when the queue is full
+     */
+    public void     addListener(T listener, Executor executor, int queueCapacity, ListenerOverflowPolicy policy)
+    {
+        Preconditions.checkArgument(queueCapacity > 0, "queueCapacity must be greater than 0");
+        Preconditions.checkNotNull(policy, "policy cannot be null");
+
+        put(new QueuedListenerEntry<T>(listener, executor, queueCapacity, policy, log));
     }
 
     @Override
-    public void removeListener(T listener)
+    public synchronized void removeListener(T listener)
     {
-        listeners.remove(listener);
+        ListenerEntry<T>[]  current = entries;
+        int                 index = indexOf(current, listener);
+        if ( index >= 0 )
+        {
+            ListenerEntry<T>[]  newEntries = newArray(current.length - 1);
+            System.arraycopy(current, 0, newEntries, 0, index);
+            System.arraycopy(current, index + 1, newEntries, index, current.length - index - 1);
+            entries = newEntries;
+        }
     }
 
     /**
      * Remove all listeners
      */
-    public void     clear()
+    public synchronized void     clear()
     {
-        listeners.clear();
+        entries = newArray(0);
     }
 
     /**
@@ -67,7 +96,20 @@ public class ListenerContainer<T> implements Listenable<T>
      */
     public int      size()
     {
-        return listeners.size();
+        return entries.length;
+    }
+
+    /**
+     * Return dispatch metrics for the given listener
+     *
+     * @param listener the listener
+     * @return stats or null if the listener hasn't been added
+     */
+    public ListenerStats getStats(T listener)
+    {
+        ListenerEntry<T>[]  current = entries;
+        int                 index = indexOf(current, listener);
+        return (index >= 0) ? current[index] : null;
     }
 
     /**
@@ -78,26 +120,46 @@ public class ListenerContainer<T> implements Listenable<T>
      */
     public void     forEach(final Function<T, Void> function)
     {
-        for ( final ListenerEntry<T> entry : listeners.values() )
+        for ( ListenerEntry<T> entry : entries )
         {
-            entry.executor.execute
-            (
-                new Runnable()
-                {
-                    @Override
-                    public void run()
-                    {
-                        try
-                        {
-                            function.apply(entry.listener);
-                        }
-                        catch ( Throwable e )
-                        {
-                            log.error(String.format("Listener (%s) threw an exception", entry.listener), e);
-                        }
-                    }
-                }
-            );
+            entry.dispatch(function, log);
         }
     }
+
+    private synchronized void put(ListenerEntry<T> entry)
+    {
+        ListenerEntry<T>[]  current = entries;
+        int                 index = indexOf(current, entry.listener);
+        ListenerEntry<T>[]  newEntries;
+        if ( index >= 0 )
+        {
+            // replaces the existing registration
+            newEntries = Arrays.copyOf(current, current.length);
+            newEntries[index] = entry;
+        }
+        else
+        {
+            newEntries = Arrays.copyOf(current, current.length + 1);
+            newEntries[current.length] = entry;
+        }
+        entries = newEntries;
+    }
+
+    private static <T> int indexOf(ListenerEntry<T>[] entries, T listener)
+    {
+        for ( int i = 0; i < entries.length; ++i )
+        {
+            if ( entries[i].listener.equals(listener) )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> ListenerEntry<T>[] newArray(int size)
+    {
+        return new ListenerEntry[size];
+    }
 }
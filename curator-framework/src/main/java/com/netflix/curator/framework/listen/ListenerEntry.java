@@ -17,20 +17,121 @@
  */
 package com.netflix.curator.framework.listen;
 
+import com.google.common.base.Function;
+import org.slf4j.Logger;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Generic holder POJO for a listener and its executor
  * @param <T> the listener type
  */
-public class ListenerEntry<T>
+public class ListenerEntry<T> implements ListenerStats
 {
     public final T        listener;
     public final Executor executor;
 
+    private final boolean       isSameThread;
+    private final AtomicLong    dispatchCount = new AtomicLong(0);
+    private final AtomicLong    totalDispatchNanos = new AtomicLong(0);
+    private final AtomicLong    maxDispatchNanos = new AtomicLong(0);
+
     public ListenerEntry(T listener, Executor executor)
+    {
+        this(listener, executor, false);
+    }
+
+    ListenerEntry(T listener, Executor executor, boolean isSameThread)
     {
         this.listener = listener;
         this.executor = executor;
+        this.isSameThread = isSameThread;
+    }
+
+    @Override
+    public long getDispatchCount()
+    {
+        return dispatchCount.get();
+    }
+
+    @Override
+    public long getTotalDispatchNanos()
+    {
+        return totalDispatchNanos.get();
+    }
+
+    @Override
+    public long getMaxDispatchNanos()
+    {
+        return maxDispatchNanos.get();
+    }
+
+    @Override
+    public int getQueueDepth()
+    {
+        return 0;
+    }
+
+    @Override
+    public long getDroppedCount()
+    {
+        return 0;
+    }
+
+    /**
+     * Deliver an event to the listener via its executor
+     *
+     * @param function function to apply to the listener
+     * @param log logger for listener exceptions
+     */
+    void dispatch(final Function<T, Void> function, final Logger log)
+    {
+        if ( isSameThread )
+        {
+            // avoid allocating a Runnable per event
+            apply(function, log);
+            return;
+        }
+
+        executor.execute
+        (
+            new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    apply(function, log);
+                }
+            }
+        );
+    }
+
+    final void apply(Function<T, Void> function, Logger log)
+    {
+        long        startNanos = System.nanoTime();
+        try
+        {
+            function.apply(listener);
+        }
+        catch ( Throwable e )
+        {
+            log.error(String.format("Listener (%s) threw an exception", listener), e);
+        }
+        finally
+        {
+            record(System.nanoTime() - startNanos);
+        }
+    }
+
+    private void record(long elapsedNanos)
+    {
+        dispatchCount.incrementAndGet();
+        totalDispatchNanos.addAndGet(elapsedNanos);
+
+        long    max;
+        do
+        {
+            max = maxDispatchNanos.get();
+        } while ( (elapsedNanos > max) && !maxDispatchNanos.compareAndSet(max, elapsedNanos) );
     }
 }
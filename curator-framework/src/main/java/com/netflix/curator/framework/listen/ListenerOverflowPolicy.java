@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.listen;
+
+/**
+ * What a listener's bounded queue does when it is full. See
+ * {@link ListenerContainer#addListener(Object, java.util.concurrent.Executor, int, ListenerOverflowPolicy)}
+ */
+public enum ListenerOverflowPolicy
+{
+    /**
+     * The thread delivering the event waits for room in the queue
+     */
+    BLOCK,
+
+    /**
+     * The new event is dropped
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest queued event is dropped to make room for the new event
+     */
+    DROP_OLDEST
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.listen;
+
+/**
+ * Dispatch metrics for a single listener. See {@link ListenerContainer#getStats(Object)}
+ */
+public interface ListenerStats
+{
+    /**
+     * Return the number of events delivered to the listener
+     *
+     * @return count
+     */
+    public long     getDispatchCount();
+
+    /**
+     * Return the total time spent in the listener in nanoseconds
+     *
+     * @return nanos
+     */
+    public long     getTotalDispatchNanos();
+
+    /**
+     * Return the longest time spent in the listener for a single event in nanoseconds
+     *
+     * @return nanos
+     */
+    public long     getMaxDispatchNanos();
+
+    /**
+     * Return the number of events waiting in the listener's queue. Always 0 for listeners without a queue.
+     *
+     * @return depth
+     */
+    public int      getQueueDepth();
+
+    /**
+     * Return the number of events dropped because the listener's queue was full
+     *
+     * @return count
+     */
+    public long     getDroppedCount();
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.listen;
+
+import com.google.common.base.Function;
+import org.slf4j.Logger;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A listener entry with a bounded queue. Events are queued and a single drain task at a time
+ * runs in the executor and delivers all queued events, in order, so that a slow listener doesn't
+ * hold up the thread that delivers events and a burst of events costs a single executor task.
+ */
+class QueuedListenerEntry<T> extends ListenerEntry<T>
+{
+    private final BlockingQueue<Function<T, Void>>  queue;
+    private final ListenerOverflowPolicy            policy;
+    private final AtomicBoolean                     drainScheduled = new AtomicBoolean(false);
+    private final AtomicLong                        droppedCount = new AtomicLong(0);
+    private final Logger                            log;
+
+    private final Runnable      drainTask = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            do
+            {
+                Function<T, Void>   function;
+                while ( (function = queue.poll()) != null )
+                {
+                    apply(function, log);
+                }
+                drainScheduled.set(false);
+
+                // an event may have been queued after the last poll but before the flag was reset
+            } while ( !queue.isEmpty() && drainScheduled.compareAndSet(false, true) );
+        }
+    };
+
+    QueuedListenerEntry(T listener, Executor executor, int capacity, ListenerOverflowPolicy policy, Logger log)
+    {
+        super(listener, executor);
+        this.log = log;
+        queue = new ArrayBlockingQueue<Function<T, Void>>(capacity);
+        this.policy = policy;
+    }
+
+    @Override
+    public int getQueueDepth()
+    {
+        return queue.size();
+    }
+
+    @Override
+    public long getDroppedCount()
+    {
+        return droppedCount.get();
+    }
+
+    @Override
+    void dispatch(Function<T, Void> function, Logger log)
+    {
+        switch ( policy )
+        {
+            case BLOCK:
+            {
+                try
+                {
+                    if ( !queue.offer(function) )
+                    {
+                        // the queue is full - make sure a drain is running before waiting for room. If the
+                        // drain task had been rejected by the executor nothing would ever make room
+                        scheduleDrain();
+                        queue.put(function);
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    droppedCount.incrementAndGet();
+                }
+                break;
+            }
+
+            case DROP_NEWEST:
+            {
+                if ( !queue.offer(function) )
+                {
+                    droppedCount.incrementAndGet();
+                }
+                break;
+            }
+
+            case DROP_OLDEST:
+            {
+                while ( !queue.offer(function) )
+                {
+                    if ( queue.poll() != null )
+                    {
+                        droppedCount.incrementAndGet();
+                    }
+                }
+                break;
+            }
+        }
+
+        scheduleDrain();
+    }
+
+    private void scheduleDrain()
+    {
+        if ( drainScheduled.compareAndSet(false, true) )
+        {
+            try
+            {
+                executor.execute(drainTask);
+            }
+            catch ( RuntimeException e )
+            {
+                drainScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+}
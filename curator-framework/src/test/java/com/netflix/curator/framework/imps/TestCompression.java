@@ -16,14 +16,22 @@
 
 package com.netflix.curator.framework.imps;
 
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.google.common.io.Closeables;
 import com.netflix.curator.framework.CuratorFramework;
 import com.netflix.curator.framework.CuratorFrameworkFactory;
+import com.netflix.curator.framework.api.CompressionCodec;
 import com.netflix.curator.framework.api.CompressionProvider;
 import com.netflix.curator.retry.RetryOneTime;
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 
 public class TestCompression extends BaseClassForTests
 {
@@ -123,4 +131,140 @@ public class TestCompression extends BaseClassForTests
             Closeables.close(client, true);
         }
     }
+
+    @Test
+    public void testCodecs() throws Exception
+    {
+        Random                  random = new Random();
+        List<byte[]>            payloads = Lists.newArrayList();
+        payloads.add(new byte[0]);
+        payloads.add("tiny".getBytes());
+        for ( int size : new int[]{13, 100, 1000, 10000, 100000} )
+        {
+            byte[]      randomBytes = new byte[size];
+            random.nextBytes(randomBytes);
+            payloads.add(randomBytes);
+
+            StringBuilder   str = new StringBuilder();
+            while ( str.length() < size )
+            {
+                str.append("{\"name\":\"service-").append(random.nextInt(10)).append("\",\"port\":").append(8000 + random.nextInt(5)).append("}");
+            }
+            payloads.add(str.substring(0, size).getBytes());
+
+            byte[]      runs = new byte[size];
+            Arrays.fill(runs, (byte)'a');
+            payloads.add(runs);
+        }
+
+        List<CompressionProvider>   providers = Lists.newArrayList();
+        providers.add(new CodecCompressionProvider());
+        providers.add(new CodecCompressionProvider(new Lz4CompressionCodec(), 0));
+        providers.add(new CodecCompressionProvider(new DeflateCompressionCodec(), 0));
+        providers.add(new CodecCompressionProvider(new DeflateCompressionCodec(Deflater.BEST_SPEED, 1), 0));
+        providers.add(new CodecCompressionProvider(new DeflateCompressionCodec(Deflater.BEST_COMPRESSION), 0));
+        CompressionProvider         reader = new CodecCompressionProvider();
+        for ( CompressionProvider provider : providers )
+        {
+            for ( byte[] payload : payloads )
+            {
+                byte[]      compressed = provider.compress("/", payload);
+                Assert.assertEquals(provider.decompress("/", compressed), payload);
+                Assert.assertEquals(reader.decompress("/", compressed), payload);   // any codec provider can read the data
+                if ( (payload.length >= 1000) && (payload[0] == 'a') )
+                {
+                    Assert.assertTrue(compressed.length < (payload.length / 10), "Runs not compressed: " + compressed.length);
+                }
+            }
+        }
+
+        byte[]      legacy = new GzipCompressionProvider().compress("/", payloads.get(3));
+        Assert.assertEquals(reader.decompress("/", legacy), payloads.get(3));
+
+        byte[]      compressed = reader.compress("/", payloads.get(4));
+        try
+        {
+            reader.decompress("/", Arrays.copyOf(compressed, compressed.length - 5));
+            Assert.fail();
+        }
+        catch ( DataFormatException expected )
+        {
+            // expected
+        }
+
+        byte[]      badLength = Arrays.copyOf(compressed, compressed.length);
+        badLength[3] = (byte)0x7f;  // claims ~2GB uncompressed
+        try
+        {
+            reader.decompress("/", badLength);
+            Assert.fail();
+        }
+        catch ( DataFormatException expected )
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void testReservedCodecIds() throws Exception
+    {
+        CompressionCodec        impostor = new CompressionCodec()
+        {
+            @Override
+            public byte getId()
+            {
+                return DeflateCompressionCodec.ID;
+            }
+
+            @Override
+            public int compress(byte[] data, byte[] dest, int destOffset)
+            {
+                return -1;
+            }
+
+            @Override
+            public void decompress(byte[] compressedData, int offset, int length, byte[] dest)
+            {
+            }
+        };
+        try
+        {
+            new CodecCompressionProvider(new Lz4CompressionCodec(), 0, impostor);
+            Assert.fail();
+        }
+        catch ( IllegalArgumentException expected )
+        {
+            // expected
+        }
+
+        // built-in codecs with other settings are fine
+        new CodecCompressionProvider(new DeflateCompressionCodec(Deflater.BEST_SPEED), 0);
+    }
+
+    @Test
+    public void testCodecCompressionProvider() throws Exception
+    {
+        final byte[]            data = Strings.repeat("here's a string", 10).getBytes();
+
+        CuratorFramework        client = CuratorFrameworkFactory.builder().
+            compressionProvider(new CodecCompressionProvider()).
+            connectString(server.getConnectString()).
+            retryPolicy(new RetryOneTime(1)).
+            build();
+        try
+        {
+            client.start();
+
+            client.create().compressed().creatingParentsIfNeeded().forPath("/a/b/c", data);
+            Assert.assertTrue(client.getData().forPath("/a/b/c").length < data.length);
+            Assert.assertEquals(client.getData().decompressed().forPath("/a/b/c"), data);
+
+            client.create().forPath("/a/b/legacy", new GzipCompressionProvider().compress("/a/b/legacy", data));
+            Assert.assertEquals(client.getData().decompressed().forPath("/a/b/legacy"), data);
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
 }
@@ -22,6 +22,7 @@ import com.google.common.io.Closeables;
 import com.netflix.curator.framework.CuratorFramework;
 import com.netflix.curator.framework.CuratorFrameworkFactory;
 import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.BulkResult;
 import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.framework.api.CuratorEventType;
 import com.netflix.curator.framework.api.CuratorListener;
@@ -43,9 +44,12 @@ import org.apache.zookeeper.data.Id;
 import org.apache.zookeeper.data.Stat;
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -592,6 +596,120 @@ public class TestFramework extends BaseClassForTests
         }
     }
 
+    @Test
+    public void     testAsync() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.builder().connectString(server.getConnectString()).retryPolicy(new RetryOneTime(1)).namespace("ns").build();
+        client.start();
+        try
+        {
+            Assert.assertEquals(client.create().forPathAsync("/test", new byte[]{1, 2, 3}).get(), "/test");
+            Assert.assertEquals(client.create().creatingParentsIfNeeded().withMode(CreateMode.PERSISTENT).forPathAsync("/test/one/two").get(), "/test/one/two");
+
+            String      sequential = client.create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPathAsync("/test/seq-").get();
+            Assert.assertTrue(sequential.startsWith("/test/seq-"), sequential);
+
+            Assert.assertEquals(client.getData().forPathAsync("/test").get(), new byte[]{1, 2, 3});
+            Assert.assertNotNull(client.checkExists().forPathAsync("/test").get());
+            Assert.assertNull(client.checkExists().forPathAsync("/missing").get());
+
+            Stat        stat = client.setData().forPathAsync("/test", new byte[]{4, 5}).get();
+            Assert.assertEquals(stat.getVersion(), 1);
+            Assert.assertEquals(client.getData().forPath("/test"), new byte[]{4, 5});
+
+            List<String>    children = client.getChildren().forPathAsync("/test").get();
+            Assert.assertEquals(children.size(), 2);
+
+            Assert.assertNull(client.delete().forPathAsync("/test/one/two").get());
+            Assert.assertNull(client.checkExists().forPath("/test/one/two"));
+
+            try
+            {
+                client.getData().forPathAsync("/missing").get();
+                Assert.fail();
+            }
+            catch ( ExecutionException e )
+            {
+                Assert.assertTrue(e.getCause() instanceof KeeperException.NoNodeException, e.getCause().toString());
+            }
+
+            try
+            {
+                client.delete().withVersion(100).forPathAsync("/test/one").get();
+                Assert.fail();
+            }
+            catch ( ExecutionException e )
+            {
+                Assert.assertTrue(e.getCause() instanceof KeeperException.BadVersionException, e.getCause().toString());
+            }
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    @Test
+    public void     testBulkRead() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.builder().connectString(server.getConnectString()).retryPolicy(new RetryOneTime(1)).namespace("ns").build();
+        client.start();
+        try
+        {
+            List<String>    paths = Lists.newArrayList();
+            for ( int i = 0; i < 250; ++i )
+            {
+                String  path = "/bulk/" + i;
+                if ( (i % 10) != 0 )
+                {
+                    client.create().creatingParentsIfNeeded().forPath(path, Integer.toString(i).getBytes());
+                }
+                paths.add(path);
+            }
+
+            Map<String, BulkResult<byte[]>>     results = client.getData().forPaths(paths, 7);
+            Assert.assertEquals(Lists.newArrayList(results.keySet()), paths);
+            for ( int i = 0; i < paths.size(); ++i )
+            {
+                BulkResult<byte[]>  result = results.get(paths.get(i));
+                if ( (i % 10) != 0 )
+                {
+                    Assert.assertTrue(result.isSuccess(), result.toString());
+                    Assert.assertEquals(result.getValue(), Integer.toString(i).getBytes());
+                    Assert.assertNotNull(result.getStat());
+                }
+                else
+                {
+                    Assert.assertFalse(result.isSuccess());
+                    Assert.assertTrue(result.getError() instanceof KeeperException.NoNodeException, result.toString());
+                }
+            }
+
+            Map<String, BulkResult<Stat>>       exists = client.checkExists().forPaths(paths);
+            Assert.assertEquals(exists.size(), paths.size());
+            Assert.assertNull(exists.get("/bulk/0").getValue());
+            Assert.assertTrue(exists.get("/bulk/0").isSuccess());
+            Assert.assertNotNull(exists.get("/bulk/1").getValue());
+
+            final CountDownLatch    latch = new CountDownLatch(1);
+            Watcher                 watcher = new Watcher()
+            {
+                @Override
+                public void process(WatchedEvent event)
+                {
+                    latch.countDown();
+                }
+            };
+            client.getData().usingWatcher(watcher).forPaths(Arrays.asList("/bulk/1", "/bulk/2"));
+            client.setData().forPath("/bulk/2", "new".getBytes());
+            Assert.assertTrue(new Timing().awaitLatch(latch));
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
     @Test
     public void     testCreateModes() throws Exception
     {
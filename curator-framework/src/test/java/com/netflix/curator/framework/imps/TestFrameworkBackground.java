@@ -16,19 +16,34 @@
 package com.netflix.curator.framework.imps;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.netflix.curator.drivers.TracerDriver;
 import com.netflix.curator.framework.CuratorFramework;
 import com.netflix.curator.framework.CuratorFrameworkFactory;
 import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.BackgroundOperationRejectedException;
+import com.netflix.curator.framework.api.BackgroundOverflowPolicy;
 import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.retry.RetryNTimes;
 import com.netflix.curator.retry.RetryOneTime;
+import com.netflix.curator.test.TestingServer;
 import com.netflix.curator.test.Timing;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class TestFrameworkBackground extends BaseClassForTests
@@ -113,4 +128,381 @@ public class TestFrameworkBackground extends BaseClassForTests
             Closeables.close(client, true);
         }
     }
+
+    @Test
+    public void         testMultipleBackgroundThreads() throws Exception
+    {
+        final int QTY = 20;
+
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryNTimes(100, 100))
+            .backgroundThreads(4)
+            .build();
+        try
+        {
+            client.start();
+            client.getZookeeperClient().blockUntilConnectedOrTimedOut();
+
+            final Set<String>       threadNames = Sets.newConcurrentHashSet();
+            ((CuratorFrameworkImpl)client).debugListener = new CuratorFrameworkImpl.DebugBackgroundListener()
+            {
+                @Override
+                public void listen(OperationAndData<?> data)
+                {
+                    threadNames.add(Thread.currentThread().getName());
+                }
+            };
+
+            final CountDownLatch    latch = new CountDownLatch(QTY);
+            BackgroundCallback      callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    if ( event.getResultCode() == 0 )
+                    {
+                        latch.countDown();
+                    }
+                }
+            };
+
+            server.stop();
+            for ( int i = 0; i < QTY; ++i )
+            {
+                client.create().inBackground(callback).forPath("/test" + i);
+            }
+            Thread.sleep(500);
+            server = new TestingServer(server.getPort(), server.getTempDirectory());
+
+            Assert.assertTrue(timing.awaitLatch(latch));
+            for ( int i = 0; i < QTY; ++i )
+            {
+                Assert.assertNotNull(client.checkExists().forPath("/test" + i));
+            }
+            Assert.assertTrue(threadNames.size() > 1, threadNames.toString());
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void         testBatching() throws Exception
+    {
+        final int QTY = 25;
+
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryOneTime(1))
+            .namespace("batch")
+            .backgroundBatching(10, 100, TimeUnit.MILLISECONDS)
+            .build();
+        try
+        {
+            client.start();
+            client.create().forPath("/exists");
+            final AtomicLong                multiCount = new AtomicLong();
+            client.getZookeeperClient().setTracerDriver(new MultiCountingTracer(multiCount));
+
+            final CountDownLatch            latch = new CountDownLatch(QTY + 1);
+            final Map<String, Integer>      results = Maps.newConcurrentMap();
+            BackgroundCallback              callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    results.put(event.getPath(), event.getResultCode());
+                    latch.countDown();
+                }
+            };
+            for ( int i = 0; i < QTY; ++i )
+            {
+                client.create().inBackground(callback).forPath("/test" + i, Integer.toString(i).getBytes());
+            }
+            client.create().inBackground(callback).forPath("/exists");  // fails the batch it's in
+
+            Assert.assertTrue(timing.awaitLatch(latch));
+            Assert.assertTrue(multiCount.get() > 0);
+            Assert.assertEquals(results.get("/exists").intValue(), KeeperException.Code.NODEEXISTS.intValue());
+            for ( int i = 0; i < QTY; ++i )
+            {
+                Assert.assertEquals(results.get("/test" + i).intValue(), KeeperException.Code.OK.intValue());
+                Assert.assertEquals(client.getData().forPath("/test" + i), Integer.toString(i).getBytes());
+            }
+
+            Assert.assertNotNull(client.setData().forPathAsync("/test0", "new".getBytes()).get());
+            Assert.assertNull(client.delete().forPathAsync("/test1").get());
+            Assert.assertEquals(client.getData().forPath("/test0"), "new".getBytes());
+            Assert.assertNull(client.checkExists().forPath("/test1"));
+
+            // namespace facades share the client's batcher
+            long                            startCount = multiCount.get();
+            List<ListenableFuture<String>>  futures = Lists.newArrayList();
+            for ( CuratorFramework view : Arrays.asList(client.usingNamespace("other"), client.nonNamespaceView()) )
+            {
+                for ( int i = 0; i < 3; ++i )
+                {
+                    futures.add(view.create().forPathAsync("/view" + i));
+                }
+            }
+            for ( ListenableFuture<String> future : futures )
+            {
+                Assert.assertNotNull(future.get(timing.milliseconds(), TimeUnit.MILLISECONDS));
+            }
+            Assert.assertTrue(multiCount.get() > startCount);
+            Assert.assertNotNull(client.usingNamespace("other").checkExists().forPath("/view2"));
+            Assert.assertNotNull(client.nonNamespaceView().checkExists().forPath("/view2"));
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void         testBatchOrdering() throws Exception
+    {
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryOneTime(1))
+            .backgroundBatching(2, 100, TimeUnit.MILLISECONDS)
+            .build();
+        try
+        {
+            client.start();
+            client.create().forPath("/exists");
+            client.create().forPath("/value", "0".getBytes());
+
+            // the first batch fails and is re-executed individually - the second batch must not overtake it
+            client.create().inBackground().forPath("/exists");
+            client.setData().inBackground().forPath("/value", "1".getBytes());
+            client.setData().inBackground().forPath("/value", "2".getBytes());
+            ListenableFuture<Stat>      lastWrite = client.setData().forPathAsync("/value", "3".getBytes());
+
+            // a read doesn't overtake pending writes
+            ListenableFuture<String>    create = client.create().forPathAsync("/new", "new".getBytes());
+            ListenableFuture<byte[]>    read = client.getData().forPathAsync("/new");
+            Assert.assertEquals(read.get(timing.milliseconds(), TimeUnit.MILLISECONDS), "new".getBytes());
+            Assert.assertNotNull(create.get(timing.milliseconds(), TimeUnit.MILLISECONDS));
+
+            Assert.assertNotNull(lastWrite.get(timing.milliseconds(), TimeUnit.MILLISECONDS));
+            Assert.assertEquals(client.getData().forPath("/value"), "3".getBytes());
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void         testBatchClose() throws Exception
+    {
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryOneTime(1))
+            .backgroundBatching(10, 1, TimeUnit.HOURS)
+            .build();
+        try
+        {
+            client.start();
+            client.getZookeeperClient().blockUntilConnectedOrTimedOut();
+
+            // pending operations are sent when the client is closed rather than dropped
+            client.create().inBackground().forPath("/pending");
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+
+        client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+            Assert.assertNotNull(client.checkExists().forPath("/pending"));
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void         testCapacityFail() throws Exception
+    {
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryNTimes(1000, 100))
+            .backgroundQueueCapacity(2, BackgroundOverflowPolicy.FAIL)
+            .build();
+        try
+        {
+            client.start();
+            client.getZookeeperClient().blockUntilConnectedOrTimedOut();
+
+            server.stop();
+            ListenableFuture<String>    one = client.create().forPathAsync("/one");
+            ListenableFuture<String>    two = client.create().forPathAsync("/two");
+            Assert.assertEquals(client.getBackgroundOperationStats().getOutstandingCount(), 2);
+            try
+            {
+                client.create().inBackground().forPath("/three");
+                Assert.fail();
+            }
+            catch ( BackgroundOperationRejectedException expected )
+            {
+                // expected
+            }
+            Assert.assertEquals(client.getBackgroundOperationStats().getRejectedCount(), 1);
+
+            server = new TestingServer(server.getPort(), server.getTempDirectory());
+            Assert.assertEquals(one.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS), "/one");
+            Assert.assertEquals(two.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS), "/two");
+            Assert.assertEquals(client.getBackgroundOperationStats().getOutstandingCount(), 0);
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void         testCapacityShedOldest() throws Exception
+    {
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryNTimes(1000, 1000))
+            .backgroundQueueCapacity(2, BackgroundOverflowPolicy.SHED_OLDEST)
+            .build();
+        try
+        {
+            client.start();
+            client.getZookeeperClient().blockUntilConnectedOrTimedOut();
+
+            server.stop();
+            ListenableFuture<String>    one = client.create().forPathAsync("/one");
+            ListenableFuture<String>    two = client.create().forPathAsync("/two");
+
+            // only operations waiting for a retry can be shed
+            long                        startMs = System.currentTimeMillis();
+            while ( client.getBackgroundOperationStats().getQueuedCount() < 2 )
+            {
+                Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.forWaiting().milliseconds());
+                Thread.sleep(10);
+            }
+            ListenableFuture<String>    three = client.create().forPathAsync("/three");
+            try
+            {
+                one.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS);
+                Assert.fail();
+            }
+            catch ( ExecutionException e )
+            {
+                Assert.assertTrue(e.getCause() instanceof BackgroundOperationRejectedException, e.getCause().toString());
+            }
+
+            server = new TestingServer(server.getPort(), server.getTempDirectory());
+            Assert.assertEquals(two.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS), "/two");
+            Assert.assertEquals(three.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS), "/three");
+            Assert.assertNull(client.checkExists().forPath("/one"));
+            Assert.assertEquals(client.getBackgroundOperationStats().getRejectedCount(), 1);
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void         testCapacityBlock() throws Exception
+    {
+        final Timing            timing = new Timing();
+        final CuratorFramework  client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .sessionTimeoutMs(timing.session())
+            .connectionTimeoutMs(timing.connection())
+            .retryPolicy(new RetryNTimes(1000, 100))
+            .backgroundQueueCapacity(1, BackgroundOverflowPolicy.BLOCK)
+            .build();
+        try
+        {
+            client.start();
+            client.getZookeeperClient().blockUntilConnectedOrTimedOut();
+
+            server.stop();
+            ListenableFuture<String>    one = client.create().forPathAsync("/one");
+
+            final CountDownLatch        startedLatch = new CountDownLatch(1);
+            final CountDownLatch        admittedLatch = new CountDownLatch(1);
+            Executors.newSingleThreadExecutor().submit
+            (
+                new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        startedLatch.countDown();
+                        client.create().inBackground().forPath("/two");
+                        admittedLatch.countDown();
+                        return null;
+                    }
+                }
+            );
+            Assert.assertTrue(timing.awaitLatch(startedLatch));
+            Assert.assertFalse(admittedLatch.await(timing.multiple(.25).milliseconds(), TimeUnit.MILLISECONDS));
+
+            server = new TestingServer(server.getPort(), server.getTempDirectory());
+            Assert.assertEquals(one.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS), "/one");
+            Assert.assertTrue(timing.awaitLatch(admittedLatch));
+            Assert.assertTrue(client.getBackgroundOperationStats().getMaxQueuedTimeMs() >= 0);
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    private static class MultiCountingTracer implements TracerDriver
+    {
+        private final AtomicLong    multiCount;
+
+        private MultiCountingTracer(AtomicLong multiCount)
+        {
+            this.multiCount = multiCount;
+        }
+
+        @Override
+        public void addTrace(String name, long time, TimeUnit unit)
+        {
+            if ( name.equals("BackgroundWriteBatcher-multi") )
+            {
+                multiCount.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void addCount(String name, int increment)
+        {
+        }
+    }
 }
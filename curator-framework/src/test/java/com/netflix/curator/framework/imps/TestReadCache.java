@@ -0,0 +1,169 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.imps;
+
+import com.google.common.io.Closeables;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.CuratorFrameworkFactory;
+import com.netflix.curator.framework.api.ReadCache;
+import com.netflix.curator.framework.state.ConnectionState;
+import com.netflix.curator.framework.state.ConnectionStateListener;
+import com.netflix.curator.retry.RetryOneTime;
+import com.netflix.curator.test.Timing;
+import org.apache.zookeeper.KeeperException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+public class TestReadCache extends BaseClassForTests
+{
+    @Test
+    public void     testBasic() throws Exception
+    {
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.builder().connectString(server.getConnectString()).retryPolicy(new RetryOneTime(1)).namespace("ns").build();
+        client.start();
+        try
+        {
+            client.create().forPath("/test", "one".getBytes());
+
+            ReadCache   cache = client.cached();
+            Assert.assertEquals(cache.getData("/test"), "one".getBytes());
+            Assert.assertEquals(cache.getData("/test"), "one".getBytes());
+            Assert.assertEquals(cache.getMissCount(), 1);
+            Assert.assertEquals(cache.getHitCount(), 1);
+
+            client.setData().forPath("/test", "two".getBytes());
+            long        startMs = System.currentTimeMillis();
+            while ( !Arrays.equals(cache.getData("/test"), "two".getBytes()) )
+            {
+                Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.milliseconds(), "Cache was not invalidated");
+                timing.sleepABit();
+            }
+
+            Assert.assertNull(cache.checkExists("/test/child"));
+            Assert.assertEquals(cache.getChildren("/test").size(), 0);
+            client.create().forPath("/test/child");
+            startMs = System.currentTimeMillis();
+            while ( (cache.checkExists("/test/child") == null) || (cache.getChildren("/test").size() != 1) )
+            {
+                Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.milliseconds(), "Cache was not invalidated");
+                timing.sleepABit();
+            }
+
+            try
+            {
+                cache.getData("/missing");
+                Assert.fail();
+            }
+            catch ( KeeperException.NoNodeException expected )
+            {
+                // expected
+            }
+
+            // shared with facades
+            cache.getData("/test");
+            long        hitCount = cache.getHitCount();
+            Assert.assertEquals(client.usingNamespace(null).cached().getData("/ns/test"), "two".getBytes());
+            Assert.assertEquals(cache.getHitCount(), hitCount + 1);
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void     testDifferentNamespaces() throws Exception
+    {
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.builder().connectString(server.getConnectString()).retryPolicy(new RetryOneTime(1)).namespace("ns").build();
+        client.start();
+        try
+        {
+            client.create().forPath("/test", "one".getBytes());
+            client.usingNamespace("other").create().forPath("/test", "one".getBytes());
+
+            // the store is first used through a facade with a different namespace than the other views
+            ReadCache   otherCache = client.usingNamespace("other").cached();
+            ReadCache   rootCache = client.cached();
+            ReadCache   nonNamespaceCache = client.nonNamespaceView().cached();
+            Assert.assertEquals(otherCache.getData("/test"), "one".getBytes());
+            Assert.assertEquals(rootCache.getData("/test"), "one".getBytes());
+            Assert.assertEquals(nonNamespaceCache.getData("/ns/test"), "one".getBytes());
+            Assert.assertEquals(nonNamespaceCache.getData("/other/test"), "one".getBytes());
+
+            client.setData().forPath("/test", "two".getBytes());
+            client.usingNamespace("other").setData().forPath("/test", "two".getBytes());
+            long        startMs = System.currentTimeMillis();
+            while ( !Arrays.equals(rootCache.getData("/test"), "two".getBytes())
+                || !Arrays.equals(nonNamespaceCache.getData("/ns/test"), "two".getBytes())
+                || !Arrays.equals(otherCache.getData("/test"), "two".getBytes())
+                || !Arrays.equals(nonNamespaceCache.getData("/other/test"), "two".getBytes()) )
+            {
+                Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.milliseconds(), "Cache was not invalidated");
+                timing.sleepABit();
+            }
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void     testInvalidatedOnSuspended() throws Exception
+    {
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            final CountDownLatch        suspendedLatch = new CountDownLatch(1);
+            client.getConnectionStateListenable().addListener
+            (
+                new ConnectionStateListener()
+                {
+                    @Override
+                    public void stateChanged(CuratorFramework client, ConnectionState newState)
+                    {
+                        if ( newState == ConnectionState.SUSPENDED )
+                        {
+                            suspendedLatch.countDown();
+                        }
+                    }
+                }
+            );
+
+            client.create().forPath("/test", "one".getBytes());
+            ReadCache   cache = client.cached();
+            cache.getData("/test");
+            cache.checkExists("/test");
+            Assert.assertEquals(cache.size(), 2);
+
+            server.stop();
+            Assert.assertTrue(timing.awaitLatch(suspendedLatch));
+            timing.sleepABit();
+            Assert.assertEquals(cache.size(), 0);
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+}
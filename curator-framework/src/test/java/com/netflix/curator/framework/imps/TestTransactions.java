@@ -19,17 +19,26 @@
 package com.netflix.curator.framework.imps;
 
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.curator.framework.CuratorFramework;
 import com.netflix.curator.framework.CuratorFrameworkFactory;
+import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.CuratorEvent;
+import com.netflix.curator.framework.api.CuratorEventType;
 import com.netflix.curator.framework.api.transaction.CuratorTransactionResult;
 import com.netflix.curator.framework.api.transaction.OperationType;
 import com.netflix.curator.retry.RetryOneTime;
+import com.netflix.curator.test.Timing;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.data.Stat;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class TestTransactions extends BaseClassForTests
 {
@@ -135,4 +144,100 @@ public class TestTransactions extends BaseClassForTests
             client.close();
         }
     }
+
+    @Test
+    public void     testCommitAsync() throws Exception
+    {
+        CuratorFramework        client = CuratorFrameworkFactory.builder().connectString(server.getConnectString()).retryPolicy(new RetryOneTime(1)).namespace("galt").build();
+        client.start();
+        try
+        {
+            ListenableFuture<Collection<CuratorTransactionResult>>  future =
+                client.inTransaction()
+                    .create().forPath("/foo", "one".getBytes())
+                .and()
+                    .create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath("/test-", "one".getBytes())
+                .and()
+                    .commitAsync();
+
+            Collection<CuratorTransactionResult>    results = future.get();
+            Assert.assertEquals(results.size(), 2);
+            Assert.assertTrue(client.checkExists().forPath("/foo") != null);
+
+            CuratorTransactionResult    sequentialResult = Iterables.find(results, CuratorTransactionResult.ofTypeAndPath(OperationType.CREATE, "/test-"));
+            Assert.assertTrue(sequentialResult.getResultPath().startsWith("/test-"));
+
+            future = client.inTransaction()
+                    .create().forPath("/bar")
+                .and()
+                    .create().forPath("/foo")   // already exists
+                .and()
+                    .commitAsync();
+            try
+            {
+                future.get();
+                Assert.fail();
+            }
+            catch ( ExecutionException e )
+            {
+                Assert.assertTrue(e.getCause() instanceof KeeperException.NodeExistsException, e.getCause().toString());
+            }
+            Assert.assertNull(client.checkExists().forPath("/bar"));
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    @Test
+    public void     testCommitInBackground() throws Exception
+    {
+        CuratorFramework        client = CuratorFrameworkFactory.builder().connectString(server.getConnectString()).retryPolicy(new RetryOneTime(1)).namespace("galt").build();
+        client.start();
+        try
+        {
+            final BlockingQueue<CuratorEvent>   events = new LinkedBlockingQueue<CuratorEvent>();
+            BackgroundCallback                  callback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    events.add(event);
+                }
+            };
+
+            client.inTransaction()
+                .create().forPath("/foo", "one".getBytes())
+            .and()
+                .setData().forPath("/foo", "two".getBytes())
+            .and()
+                .commitInBackground(callback, "ctx");
+
+            CuratorEvent    event = events.poll(new Timing().milliseconds(), TimeUnit.MILLISECONDS);
+            Assert.assertNotNull(event);
+            Assert.assertEquals(event.getType(), CuratorEventType.TRANSACTION);
+            Assert.assertEquals(event.getResultCode(), KeeperException.Code.OK.intValue());
+            Assert.assertEquals(event.getContext(), "ctx");
+            Assert.assertEquals(event.getOpResults().size(), 2);
+            Assert.assertEquals(client.getData().forPath("/foo"), "two".getBytes());
+
+            client.inTransaction()
+                .delete().forPath("/foo")
+            .and()
+                .delete().forPath("/foo")   // no longer exists
+            .and()
+                .commitInBackground(callback);
+
+            event = events.poll(new Timing().milliseconds(), TimeUnit.MILLISECONDS);
+            Assert.assertNotNull(event);
+            Assert.assertEquals(event.getResultCode(), KeeperException.Code.NONODE.intValue());
+            Assert.assertNull(event.getOpResults());
+            Assert.assertNotNull(client.checkExists().forPath("/foo"));
+        }
+        finally
+        {
+            client.close();
+        }
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.imps;
+
+import com.google.common.collect.Queues;
+import com.google.common.io.Closeables;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.CuratorFrameworkFactory;
+import com.netflix.curator.framework.api.CuratorWatcher;
+import com.netflix.curator.framework.api.WatchMultiplexer;
+import com.netflix.curator.framework.api.WatchType;
+import com.netflix.curator.retry.RetryOneTime;
+import com.netflix.curator.test.Timing;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class TestWatchMultiplexer extends BaseClassForTests
+{
+    @Test
+    public void     testSharedData() throws Exception
+    {
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.builder().connectString(server.getConnectString()).retryPolicy(new RetryOneTime(1)).namespace("ns").build();
+        client.start();
+        try
+        {
+            WatchMultiplexer                        multiplexer = client.getWatchMultiplexer();
+            final BlockingQueue<WatchedEvent>       events1 = Queues.newLinkedBlockingQueue();
+            final BlockingQueue<WatchedEvent>       events2 = Queues.newLinkedBlockingQueue();
+            Watcher                                 watcher1 = new Watcher()
+            {
+                @Override
+                public void process(WatchedEvent event)
+                {
+                    events1.add(event);
+                }
+            };
+            CuratorWatcher                          watcher2 = new CuratorWatcher()
+            {
+                @Override
+                public void process(WatchedEvent event) throws Exception
+                {
+                    events2.add(event);
+                }
+            };
+            multiplexer.addWatcher("/test", WatchType.DATA, watcher1);
+            client.usingNamespace(null).getWatchMultiplexer().addWatcher("/ns/test", WatchType.DATA, watcher2);
+            Assert.assertEquals(multiplexer.getWatchCount(), 1);
+            Assert.assertEquals(multiplexer.getSubscriberCount(), 2);
+
+            client.create().forPath("/test");
+            assertEvent(events1.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), Watcher.Event.EventType.NodeCreated, "/test");
+            assertEvent(events2.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), Watcher.Event.EventType.NodeCreated, "/ns/test");
+
+            // the watch is re-armed - subscriptions are persistent
+            client.setData().forPath("/test", "one".getBytes());
+            assertEvent(events1.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), Watcher.Event.EventType.NodeDataChanged, "/test");
+            assertEvent(events2.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), Watcher.Event.EventType.NodeDataChanged, "/ns/test");
+
+            multiplexer.removeWatcher("/test", WatchType.DATA, watcher1);
+            Assert.assertEquals(multiplexer.getSubscriberCount(), 1);
+            client.delete().forPath("/test");
+            assertEvent(events2.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), Watcher.Event.EventType.NodeDeleted, "/ns/test");
+            Assert.assertNull(events1.poll(timing.multiple(.25).milliseconds(), TimeUnit.MILLISECONDS));
+
+            client.usingNamespace(null).getWatchMultiplexer().removeWatcher("/ns/test", WatchType.DATA, watcher2);
+            Assert.assertEquals(multiplexer.getWatchCount(), 0);
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void     testChildren() throws Exception
+    {
+        Timing              timing = new Timing();
+        CuratorFramework    client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            final BlockingQueue<WatchedEvent>   events = Queues.newLinkedBlockingQueue();
+            Watcher                             watcher = new Watcher()
+            {
+                @Override
+                public void process(WatchedEvent event)
+                {
+                    events.add(event);
+                }
+            };
+
+            for ( int i = 0; i < 10; ++i )
+            {
+                Watcher     other = new Watcher()
+                {
+                    @Override
+                    public void process(WatchedEvent event)
+                    {
+                        // just another subscriber
+                    }
+                };
+                client.getWatchMultiplexer().addWatcher("/parent", WatchType.CHILDREN, other);
+            }
+            client.getWatchMultiplexer().addWatcher("/parent", WatchType.CHILDREN, watcher);
+            Assert.assertEquals(client.getWatchMultiplexer().getWatchCount(), 1);
+            Assert.assertEquals(client.getWatchMultiplexer().getSubscriberCount(), 11);
+
+            // the parent doesn't exist yet
+            client.create().forPath("/parent");
+            assertEvent(events.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), Watcher.Event.EventType.NodeCreated, "/parent");
+
+            client.create().forPath("/parent/a");
+            assertEvent(events.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), Watcher.Event.EventType.NodeChildrenChanged, "/parent");
+            client.create().forPath("/parent/b");
+            assertEvent(events.poll(timing.milliseconds(), TimeUnit.MILLISECONDS), Watcher.Event.EventType.NodeChildrenChanged, "/parent");
+
+            // data changes are not child events
+            client.setData().forPath("/parent", "data".getBytes());
+            Assert.assertNull(events.poll(timing.multiple(.25).milliseconds(), TimeUnit.MILLISECONDS));
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    private void    assertEvent(WatchedEvent event, Watcher.Event.EventType type, String path)
+    {
+        Assert.assertNotNull(event);
+        Assert.assertEquals(event.getType(), type);
+        Assert.assertEquals(event.getPath(), path);
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.listen;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.netflix.curator.test.Timing;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestListenerContainer
+{
+    private interface TestListener
+    {
+        public void     event(int value) throws Exception;
+    }
+
+    private static Function<TestListener, Void>     event(final int value)
+    {
+        return new Function<TestListener, Void>()
+        {
+            @Override
+            public Void apply(TestListener listener)
+            {
+                try
+                {
+                    listener.event(value);
+                }
+                catch ( Exception e )
+                {
+                    throw new RuntimeException(e);
+                }
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void     testAddRemove() throws Exception
+    {
+        final List<Integer>             values = Lists.newArrayList();
+        TestListener                    listener = new TestListener()
+        {
+            @Override
+            public void event(int value)
+            {
+                values.add(value);
+            }
+        };
+        TestListener                    badListener = new TestListener()
+        {
+            @Override
+            public void event(int value) throws Exception
+            {
+                throw new Exception("bad listener");
+            }
+        };
+
+        ListenerContainer<TestListener> container = new ListenerContainer<TestListener>();
+        container.addListener(badListener);
+        container.addListener(listener);
+        container.addListener(listener);
+        Assert.assertEquals(container.size(), 2);
+
+        container.forEach(event(1));
+        container.removeListener(badListener);
+        container.forEach(event(2));
+        Assert.assertEquals(values, Lists.newArrayList(1, 2));
+
+        ListenerStats   stats = container.getStats(listener);
+        Assert.assertEquals(stats.getDispatchCount(), 2);
+        Assert.assertTrue(stats.getMaxDispatchNanos() <= stats.getTotalDispatchNanos());
+        Assert.assertNull(container.getStats(badListener));
+
+        container.removeListener(listener);
+        Assert.assertEquals(container.size(), 0);
+    }
+
+    @Test
+    public void     testQueued() throws Exception
+    {
+        Timing                          timing = new Timing();
+        ExecutorService                 executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            final CountDownLatch            blockLatch = new CountDownLatch(1);
+            final CountDownLatch            doneLatch = new CountDownLatch(1);
+            final List<Integer>             values = Collections.synchronizedList(Lists.<Integer>newArrayList());
+            TestListener                    listener = new TestListener()
+            {
+                @Override
+                public void event(int value) throws Exception
+                {
+                    blockLatch.await();
+                    values.add(value);
+                    if ( value == 9 )
+                    {
+                        doneLatch.countDown();
+                    }
+                }
+            };
+
+            ListenerContainer<TestListener> container = new ListenerContainer<TestListener>();
+            container.addListener(listener, executor, 3, ListenerOverflowPolicy.DROP_OLDEST);
+
+            // the first event is taken by the drain task which then blocks in the listener
+            container.forEach(event(0));
+            ListenerStats       stats = container.getStats(listener);
+            long                startMs = System.currentTimeMillis();
+            while ( stats.getQueueDepth() > 0 )
+            {
+                Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.milliseconds());
+                Thread.sleep(10);
+            }
+
+            // a slow listener doesn't block the delivering thread
+            for ( int i = 1; i < 10; ++i )
+            {
+                container.forEach(event(i));
+            }
+            Assert.assertEquals(stats.getQueueDepth(), 3);
+            Assert.assertEquals(stats.getDroppedCount(), 6);
+
+            blockLatch.countDown();
+            Assert.assertTrue(timing.awaitLatch(doneLatch));
+            Assert.assertEquals(values, Lists.newArrayList(0, 7, 8, 9));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void     testQueuedDropNewest() throws Exception
+    {
+        Timing                          timing = new Timing();
+        ExecutorService                 executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            final CountDownLatch            blockLatch = new CountDownLatch(1);
+            final List<Integer>             values = Collections.synchronizedList(Lists.<Integer>newArrayList());
+            TestListener                    listener = new TestListener()
+            {
+                @Override
+                public void event(int value) throws Exception
+                {
+                    blockLatch.await();
+                    values.add(value);
+                }
+            };
+
+            ListenerContainer<TestListener> container = new ListenerContainer<TestListener>();
+            container.addListener(listener, executor, 2, ListenerOverflowPolicy.DROP_NEWEST);
+            container.forEach(event(0));
+            ListenerStats       stats = container.getStats(listener);
+            long                startMs = System.currentTimeMillis();
+            while ( stats.getQueueDepth() > 0 )
+            {
+                Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.milliseconds());
+                Thread.sleep(10);
+            }
+
+            for ( int i = 1; i < 5; ++i )
+            {
+                container.forEach(event(i));
+            }
+            Assert.assertEquals(stats.getDroppedCount(), 2);
+
+            blockLatch.countDown();
+            startMs = System.currentTimeMillis();
+            while ( stats.getDispatchCount() < 3 )
+            {
+                Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.milliseconds());
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(values, Lists.newArrayList(0, 1, 2));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void     testQueuedBlockAfterRejection() throws Exception
+    {
+        Timing                          timing = new Timing();
+        final ExecutorService           executor = Executors.newSingleThreadExecutor();
+        ExecutorService                 dispatcher = Executors.newSingleThreadExecutor();
+        try
+        {
+            final AtomicBoolean             reject = new AtomicBoolean(true);
+            Executor                        rejectOnce = new Executor()
+            {
+                @Override
+                public void execute(Runnable command)
+                {
+                    if ( reject.compareAndSet(true, false) )
+                    {
+                        throw new RejectedExecutionException();
+                    }
+                    executor.execute(command);
+                }
+            };
+            final List<Integer>             values = Collections.synchronizedList(Lists.<Integer>newArrayList());
+            TestListener                    listener = new TestListener()
+            {
+                @Override
+                public void event(int value)
+                {
+                    values.add(value);
+                }
+            };
+
+            final ListenerContainer<TestListener> container = new ListenerContainer<TestListener>();
+            container.addListener(listener, rejectOnce, 1, ListenerOverflowPolicy.BLOCK);
+            try
+            {
+                container.forEach(event(0));
+                Assert.fail();
+            }
+            catch ( RejectedExecutionException expected )
+            {
+                // the event is queued but its drain task was rejected
+            }
+
+            // the queue is full and nothing is draining it - the next event must not block forever
+            Future<Void>    future = dispatcher.submit
+            (
+                new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        container.forEach(event(1));
+                        return null;
+                    }
+                }
+            );
+            future.get(timing.milliseconds(), TimeUnit.MILLISECONDS);
+
+            ListenerStats       stats = container.getStats(listener);
+            long                startMs = System.currentTimeMillis();
+            while ( stats.getDispatchCount() < 2 )
+            {
+                Assert.assertTrue((System.currentTimeMillis() - startMs) < timing.milliseconds());
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(values, Lists.newArrayList(0, 1));
+        }
+        finally
+        {
+            dispatcher.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+}
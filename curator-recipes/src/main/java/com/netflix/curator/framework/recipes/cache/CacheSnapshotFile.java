@@ -0,0 +1,218 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
+import com.netflix.curator.utils.ZKPaths;
+import org.apache.zookeeper.data.Stat;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads/writes a {@link PathChildrenCache} snapshot file. The format is a simple big-endian
+ * binary layout that is read via a memory mapped buffer:
+ *
+ * <pre>
+ * int magic, int format version, string parent path, int count
+ * count times: string node name, 11 stat fields, int data length (-1 for null), data bytes
+ * </pre>
+ *
+ * Strings are an int length followed by UTF-8 bytes.
+ */
+class CacheSnapshotFile
+{
+    private final File file;
+
+    private static final int MAGIC = 0x50434353;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MIN_ENTRY_SIZE = 4 + (6 * 8) + (5 * 4) + 4;    // name length + stat + data length
+
+    CacheSnapshotFile(File file)
+    {
+        this.file = file;
+    }
+
+    File getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Write the given children. The file is written to a temp file and then renamed so that
+     * a partially written file is never read.
+     *
+     * @param parentPath the cache's path
+     * @param children the cached children
+     * @throws IOException errors
+     */
+    void write(String parentPath, Collection<ChildData> children) throws IOException
+    {
+        File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+        try
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, parentPath);
+            out.writeInt(children.size());
+            for ( ChildData child : children )
+            {
+                Stat stat = child.getStat();
+                writeString(out, ZKPaths.getNodeFromPath(child.getPath()));
+                out.writeLong(stat.getCzxid());
+                out.writeLong(stat.getMzxid());
+                out.writeLong(stat.getCtime());
+                out.writeLong(stat.getMtime());
+                out.writeInt(stat.getVersion());
+                out.writeInt(stat.getCversion());
+                out.writeInt(stat.getAversion());
+                out.writeLong(stat.getEphemeralOwner());
+                out.writeInt(stat.getDataLength());
+                out.writeInt(stat.getNumChildren());
+                out.writeLong(stat.getPzxid());
+
+                byte[] data = child.getData();
+                out.writeInt((data != null) ? data.length : -1);
+                if ( data != null )
+                {
+                    out.write(data);
+                }
+            }
+        }
+        finally
+        {
+            Closeables.close(out, false);
+        }
+
+        if ( !tempFile.renameTo(file) )
+        {
+            // some platforms won't rename over an existing file
+            if ( !file.delete() || !tempFile.renameTo(file) )
+            {
+                throw new IOException("Could not rename " + tempFile + " to " + file);
+            }
+        }
+    }
+
+    /**
+     * Read the snapshot. Returns <code>null</code> if there is no snapshot file
+     *
+     * @param parentPath the cache's path - an exception is thrown if the snapshot is for a different path
+     * @return the children or null
+     * @throws IOException errors or a corrupt file
+     */
+    List<ChildData> read(String parentPath) throws IOException
+    {
+        if ( !file.exists() )
+        {
+            return null;
+        }
+
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = randomAccessFile.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if ( (buffer.getInt() != MAGIC) || (buffer.getInt() != FORMAT_VERSION) )
+            {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            String snapshotPath = readString(buffer);
+            if ( !snapshotPath.equals(parentPath) )
+            {
+                throw new IOException("Snapshot file " + file + " is for a different path: " + snapshotPath);
+            }
+
+            int count = buffer.getInt();
+            if ( (count < 0) || (count > (buffer.remaining() / MIN_ENTRY_SIZE)) )
+            {
+                throw new IOException("Corrupt snapshot file: " + file + " - bad count: " + count);
+            }
+            List<ChildData> children = Lists.newArrayListWithCapacity(count);
+            for ( int i = 0; i < count; ++i )
+            {
+                String name = readString(buffer);
+                Stat stat = new Stat();
+                stat.setCzxid(buffer.getLong());
+                stat.setMzxid(buffer.getLong());
+                stat.setCtime(buffer.getLong());
+                stat.setMtime(buffer.getLong());
+                stat.setVersion(buffer.getInt());
+                stat.setCversion(buffer.getInt());
+                stat.setAversion(buffer.getInt());
+                stat.setEphemeralOwner(buffer.getLong());
+                stat.setDataLength(buffer.getInt());
+                stat.setNumChildren(buffer.getInt());
+                stat.setPzxid(buffer.getLong());
+
+                byte[] data = null;
+                int dataLength = buffer.getInt();
+                if ( dataLength >= 0 )
+                {
+                    data = new byte[checkLength(buffer, dataLength)];
+                    buffer.get(data);
+                }
+                children.add(new ChildData(ZKPaths.makePath(parentPath, name), stat, data));
+            }
+            return children;
+        }
+        catch ( RuntimeException e )
+        {
+            // i.e. BufferUnderflowException for a truncated file
+            throw new IOException("Corrupt snapshot file: " + file, e);
+        }
+        finally
+        {
+            Closeables.close(randomAccessFile, true);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException
+    {
+        byte[] bytes = s.getBytes(Charsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException
+    {
+        byte[] bytes = new byte[checkLength(buffer, buffer.getInt())];
+        buffer.get(bytes);
+        return new String(bytes, Charsets.UTF_8);
+    }
+
+    private static int checkLength(ByteBuffer buffer, int length) throws IOException
+    {
+        // lengths come from the file - don't allocate more than could possibly be read
+        if ( (length < 0) || (length > buffer.remaining()) )
+        {
+            throw new IOException("Bad length in snapshot file: " + length);
+        }
+        return length;
+    }
+}
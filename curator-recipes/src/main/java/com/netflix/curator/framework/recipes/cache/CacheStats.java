@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+/**
+ * Gauges for a cache's lag/staleness. The timings and counts are also sent to the client's
+ * {@link com.netflix.curator.drivers.TracerDriver} (prefixed by the cache's class name) so that
+ * they can be aggregated/alerted on.
+ */
+public interface CacheStats
+{
+    /**
+     * Return the time from a watch firing to the listeners being called for the resulting
+     * event for the most recent such event
+     *
+     * @return time in milliseconds
+     */
+    public long     getLastEventLagMs();
+
+    /**
+     * Return the maximum time from a watch firing to the listeners being called
+     *
+     * @return time in milliseconds
+     */
+    public long     getMaxEventLagMs();
+
+    /**
+     * Return the number of operations waiting to be processed by the cache
+     *
+     * @return queue depth
+     */
+    public int      getQueuedOperationCount();
+
+    /**
+     * Return the number of times the cache has re-read the node/children list
+     *
+     * @return count
+     */
+    public long     getRefreshCount();
+
+    /**
+     * Return the number of data (or stat) reads the cache has made
+     *
+     * @return count
+     */
+    public long     getGetDataCount();
+
+    /**
+     * Return the number of bytes of node data currently cached
+     *
+     * @return bytes
+     */
+    public long     getCachedBytes();
+
+    /**
+     * Return the estimated staleness of the most recently applied change: the time it was applied
+     * locally minus the node's <code>mtime</code>. NOTE: this includes any clock difference between
+     * the server and this process.
+     *
+     * @return time in milliseconds
+     */
+    public long     getLastStalenessMs();
+
+    /**
+     * Return the maximum estimated staleness of any applied change
+     *
+     * @return time in milliseconds
+     */
+    public long     getMaxStalenessMs();
+}
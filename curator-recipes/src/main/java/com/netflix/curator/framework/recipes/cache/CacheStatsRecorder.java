@@ -0,0 +1,173 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.netflix.curator.framework.CuratorFramework;
+import org.apache.zookeeper.data.Stat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class CacheStatsRecorder implements CacheStats
+{
+    private final CuratorFramework client;
+    private final OperationQueue operations;
+    private final String eventLagName;
+    private final String stalenessName;
+    private final String refreshName;
+    private final String getDataName;
+    private final AtomicLong lastEventLagMs = new AtomicLong(0);
+    private final AtomicLong maxEventLagMs = new AtomicLong(0);
+    private final AtomicLong refreshCount = new AtomicLong(0);
+    private final AtomicLong getDataCount = new AtomicLong(0);
+    private final AtomicLong cachedBytes = new AtomicLong(0);
+    private final AtomicLong lastStalenessMs = new AtomicLong(0);
+    private final AtomicLong maxStalenessMs = new AtomicLong(0);
+
+    /**
+     * @param client the client - its tracer driver is sent the timings/counts
+     * @param name prefix for the tracer names
+     * @param operations the cache's operation queue or null
+     */
+    CacheStatsRecorder(CuratorFramework client, String name, OperationQueue operations)
+    {
+        this.client = client;
+        this.operations = operations;
+        eventLagName = name + "-event-lag";
+        stalenessName = name + "-staleness";
+        refreshName = name + "-refresh";
+        getDataName = name + "-get-data";
+    }
+
+    @Override
+    public long getLastEventLagMs()
+    {
+        return lastEventLagMs.get();
+    }
+
+    @Override
+    public long getMaxEventLagMs()
+    {
+        return maxEventLagMs.get();
+    }
+
+    @Override
+    public int getQueuedOperationCount()
+    {
+        return (operations != null) ? operations.size() : 0;
+    }
+
+    @Override
+    public long getRefreshCount()
+    {
+        return refreshCount.get();
+    }
+
+    @Override
+    public long getGetDataCount()
+    {
+        return getDataCount.get();
+    }
+
+    @Override
+    public long getCachedBytes()
+    {
+        return cachedBytes.get();
+    }
+
+    @Override
+    public long getLastStalenessMs()
+    {
+        return lastStalenessMs.get();
+    }
+
+    @Override
+    public long getMaxStalenessMs()
+    {
+        return maxStalenessMs.get();
+    }
+
+    /**
+     * Record that the listeners are about to be called for an event caused by a watch
+     *
+     * @param watchTimeMs the time the watch fired
+     */
+    void eventDispatched(long watchTimeMs)
+    {
+        long lagMs = Math.max(System.currentTimeMillis() - watchTimeMs, 0);
+        lastEventLagMs.set(lagMs);
+        updateMax(maxEventLagMs, lagMs);
+        client.getZookeeperClient().getTracerDriver().addTrace(eventLagName, lagMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record that a change to a node has been applied to the cache
+     *
+     * @param stat the node's new stat
+     */
+    void changeApplied(Stat stat)
+    {
+        long stalenessMs = Math.max(System.currentTimeMillis() - stat.getMtime(), 0);
+        lastStalenessMs.set(stalenessMs);
+        updateMax(maxStalenessMs, stalenessMs);
+        client.getZookeeperClient().getTracerDriver().addTrace(stalenessName, stalenessMs, TimeUnit.MILLISECONDS);
+    }
+
+    void refreshed()
+    {
+        refreshCount.incrementAndGet();
+        client.getZookeeperClient().getTracerDriver().addCount(refreshName, 1);
+    }
+
+    void dataRead(int qty)
+    {
+        getDataCount.addAndGet(qty);
+        client.getZookeeperClient().getTracerDriver().addCount(getDataName, qty);
+    }
+
+    void dataReplaced(ChildData previousData, ChildData newData)
+    {
+        long delta = bytes(newData) - bytes(previousData);
+        if ( delta != 0 )
+        {
+            cachedBytes.addAndGet(delta);
+        }
+    }
+
+    void dataCleared()
+    {
+        cachedBytes.set(0);
+    }
+
+    private static int bytes(ChildData data)
+    {
+        byte[] bytes = (data != null) ? data.getData() : null;
+        return (bytes != null) ? bytes.length : 0;
+    }
+
+    private static void updateMax(AtomicLong max, long value)
+    {
+        for(;;)
+        {
+            long current = max.get();
+            if ( (value <= current) || max.compareAndSet(current, value) )
+            {
+                break;
+            }
+        }
+    }
+}
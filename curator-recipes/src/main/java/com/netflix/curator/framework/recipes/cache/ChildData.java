@@ -17,19 +17,18 @@ package com.netflix.curator.framework.recipes.cache;
 
 import org.apache.zookeeper.data.Stat;
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicReference;
 
 public class ChildData implements Comparable<ChildData>
 {
     private final String    path;
     private final Stat      stat;
-    private final AtomicReference<byte[]>    data;
+    private volatile byte[] data;
 
     ChildData(String path, Stat stat, byte[] data)
     {
         this.path = path;
         this.stat = stat;
-        this.data = new AtomicReference<byte[]>(data);
+        this.data = data;
     }
 
     /**
@@ -49,7 +48,7 @@ public class ChildData implements Comparable<ChildData>
             return -1;
         }
 
-        return path.compareTo(rhs.path);
+        return getPath().compareTo(rhs.getPath());
     }
 
     @SuppressWarnings("RedundantIfStatement")
@@ -67,15 +66,19 @@ public class ChildData implements Comparable<ChildData>
 
         ChildData childData = (ChildData)o;
 
-        if ( !Arrays.equals(data.get(), childData.data.get()) )
+        if ( !Arrays.equals(getData(), childData.getData()) )
         {
             return false;
         }
-        if ( path != null ? !path.equals(childData.path) : childData.path != null )
+        String path = getPath();
+        String rhsPath = childData.getPath();
+        if ( path != null ? !path.equals(rhsPath) : rhsPath != null )
         {
             return false;
         }
-        if ( stat != null ? !stat.equals(childData.stat) : childData.stat != null )
+        Stat stat = getStat();
+        Stat rhsStat = childData.getStat();
+        if ( stat != null ? !stat.equals(rhsStat) : rhsStat != null )
         {
             return false;
         }
@@ -86,9 +89,11 @@ public class ChildData implements Comparable<ChildData>
     @Override
     public int hashCode()
     {
+        String path = getPath();
+        Stat stat = getStat();
         int result = path != null ? path.hashCode() : 0;
         result = 31 * result + (stat != null ? stat.hashCode() : 0);
-        result = 31 * result + (data != null ? Arrays.hashCode(data.get()) : 0);
+        result = 31 * result + Arrays.hashCode(getData());
         return result;
     }
 
@@ -122,21 +127,21 @@ public class ChildData implements Comparable<ChildData>
      */
     public byte[] getData()
     {
-        return data.get();
+        return data;
     }
 
     void clearData()
     {
-        data.set(null);
+        data = null;
     }
 
     @Override
     public String toString()
     {
         return "ChildData{" +
-            "path='" + path + '\'' +
-            ", stat=" + stat +
-            ", data=" + Arrays.toString(data.get()) +
+            "path='" + getPath() + '\'' +
+            ", stat=" + getStat() +
+            ", data=" + Arrays.toString(getData()) +
             '}';
     }
 }
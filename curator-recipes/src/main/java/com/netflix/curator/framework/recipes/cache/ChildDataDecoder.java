@@ -0,0 +1,34 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+/**
+ * Decodes node data for a {@link TypedPathChildrenCache}
+ */
+public interface ChildDataDecoder<T>
+{
+    /**
+     * Decode the data of a node. Called once per version of each node.
+     *
+     * @param path the node's full path
+     * @param data the node's data - can be <code>null</code> if the underlying cache isn't caching data
+     * @return the decoded value
+     * @throws Exception errors - the node is left out of the cache
+     */
+    public T        decode(String path, byte[] data) throws Exception;
+}
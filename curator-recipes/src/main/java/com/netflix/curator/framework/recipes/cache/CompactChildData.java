@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.netflix.curator.utils.ZKPaths;
+import org.apache.zookeeper.data.Stat;
+
+/**
+ * A {@link ChildData} that holds only the node name (the parent path is shared by all
+ * children of the cache) and the selected stat fields. The full path and the {@link Stat}
+ * are built on access.
+ */
+class CompactChildData extends ChildData
+{
+    private final String parentPath;
+    private final String name;
+    private final StatField[] statFields;
+    private final long[] statValues;
+
+    CompactChildData(String parentPath, String name, StatField[] statFields, Stat stat, byte[] data)
+    {
+        super(null, null, data);
+        this.parentPath = parentPath;
+        this.name = name;
+        this.statFields = statFields;
+
+        statValues = new long[statFields.length];
+        for ( int i = 0; i < statFields.length; ++i )
+        {
+            statValues[i] = statFields[i].get(stat);
+        }
+    }
+
+    String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public int compareTo(ChildData rhs)
+    {
+        if ( (rhs instanceof CompactChildData) && (((CompactChildData)rhs).parentPath == parentPath) )
+        {
+            // siblings sort the same as their names - no need to build the paths
+            return name.compareTo(((CompactChildData)rhs).name);
+        }
+        return super.compareTo(rhs);
+    }
+
+    @Override
+    public String getPath()
+    {
+        return ZKPaths.makePath(parentPath, name);
+    }
+
+    @Override
+    public Stat getStat()
+    {
+        Stat stat = new Stat();
+        for ( int i = 0; i < statFields.length; ++i )
+        {
+            statFields[i].set(stat, statValues[i]);
+        }
+        return stat;
+    }
+}
@@ -20,17 +20,29 @@ class EventOperation implements Operation
 {
     private final PathChildrenCache cache;
     private final PathChildrenCacheEvent event;
+    private final long watchTimeMs;
 
     EventOperation(PathChildrenCache cache, PathChildrenCacheEvent event)
+    {
+        this(cache, event, 0);
+    }
+
+    /**
+     * @param cache the cache
+     * @param event the event
+     * @param watchTimeMs time the watch that caused this event fired or 0
+     */
+    EventOperation(PathChildrenCache cache, PathChildrenCacheEvent event, long watchTimeMs)
     {
         this.cache = cache;
         this.event = event;
+        this.watchTimeMs = watchTimeMs;
     }
 
     @Override
     public void invoke()
     {
-        cache.callListeners(event);
+        cache.callListeners(event, watchTimeMs);
     }
 
     @Override
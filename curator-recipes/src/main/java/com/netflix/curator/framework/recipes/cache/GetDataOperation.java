@@ -20,17 +20,29 @@ class GetDataOperation implements Operation
 {
     private final PathChildrenCache cache;
     private final String fullPath;
+    private final long watchTimeMs;
 
     GetDataOperation(PathChildrenCache cache, String fullPath)
+    {
+        this(cache, fullPath, 0);
+    }
+
+    /**
+     * @param cache the cache
+     * @param fullPath path of the node to read
+     * @param watchTimeMs time the watch that caused this read fired or 0
+     */
+    GetDataOperation(PathChildrenCache cache, String fullPath, long watchTimeMs)
     {
         this.cache = cache;
         this.fullPath = fullPath;
+        this.watchTimeMs = watchTimeMs;
     }
 
     @Override
     public void invoke() throws Exception
     {
-        cache.getDataAndStat(fullPath);
+        cache.getDataAndStat(fullPath, watchTimeMs);
     }
 
     @Override
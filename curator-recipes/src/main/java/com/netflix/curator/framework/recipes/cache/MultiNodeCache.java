@@ -0,0 +1,439 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.BulkResult;
+import com.netflix.curator.framework.api.CuratorEvent;
+import com.netflix.curator.framework.listen.ListenerContainer;
+import com.netflix.curator.framework.state.ConnectionState;
+import com.netflix.curator.framework.state.ConnectionStateListener;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>A utility that attempts to keep the data from a changing set of nodes locally cached. It is the
+ * equivalent of a {@link NodeCache} per path but all paths share a single watcher, background callback,
+ * connection state listener and listener container so that thousands of individual nodes can be cached
+ * cheaply. Paths can be added/removed at any time and lookups are a single map access.</p>
+ *
+ * <p><b>IMPORTANT</b> - it's not possible to stay transactionally in sync. Users of this class must
+ * be prepared for false-positives and false-negatives. Additionally, always use the version number
+ * when updating data to avoid overwriting another process' change.</p>
+ */
+public class MultiNodeCache implements Closeable
+{
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final CuratorFramework client;
+    private final boolean dataIsCompressed;
+    private final ConcurrentMap<String, ChildData> nodes = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, Long> watchTimes = Maps.newConcurrentMap();
+    private final AtomicReference<State> state = new AtomicReference<State>(State.LATENT);
+    private final ListenerContainer<MultiNodeCacheListener> listeners = new ListenerContainer<MultiNodeCacheListener>();
+    private final AtomicBoolean isConnected = new AtomicBoolean(true);
+    private final CacheStatsRecorder stats;
+
+    // placeholder for paths whose node doesn't exist (or hasn't been read yet)
+    private static final ChildData NO_NODE = new ChildData(null, null, null);
+
+    private final ConnectionStateListener connectionStateListener = new ConnectionStateListener()
+    {
+        @Override
+        public void stateChanged(CuratorFramework client, ConnectionState newState)
+        {
+            if ( (newState == ConnectionState.CONNECTED) || (newState == ConnectionState.RECONNECTED) )
+            {
+                if ( isConnected.compareAndSet(false, true) )
+                {
+                    resetAll();
+                }
+            }
+            else
+            {
+                isConnected.set(false);
+            }
+        }
+    };
+
+    private final Watcher watcher = new Watcher()
+    {
+        @Override
+        public void process(WatchedEvent event)
+        {
+            String path = event.getPath();
+            if ( (path != null) && nodes.containsKey(path) )
+            {
+                watchTimes.putIfAbsent(path, System.currentTimeMillis());
+                try
+                {
+                    reset(path);
+                }
+                catch ( Exception e )
+                {
+                    log.error("Resetting watch for: " + path, e);
+                }
+            }
+        }
+    };
+
+    private final BackgroundCallback backgroundCallback = new BackgroundCallback()
+    {
+        @Override
+        public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+        {
+            processBackgroundResult(event);
+        }
+    };
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    /**
+     * @param client curator client
+     */
+    public MultiNodeCache(CuratorFramework client)
+    {
+        this(client, false);
+    }
+
+    /**
+     * @param client curator client
+     * @param dataIsCompressed if true, data in the paths is compressed
+     */
+    public MultiNodeCache(CuratorFramework client, boolean dataIsCompressed)
+    {
+        this.client = client;
+        this.dataIsCompressed = dataIsCompressed;
+        stats = new CacheStatsRecorder(client, "MultiNodeCache", null);
+    }
+
+    /**
+     * Start the cache. The cache is not started automatically. You must call this method.
+     *
+     * @throws Exception errors
+     */
+    public void     start() throws Exception
+    {
+        start(false);
+    }
+
+    /**
+     * Same as {@link #start()} but gives the option of doing an initial build
+     *
+     * @param buildInitial if true, {@link #rebuild()} will be called before this method
+     *                     returns in order to get an initial view of the nodes
+     * @throws Exception errors
+     */
+    public void     start(boolean buildInitial) throws Exception
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Cannot be started more than once");
+
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+
+        if ( buildInitial )
+        {
+            internalRebuild();
+        }
+        else
+        {
+            resetAll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if ( state.compareAndSet(State.STARTED, State.CLOSED) )
+        {
+            listeners.clear();
+        }
+        client.getConnectionStateListenable().removeListener(connectionStateListener);
+    }
+
+    /**
+     * Start caching the given node. If the cache has been started, the node is read in the
+     * background and listeners are notified when its data is available. Adding a path that is
+     * already cached does nothing.
+     *
+     * @param path full path of the node
+     * @throws Exception errors
+     */
+    public void     addPath(String path) throws Exception
+    {
+        Preconditions.checkState(state.get() != State.CLOSED, "Closed");
+
+        if ( nodes.putIfAbsent(Preconditions.checkNotNull(path, "path cannot be null"), NO_NODE) == null )
+        {
+            reset(path);
+        }
+    }
+
+    /**
+     * Stop caching the given node. NOTE: the node's ZooKeeper watch stays registered until it
+     * next fires at which time it is ignored.
+     *
+     * @param path full path of the node
+     */
+    public void     removePath(String path)
+    {
+        ChildData data = nodes.remove(path);
+        watchTimes.remove(path);
+        if ( data != null )
+        {
+            stats.dataReplaced(data, null);
+        }
+    }
+
+    /**
+     * Return the paths being cached
+     *
+     * @return paths
+     */
+    public Set<String> getPaths()
+    {
+        return ImmutableSet.copyOf(nodes.keySet());
+    }
+
+    /**
+     * Return the current data for the given path. There are no guarantees of accuracy. This is
+     * merely the most recent view of the data. If the node does not exist (or isn't being cached),
+     * this returns null
+     *
+     * @param path full path of the node
+     * @return data or null
+     */
+    public ChildData getCurrentData(String path)
+    {
+        ChildData data = nodes.get(path);
+        return (data != NO_NODE) ? data : null;    // check against ref intentional
+    }
+
+    /**
+     * Return the cache listenable
+     *
+     * @return listenable
+     */
+    public ListenerContainer<MultiNodeCacheListener> getListenable()
+    {
+        Preconditions.checkState(state.get() != State.CLOSED, "Closed");
+
+        return listeners;
+    }
+
+    /**
+     * Return lag/staleness gauges for this cache
+     *
+     * @return stats
+     */
+    public CacheStats getStats()
+    {
+        return stats;
+    }
+
+    /**
+     * NOTE: this is a BLOCKING method. Completely rebuild the internal cache by querying
+     * for all needed data WITHOUT generating any events to send to listeners. The nodes
+     * are read with pipelined requests.
+     *
+     * @throws Exception errors
+     */
+    public void     rebuild() throws Exception
+    {
+        Preconditions.checkState(state.get() == State.STARTED, "Not started");
+
+        internalRebuild();
+    }
+
+    private void     internalRebuild() throws Exception
+    {
+        List<String>                        paths = Lists.newArrayList(nodes.keySet());
+        Map<String, BulkResult<byte[]>>     results = dataIsCompressed ? client.getData().decompressed().usingWatcher(watcher).forPaths(paths) : client.getData().usingWatcher(watcher).forPaths(paths);
+        stats.dataRead(paths.size());
+        for ( BulkResult<byte[]> result : results.values() )
+        {
+            if ( result.isSuccess() )
+            {
+                replaceData(result.getPath(), new ChildData(result.getPath(), result.getStat(), result.getValue()));
+            }
+            else if ( result.getError() instanceof KeeperException.NoNodeException )
+            {
+                // no data watch is set for a missing node - set an exists watch so its creation is seen
+                replaceData(result.getPath(), null);
+                reset(result.getPath());
+            }
+            else
+            {
+                throw result.getError();
+            }
+        }
+    }
+
+    private void     resetAll()
+    {
+        // the reads are in the background so they're pipelined
+        for ( String path : nodes.keySet() )
+        {
+            try
+            {
+                reset(path);
+            }
+            catch ( Exception e )
+            {
+                log.error("Resetting watch for: " + path, e);
+            }
+        }
+    }
+
+    private void     reset(String path) throws Exception
+    {
+        if ( (state.get() == State.STARTED) && isConnected.get() )
+        {
+            stats.refreshed();
+            client.checkExists().usingWatcher(watcher).inBackground(backgroundCallback).forPath(path);
+        }
+    }
+
+    private void processBackgroundResult(CuratorEvent event) throws Exception
+    {
+        String      path = event.getPath();
+        switch ( event.getType() )
+        {
+            case GET_DATA:
+            {
+                if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                {
+                    setNewData(path, new ChildData(path, event.getStat(), event.getData()));
+                }
+                break;
+            }
+
+            case EXISTS:
+            {
+                if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+                {
+                    setNewData(path, null);
+                }
+                else if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                {
+                    stats.dataRead(1);
+                    if ( dataIsCompressed )
+                    {
+                        client.getData().decompressed().usingWatcher(watcher).inBackground(backgroundCallback).forPath(path);
+                    }
+                    else
+                    {
+                        client.getData().usingWatcher(watcher).inBackground(backgroundCallback).forPath(path);
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Replace the data for a path that is still being cached
+     *
+     * @param path the path
+     * @param newData new data or null if the node doesn't exist
+     * @return the previous data (null if the path is no longer cached or the node didn't exist)
+     *         or <code>newData</code> if nothing was changed
+     */
+    private ChildData replaceData(String path, ChildData newData)
+    {
+        ChildData   value = (newData != null) ? newData : NO_NODE;
+        for(;;)
+        {
+            ChildData   previous = nodes.get(path);
+            if ( previous == null )
+            {
+                // path was removed
+                return newData;
+            }
+            if ( (newData != null) && (previous != NO_NODE) && (previous.getStat().getMzxid() > newData.getStat().getMzxid()) )
+            {
+                // an older response - ignore it
+                return newData;
+            }
+            if ( nodes.replace(path, previous, value) )
+            {
+                stats.dataReplaced(previous, newData);
+                return (previous != NO_NODE) ? previous : null;
+            }
+        }
+    }
+
+    private void setNewData(final String path, ChildData newData)
+    {
+        ChildData   previousData = replaceData(path, newData);
+        Long        watchTimeMs = watchTimes.remove(path);
+        if ( (previousData == newData) || ((previousData != null) && previousData.equals(newData)) )
+        {
+            return;
+        }
+
+        if ( watchTimeMs != null )
+        {
+            if ( newData != null )
+            {
+                stats.changeApplied(newData.getStat());
+            }
+            stats.eventDispatched(watchTimeMs);
+        }
+
+        listeners.forEach
+        (
+            new Function<MultiNodeCacheListener, Void>()
+            {
+                @Override
+                public Void apply(MultiNodeCacheListener listener)
+                {
+                    try
+                    {
+                        listener.nodeChanged(path);
+                    }
+                    catch ( Exception e )
+                    {
+                        log.error("Calling listener", e);
+                    }
+                    return null;
+                }
+            }
+        );
+    }
+}
@@ -37,6 +37,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.concurrent.Exchanger;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -59,6 +60,8 @@ public class NodeCache implements Closeable
     private final AtomicReference<State> state = new AtomicReference<State>(State.LATENT);
     private final ListenerContainer<NodeCacheListener> listeners = new ListenerContainer<NodeCacheListener>();
     private final AtomicBoolean isConnected = new AtomicBoolean(true);
+    private final AtomicLong watchTimeMs = new AtomicLong(0);
+    private final CacheStatsRecorder stats;
     private final ConnectionStateListener connectionStateListener = new ConnectionStateListener()
     {
         @Override
@@ -90,6 +93,7 @@ public class NodeCache implements Closeable
         @Override
         public void process(WatchedEvent event) throws Exception
         {
+            watchTimeMs.compareAndSet(0, System.currentTimeMillis());
             reset();
         }
     };
@@ -130,6 +134,7 @@ public class NodeCache implements Closeable
         this.path = path;
         this.dataIsCompressed = dataIsCompressed;
         ensurePath = client.newNamespaceAwareEnsurePath(path).excludingLast();
+        stats = new CacheStatsRecorder(client, "NodeCache", null);
     }
 
     /**
@@ -186,6 +191,16 @@ public class NodeCache implements Closeable
         return listeners;
     }
 
+    /**
+     * Return lag/staleness gauges for this cache
+     *
+     * @return stats
+     */
+    public CacheStats getStats()
+    {
+        return stats;
+    }
+
     /**
      * NOTE: this is a BLOCKING method. Completely rebuild the internal cache by querying
      * for all needed data WITHOUT generating any events to send to listeners.
@@ -220,21 +235,24 @@ public class NodeCache implements Closeable
     {
         if ( (state.get() == State.STARTED) && isConnected.get() )
         {
+            stats.refreshed();
             client.checkExists().usingWatcher(watcher).inBackground(backgroundCallback).forPath(path);
         }
     }
 
     private void     internalRebuild() throws Exception
     {
+        stats.dataRead(1);
         try
         {
             Stat    stat = new Stat();
             byte[]  bytes = dataIsCompressed ? client.getData().decompressed().storingStatIn(stat).forPath(path) : client.getData().storingStatIn(stat).forPath(path);
-            data.set(new ChildData(path, stat, bytes));
+            ChildData newData = new ChildData(path, stat, bytes);
+            stats.dataReplaced(data.getAndSet(newData), newData);
         }
         catch ( KeeperException.NoNodeException e )
         {
-            data.set(null);
+            stats.dataReplaced(data.getAndSet(null), null);
         }
     }
 
@@ -260,6 +278,7 @@ public class NodeCache implements Closeable
                 }
                 else if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
                 {
+                    stats.dataRead(1);
                     if ( dataIsCompressed )
                     {
                         client.getData().decompressed().usingWatcher(watcher).inBackground(backgroundCallback).forPath(path);
@@ -277,8 +296,19 @@ public class NodeCache implements Closeable
     private void setNewData(ChildData newData) throws InterruptedException
     {
         ChildData   previousData = data.getAndSet(newData);
+        stats.dataReplaced(previousData, newData);
+        long        localWatchTimeMs = watchTimeMs.getAndSet(0);
         if ( !Objects.equal(previousData, newData) )
         {
+            if ( localWatchTimeMs > 0 )
+            {
+                if ( newData != null )
+                {
+                    stats.changeApplied(newData.getStat());
+                }
+                stats.eventDispatched(localWatchTimeMs);
+            }
+
             listeners.forEach
             (
                 new Function<NodeCacheListener, Void>()
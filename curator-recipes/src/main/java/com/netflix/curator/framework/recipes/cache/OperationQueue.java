@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.collect.Sets;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * FIFO queue of cache operations that coalesces duplicates. Offering an operation that is equal to
+ * one already queued (a refresh of the same mode, a get-data of the same path) replaces the queued one
+ * and moves it to the tail. All operations are constant time regardless of the size of the backlog.
+ */
+class OperationQueue
+{
+    private final Set<Operation> operations = Sets.newLinkedHashSet();
+
+    synchronized void offer(Operation operation)
+    {
+        operations.remove(operation);   // avoids herding for refresh operations
+        operations.add(operation);
+    }
+
+    /**
+     * Remove and return the head of the queue or <code>null</code> if the queue is empty
+     *
+     * @return operation or null
+     */
+    synchronized Operation poll()
+    {
+        Iterator<Operation> iterator = operations.iterator();
+        if ( !iterator.hasNext() )
+        {
+            return null;
+        }
+        Operation operation = iterator.next();
+        iterator.remove();
+        return operation;
+    }
+
+    synchronized boolean isEmpty()
+    {
+        return operations.isEmpty();
+    }
+
+    synchronized int size()
+    {
+        return operations.size();
+    }
+}
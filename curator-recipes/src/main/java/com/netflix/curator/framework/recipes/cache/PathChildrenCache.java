@@ -18,17 +18,20 @@ package com.netflix.curator.framework.recipes.cache;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
-import com.google.common.base.Predicate;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.netflix.curator.framework.CuratorFramework;
 import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.BulkResult;
 import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.framework.listen.ListenerContainer;
 import com.netflix.curator.framework.state.ConnectionState;
 import com.netflix.curator.framework.state.ConnectionStateListener;
+import com.netflix.curator.utils.CloseableExecutorService;
 import com.netflix.curator.utils.EnsurePath;
 import com.netflix.curator.utils.ThreadUtils;
 import com.netflix.curator.utils.ZKPaths;
@@ -39,17 +42,21 @@ import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Exchanger;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -67,23 +74,68 @@ public class PathChildrenCache implements Closeable
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final CuratorFramework client;
     private final String path;
-    private final ExecutorService executorService;
+    private final CloseableExecutorService executorService;
     private final boolean cacheData;
     private final boolean dataIsCompressed;
     private final EnsurePath ensurePath;
-    private final BlockingQueue<Operation> operations = new LinkedBlockingQueue<Operation>();
+    private final OperationQueue operations = new OperationQueue();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
     private final ListenerContainer<PathChildrenCacheListener> listeners = new ListenerContainer<PathChildrenCacheListener>();
+    private final ListenerContainer<PathChildrenCacheBatchListener> batchListeners = new ListenerContainer<PathChildrenCacheBatchListener>();
+    private final List<PathChildrenCacheEvent> pendingBatch = Lists.newArrayList();    // only accessed by cache operations (which are serialized)
+    private long pendingBatchId = 0;    // only accessed by cache operations (which are serialized)
+    private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private volatile long maxBatchDelayMs = DEFAULT_MAX_BATCH_DELAY_MS;
+    private volatile CacheSnapshotFile snapshotFile = null;
+    private volatile long snapshotPeriodMs = 0;
+    private long lastSnapshotVersion = 0;   // guarded by this
     private final ConcurrentMap<String, ChildData> currentData = Maps.newConcurrentMap();
-    private final AtomicReference<Map<String, ChildData>> initialSet = new AtomicReference<Map<String, ChildData>>();
+    private final AtomicReference<ConcurrentMap<String, ChildData>> initialSet = new AtomicReference<ConcurrentMap<String, ChildData>>();
+    private final AtomicInteger initialSetUninitializedCount = new AtomicInteger(0);
+    private final AtomicLong currentDataVersion = new AtomicLong(0);
+    private volatile Snapshot currentDataSnapshot = new Snapshot(0, ImmutableList.<ChildData>of());
+    private volatile StatField[] compactStatFields = null;
+    private volatile Cache<String, LazyData> lazyData = null;
+    private final CacheStatsRecorder stats;
 
     private static final ChildData      NULL_CHILD_DATA = new ChildData(null, null, null);
 
+    /**
+     * Default max number of reads in flight for {@link #rebuild()}
+     */
+    public static final int             DEFAULT_REBUILD_MAX_IN_FLIGHT = 100;
+
+    /**
+     * Default max number of events in a batch sent to {@link PathChildrenCacheBatchListener}s
+     */
+    public static final int             DEFAULT_MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Default max time in milliseconds that an event waits in a batch before the batch is sent
+     * to {@link PathChildrenCacheBatchListener}s
+     */
+    public static final long            DEFAULT_MAX_BATCH_DELAY_MS = 100;
+
+    /**
+     * Max number of operations processed by one drain task before it yields the executor to other tasks
+     */
+    private static final int            MAX_OPERATIONS_PER_DRAIN = 100;
+
+    private final Runnable drainTask = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            drainOperations();
+        }
+    };
+
     private final Watcher childrenWatcher = new Watcher()
     {
         @Override
         public void process(WatchedEvent event)
         {
-            offerOperation(new RefreshOperation(PathChildrenCache.this, RefreshMode.STANDARD));
+            offerOperation(new RefreshOperation(PathChildrenCache.this, RefreshMode.STANDARD, System.currentTimeMillis()));
         }
     };
 
@@ -96,11 +148,11 @@ public class PathChildrenCache implements Closeable
             {
                 if ( event.getType() == Event.EventType.NodeDeleted )
                 {
-                    remove(event.getPath());
+                    remove(event.getPath(), System.currentTimeMillis());
                 }
                 else if ( event.getType() == Event.EventType.NodeDataChanged )
                 {
-                    offerOperation(new GetDataOperation(PathChildrenCache.this, event.getPath()));
+                    offerOperation(new GetDataOperation(PathChildrenCache.this, event.getPath(), System.currentTimeMillis()));
                 }
             }
             catch ( Exception e )
@@ -113,6 +165,9 @@ public class PathChildrenCache implements Closeable
     @VisibleForTesting
     volatile Exchanger<Object> rebuildTestExchanger;
 
+    @VisibleForTesting
+    volatile Exchanger<Object> rebuildTestChildrenExchanger;
+
     private final ConnectionStateListener connectionStateListener = new ConnectionStateListener()
     {
         @Override
@@ -186,16 +241,40 @@ public class PathChildrenCache implements Closeable
      * @param path             path to watch
      * @param cacheData        if true, node contents are cached in addition to the stat
      * @param dataIsCompressed if true, data in the path is compressed
-     * @param executorService  ExecutorService to use for the PathChildrenCache's background thread
+     * @param executorService  ExecutorService to use for the PathChildrenCache's background thread. It is
+     *                         shut down when the cache is closed.
      */
     public PathChildrenCache(CuratorFramework client, String path, boolean cacheData, boolean dataIsCompressed, final ExecutorService executorService)
+    {
+        this(client, path, cacheData, dataIsCompressed, executorService, true);
+    }
+
+    /**
+     * The cache does not hold a thread - its work is run as short tasks on the given executor - so a single
+     * bounded executor (and a single wrapper) can be shared by any number of caches. Closing the cache cancels
+     * only its own tasks - the given executor is neither closed nor shut down.
+     *
+     * @param client           the client
+     * @param path             path to watch
+     * @param cacheData        if true, node contents are cached in addition to the stat
+     * @param dataIsCompressed if true, data in the path is compressed
+     * @param executorService  (possibly shared) executor to run the cache's work on
+     */
+    public PathChildrenCache(CuratorFramework client, String path, boolean cacheData, boolean dataIsCompressed, final CloseableExecutorService executorService)
+    {
+        this(client, path, cacheData, dataIsCompressed, executorService.getExecutorService(), false);
+    }
+
+    private PathChildrenCache(CuratorFramework client, String path, boolean cacheData, boolean dataIsCompressed, ExecutorService executorService, boolean shutdownOnClose)
     {
         this.client = client;
         this.path = path;
         this.cacheData = cacheData;
         this.dataIsCompressed = dataIsCompressed;
-        this.executorService = executorService;
+        // each cache has its own wrapper so that closing it only cancels its own tasks
+        this.executorService = new CloseableExecutorService(executorService, shutdownOnClose);
         ensurePath = client.newNamespaceAwareEnsurePath(path);
+        stats = new CacheStatsRecorder(client, "PathChildrenCache", operations);
     }
 
     /**
@@ -257,24 +336,20 @@ public class PathChildrenCache implements Closeable
         Preconditions.checkState(!executorService.isShutdown(), "already started");
         mode = Preconditions.checkNotNull(mode, "mode cannot be null");
 
+        boolean snapshotLoaded = (mode != StartMode.BUILD_INITIAL_CACHE) && loadSnapshot();
+
         client.getConnectionStateListenable().addListener(connectionStateListener);
-        executorService.execute
-            (
-                new Runnable()
-                {
-                    @Override
-                    public void run()
-                    {
-                        mainLoop();
-                    }
-                }
-            );
+        if ( snapshotFile != null )
+        {
+            scheduleSnapshot();
+        }
 
         switch ( mode )
         {
             case NORMAL:
             {
-                offerOperation(new RefreshOperation(this, RefreshMode.STANDARD));
+                // a loaded snapshot is reconciled by version so that only changed nodes are read
+                offerOperation(new RefreshOperation(this, snapshotLoaded ? RefreshMode.RESYNC : RefreshMode.STANDARD));
                 break;
             }
 
@@ -287,7 +362,7 @@ public class PathChildrenCache implements Closeable
             case POST_INITIALIZED_EVENT:
             {
                 initialSet.set(Maps.<String, ChildData>newConcurrentMap());
-                offerOperation(new RefreshOperation(this, RefreshMode.POST_INITIALIZED));
+                offerOperation(new RefreshOperation(this, snapshotLoaded ? RefreshMode.RESYNC : RefreshMode.POST_INITIALIZED));
                 break;
             }
         }
@@ -295,27 +370,64 @@ public class PathChildrenCache implements Closeable
 
     /**
      * NOTE: this is a BLOCKING method. Completely rebuild the internal cache by querying
-     * for all needed data WITHOUT generating any events to send to listeners.
+     * for all needed data WITHOUT generating any events to send to listeners. The reads are
+     * pipelined with up to {@link #DEFAULT_REBUILD_MAX_IN_FLIGHT} requests in flight.
      *
      * @throws Exception errors
      */
     public void rebuild() throws Exception
+    {
+        rebuild(DEFAULT_REBUILD_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * NOTE: this is a BLOCKING method. Completely rebuild the internal cache by querying
+     * for all needed data WITHOUT generating any events to send to listeners. The children's
+     * data (or stats) are read asynchronously with up to <code>maxInFlight</code> requests
+     * outstanding at a time instead of one round trip per child.
+     *
+     * @param maxInFlight max number of reads in flight
+     * @throws Exception errors
+     */
+    public void rebuild(int maxInFlight) throws Exception
     {
         Preconditions.checkState(!executorService.isShutdown(), "cache has been closed");
+        Preconditions.checkArgument(maxInFlight > 0, "maxInFlight must be greater than 0");
 
         ensurePath.ensure(client.getZookeeperClient());
 
         clear();
 
         List<String> children = client.getChildren().forPath(path);
+        stats.refreshed();
+        stats.dataRead(children.size());
+        List<String> fullPaths = Lists.newArrayListWithCapacity(children.size());
         for ( String child : children )
         {
-            String fullPath = ZKPaths.makePath(path, child);
-            internalRebuildNode(fullPath);
+            fullPaths.add(ZKPaths.makePath(path, child));
+        }
+
+        if ( rebuildTestChildrenExchanger != null )
+        {
+            // lets tests change the children between reading the list and reading the nodes
+            rebuildTestChildrenExchanger.exchange(new Object());
+            rebuildTestChildrenExchanger.exchange(new Object());
+        }
 
-            if ( rebuildTestExchanger != null )
+        if ( cacheData )
+        {
+            Map<String, BulkResult<byte[]>> results = dataIsCompressed ? client.getData().decompressed().forPaths(fullPaths, maxInFlight) : client.getData().forPaths(fullPaths, maxInFlight);
+            for ( BulkResult<byte[]> result : results.values() )
             {
-                rebuildTestExchanger.exchange(new Object());
+                applyRebuildResult(result, result.getValue());
+            }
+        }
+        else
+        {
+            Map<String, BulkResult<Stat>> results = client.checkExists().forPaths(fullPaths, maxInFlight);
+            for ( BulkResult<Stat> result : results.values() )
+            {
+                applyRebuildResult(result, null);
             }
         }
 
@@ -354,7 +466,33 @@ public class PathChildrenCache implements Closeable
         Preconditions.checkState(!executorService.isShutdown(), "has not been started");
 
         client.getConnectionStateListenable().removeListener(connectionStateListener);
-        executorService.shutdownNow();
+        executorService.close();
+
+        if ( snapshotFile != null )
+        {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Keep a snapshot of the cache in a local file so that a restarted process can serve reads immediately
+     * instead of refetching every child. If the file exists when the cache is started (other than with
+     * {@link StartMode#BUILD_INITIAL_CACHE}) its contents are loaded (and posted as CHILD_ADDED events) and
+     * then reconciled against ZooKeeper in the background - only children whose data has changed are re-read.
+     * The snapshot is written periodically, if the cache has changed, and when the cache is closed.
+     * This must be called before the cache is started.
+     *
+     * @param file the snapshot file
+     * @param writePeriod how often to write the snapshot
+     * @param unit time unit of writePeriod
+     */
+    public void useSnapshotFile(File file, long writePeriod, TimeUnit unit)
+    {
+        Preconditions.checkState(currentData.isEmpty(), "must be called before the cache is started");
+        Preconditions.checkArgument(writePeriod > 0, "writePeriod must be greater than 0");
+
+        snapshotFile = new CacheSnapshotFile(Preconditions.checkNotNull(file, "file cannot be null"));
+        snapshotPeriodMs = unit.toMillis(writePeriod);
     }
 
     /**
@@ -367,15 +505,115 @@ public class PathChildrenCache implements Closeable
         return listeners;
     }
 
+    /**
+     * Return lag/staleness gauges for this cache
+     *
+     * @return stats
+     */
+    public CacheStats getStats()
+    {
+        return stats;
+    }
+
+    /**
+     * Return the batch listenable. Batch listeners are sent the CHILD_ADDED/CHILD_UPDATED/CHILD_REMOVED
+     * events in batches - see {@link #setEventBatching(int, long, TimeUnit)}. Any pending batch is sent before
+     * other events (connection changes, INITIALIZED) are processed.
+     *
+     * @return batch listenable
+     */
+    public ListenerContainer<PathChildrenCacheBatchListener> getBatchListenable()
+    {
+        return batchListeners;
+    }
+
+    /**
+     * Set the batch window for {@link PathChildrenCacheBatchListener}s. A batch is sent when it reaches
+     * the max size or when the max delay has elapsed since the first event in the batch. The defaults are
+     * {@link #DEFAULT_MAX_BATCH_SIZE} and {@link #DEFAULT_MAX_BATCH_DELAY_MS}.
+     *
+     * @param maxBatchSize max events in a batch
+     * @param maxDelay max time an event waits in a batch
+     * @param unit time unit of maxDelay
+     */
+    public void setEventBatching(int maxBatchSize, long maxDelay, TimeUnit unit)
+    {
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+        Preconditions.checkArgument(maxDelay >= 0, "maxDelay cannot be negative");
+
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayMs = unit.toMillis(maxDelay);
+    }
+
     /**
      * Return the current data. There are no guarantees of accuracy. This is
      * merely the most recent view of the data. The data is returned in sorted order.
+     * The returned list is an immutable snapshot that is shared between callers until the
+     * cache changes, so repeated calls are cheap.
      *
      * @return list of children and data
      */
     public List<ChildData> getCurrentData()
     {
-        return ImmutableList.copyOf(Sets.<ChildData>newTreeSet(currentData.values()));
+        Snapshot snapshot = currentDataSnapshot;
+        long version = currentDataVersion.get();
+        if ( snapshot.version != version )
+        {
+            // the map is always changed before the version is bumped so this snapshot is at least as new as the version
+            snapshot = new Snapshot(version, ImmutableList.copyOf(Sets.<ChildData>newTreeSet(currentData.values())));
+            currentDataSnapshot = snapshot;
+        }
+        return snapshot.data;
+    }
+
+    /**
+     * Return a counter that changes whenever the cached data changes (children added/removed/updated,
+     * data cleared, etc.). Callers can compare this value with a previously seen value to skip work when
+     * nothing has changed.
+     *
+     * @return data version
+     */
+    public long getCurrentDataVersion()
+    {
+        return currentDataVersion.get();
+    }
+
+    /**
+     * Store the cached children compactly. This is useful for caches with very large numbers of
+     * children. Each child is held as its node name (the parent path is shared), the requested stat fields
+     * and its data. The path and stat of the {@link ChildData} instances are built each time they are accessed
+     * and stat fields that weren't requested are 0. {@link StatField#VERSION} and {@link StatField#MZXID}
+     * are always retained as the cache needs them. This must be called before the cache is started.
+     *
+     * @param statFields the stat fields to retain
+     */
+    public void useCompactStorage(StatField... statFields)
+    {
+        Preconditions.checkState(currentData.isEmpty(), "must be called before the cache is started");
+
+        Set<StatField> fields = Sets.newTreeSet(Arrays.asList(statFields));
+        fields.add(StatField.VERSION);
+        fields.add(StatField.MZXID);
+        compactStatFields = fields.toArray(new StatField[fields.size()]);
+    }
+
+    /**
+     * Load node data on demand. The cache tracks all children and their stats (as with <code>cacheData</code>
+     * false) but a child's data is only read when the child is accessed via {@link #getCurrentData(String)}.
+     * The data that has been read is kept in an LRU of the given max size and is dropped when the node changes.
+     * NOTE: {@link #getCurrentData(String)} will block while the data is read. {@link #getCurrentData()} does
+     * not load data. This must be called before the cache is started and the cache must have been
+     * created with <code>cacheData</code> false.
+     *
+     * @param maxLoadedData max number of children whose data is kept
+     */
+    public void useLazyDataLoading(int maxLoadedData)
+    {
+        Preconditions.checkState(!cacheData, "cacheData must be false");
+        Preconditions.checkState(currentData.isEmpty(), "must be called before the cache is started");
+        Preconditions.checkArgument(maxLoadedData > 0, "maxLoadedData must be greater than 0");
+
+        lazyData = CacheBuilder.newBuilder().maximumSize(maxLoadedData).build();
     }
 
     /**
@@ -388,7 +626,13 @@ public class PathChildrenCache implements Closeable
      */
     public ChildData getCurrentData(String fullPath)
     {
-        return currentData.get(fullPath);
+        ChildData data = getCachedData(fullPath);
+        Cache<String, LazyData> localLazyData = lazyData;
+        if ( (data != null) && (localLazyData != null) )
+        {
+            data = loadLazyData(localLazyData, data);
+        }
+        return data;
     }
 
     /**
@@ -412,12 +656,14 @@ public class PathChildrenCache implements Closeable
      */
     public boolean clearDataBytes(String fullPath, int ifVersion)
     {
-        ChildData data = currentData.get(fullPath);
+        ChildData data = getCachedData(fullPath);
         if ( data != null )
         {
             if ( (ifVersion < 0) || (ifVersion == data.getStat().getVersion()) )
             {
+                stats.dataReplaced(data, null);
                 data.clearData();
+                currentDataChanged();
                 return true;
             }
         }
@@ -431,7 +677,7 @@ public class PathChildrenCache implements Closeable
      */
     public void clearAndRefresh() throws Exception
     {
-        currentData.clear();
+        clear();
         offerOperation(new RefreshOperation(this, RefreshMode.STANDARD));
     }
 
@@ -442,33 +688,53 @@ public class PathChildrenCache implements Closeable
     public void clear()
     {
         currentData.clear();
+        currentDataChanged();
+        stats.dataCleared();
+
+        Cache<String, LazyData> localLazyData = lazyData;
+        if ( localLazyData != null )
+        {
+            localLazyData.invalidateAll();
+        }
     }
 
     enum RefreshMode
     {
         STANDARD,
         FORCE_GET_DATA_AND_STAT,
-        POST_INITIALIZED
+        POST_INITIALIZED,
+        RESYNC
     }
 
-    void refresh(final RefreshMode mode) throws Exception
+    void refresh(final RefreshMode mode, final long watchTimeMs) throws Exception
     {
         ensurePath.ensure(client.getZookeeperClient());
+        stats.refreshed();
 
         final BackgroundCallback callback = new BackgroundCallback()
         {
             @Override
             public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
             {
-                processChildren(event.getChildren(), mode);
+                processChildren(event.getChildren(), mode, watchTimeMs);
             }
         };
 
         client.getChildren().usingWatcher(childrenWatcher).inBackground(callback).forPath(path);
     }
 
-    void callListeners(final PathChildrenCacheEvent event)
+    void callListeners(final PathChildrenCacheEvent event, long watchTimeMs)
     {
+        if ( watchTimeMs > 0 )
+        {
+            stats.eventDispatched(watchTimeMs);
+        }
+
+        if ( batchListeners.size() > 0 )
+        {
+            addToBatch(event);
+        }
+
         listeners.forEach
             (
                 new Function<PathChildrenCacheListener, Void>()
@@ -490,14 +756,15 @@ public class PathChildrenCache implements Closeable
             );
     }
 
-    void getDataAndStat(final String fullPath) throws Exception
+    void getDataAndStat(final String fullPath, final long watchTimeMs) throws Exception
     {
+        stats.dataRead(1);
         BackgroundCallback existsCallback = new BackgroundCallback()
         {
             @Override
             public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
             {
-                applyNewData(fullPath, event.getResultCode(), event.getStat(), null);
+                applyNewData(fullPath, event.getResultCode(), event.getStat(), null, watchTimeMs);
             }
         };
 
@@ -506,7 +773,7 @@ public class PathChildrenCache implements Closeable
             @Override
             public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
             {
-                applyNewData(fullPath, event.getResultCode(), event.getStat(), event.getData());
+                applyNewData(fullPath, event.getResultCode(), event.getStat(), event.getData(), watchTimeMs);
             }
         };
 
@@ -527,6 +794,52 @@ public class PathChildrenCache implements Closeable
         }
     }
 
+    /**
+     * Re-set the data watch for a cached node and only re-read its data if it has changed
+     * (per the mzxid) since it was cached
+     *
+     * @param cachedData the currently cached node
+     * @throws Exception errors
+     */
+    void resyncNode(final ChildData cachedData) throws Exception
+    {
+        final String fullPath = cachedData.getPath();
+        BackgroundCallback existsCallback = new BackgroundCallback()
+        {
+            @Override
+            public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+            {
+                if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                {
+                    Stat stat = event.getStat();
+                    if ( stat.getMzxid() == cachedData.getStat().getMzxid() )
+                    {
+                        // data is unchanged - just refresh the stat (e.g. numChildren)
+                        if ( currentData.replace(keyFor(fullPath), cachedData, newChildData(fullPath, stat, cachedData.getData())) )
+                        {
+                            currentDataChanged();
+                        }
+                        ChildData data = getCachedData(fullPath);
+                        if ( data != null )
+                        {
+                            updateInitialSet(ZKPaths.getNodeFromPath(fullPath), data);
+                        }
+                    }
+                    else
+                    {
+                        getDataAndStat(fullPath, 0);
+                    }
+                }
+                else if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+                {
+                    remove(fullPath);
+                }
+            }
+        };
+        stats.dataRead(1);
+        client.checkExists().usingWatcher(dataWatcher).inBackground(existsCallback).forPath(fullPath);
+    }
+
     /**
      * Default behavior is just to log the exception
      *
@@ -540,34 +853,65 @@ public class PathChildrenCache implements Closeable
     @VisibleForTesting
     protected void remove(String fullPath)
     {
-        ChildData data = currentData.remove(fullPath);
+        remove(fullPath, 0);
+    }
+
+    private void remove(String fullPath, long watchTimeMs)
+    {
+        ChildData data = removeCachedData(fullPath);
         if ( data != null )
         {
-            offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CHILD_REMOVED, data)));
+            offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CHILD_REMOVED, data), watchTimeMs));
         }
 
         Map<String, ChildData> localInitialSet = initialSet.get();
         if ( localInitialSet != null )
         {
-            localInitialSet.remove(fullPath);
+            if ( localInitialSet.remove(ZKPaths.getNodeFromPath(fullPath)) == NULL_CHILD_DATA )  // check against ref intentional
+            {
+                initialSetUninitializedCount.decrementAndGet();
+            }
             maybeOfferInitializedEvent(localInitialSet);
         }
     }
 
+    private void applyRebuildResult(BulkResult<?> result, byte[] bytes) throws Exception
+    {
+        if ( result.isSuccess() && (result.getStat() != null) )
+        {
+            putCachedData(newChildData(result.getPath(), result.getStat(), bytes));
+        }
+        else if ( result.isSuccess() || (result.getError() instanceof KeeperException.NoNodeException) )
+        {
+            // node no longer exists - remove it
+            removeCachedData(result.getPath());
+        }
+        else
+        {
+            throw result.getError();
+        }
+
+        if ( rebuildTestExchanger != null )
+        {
+            rebuildTestExchanger.exchange(new Object());
+        }
+    }
+
     private void internalRebuildNode(String fullPath) throws Exception
     {
+        stats.dataRead(1);
         if ( cacheData )
         {
             try
             {
                 Stat stat = new Stat();
                 byte[] bytes = dataIsCompressed ? client.getData().decompressed().storingStatIn(stat).forPath(fullPath) : client.getData().storingStatIn(stat).forPath(fullPath);
-                currentData.put(fullPath, new ChildData(fullPath, stat, bytes));
+                putCachedData(newChildData(fullPath, stat, bytes));
             }
             catch ( KeeperException.NoNodeException ignore )
             {
                 // node no longer exists - remove it
-                currentData.remove(fullPath);
+                removeCachedData(fullPath);
             }
         }
         else
@@ -575,12 +919,12 @@ public class PathChildrenCache implements Closeable
             Stat stat = client.checkExists().forPath(fullPath);
             if ( stat != null )
             {
-                currentData.put(fullPath, new ChildData(fullPath, stat, null));
+                putCachedData(newChildData(fullPath, stat, null));
             }
             else
             {
                 // node no longer exists - remove it
-                currentData.remove(fullPath);
+                removeCachedData(fullPath);
             }
         }
     }
@@ -605,7 +949,7 @@ public class PathChildrenCache implements Closeable
         {
             try
             {
-                offerOperation(new RefreshOperation(this, RefreshMode.FORCE_GET_DATA_AND_STAT));
+                offerOperation(new RefreshOperation(this, RefreshMode.RESYNC));
                 offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CONNECTION_RECONNECTED, null)));
             }
             catch ( Exception e )
@@ -617,7 +961,7 @@ public class PathChildrenCache implements Closeable
         }
     }
 
-    private void processChildren(List<String> children, RefreshMode mode) throws Exception
+    private void processChildren(List<String> children, RefreshMode mode, long watchTimeMs) throws Exception
     {
         List<String> fullPaths = Lists.newArrayList(Lists.transform
         (
@@ -632,58 +976,187 @@ public class PathChildrenCache implements Closeable
             }
         ));
         Set<String> removedNodes = Sets.newHashSet(currentData.keySet());
-        removedNodes.removeAll(fullPaths);
+        removedNodes.removeAll((compactStatFields != null) ? children : fullPaths);
 
-        for ( String fullPath : removedNodes )
+        for ( String key : removedNodes )
         {
-            remove(fullPath);
+            remove((compactStatFields != null) ? ZKPaths.makePath(path, key) : key, watchTimeMs);
         }
 
+        // holds the count above 0 until all children have been added to the initial set
+        initialSetUninitializedCount.incrementAndGet();
         for ( String name : children )
         {
             String fullPath = ZKPaths.makePath(path, name);
 
-            if ( (mode == RefreshMode.FORCE_GET_DATA_AND_STAT) || !currentData.containsKey(fullPath) )
+            // must be added before the data is requested so that the response can't be overwritten
+            addToInitialSet(name);
+
+            ChildData cachedData = getCachedData(fullPath);
+            if ( (mode == RefreshMode.RESYNC) && (cachedData != null) && cacheData )
             {
-                getDataAndStat(fullPath);
+                resyncNode(cachedData);
+            }
+            else if ( (mode == RefreshMode.FORCE_GET_DATA_AND_STAT) || (mode == RefreshMode.RESYNC) || (cachedData == null) )
+            {
+                getDataAndStat(fullPath, watchTimeMs);
             }
-
-            updateInitialSet(name, NULL_CHILD_DATA);
         }
+        initialSetUninitializedCount.decrementAndGet();
         maybeOfferInitializedEvent(initialSet.get());
     }
 
-    private void applyNewData(String fullPath, int resultCode, Stat stat, byte[] bytes)
+    private void applyNewData(String fullPath, int resultCode, Stat stat, byte[] bytes, long watchTimeMs)
     {
         if ( resultCode == KeeperException.Code.OK.intValue() ) // otherwise - node must have dropped or something - we should be getting another event
         {
-            ChildData data = new ChildData(fullPath, stat, bytes);
-            ChildData previousData = currentData.put(fullPath, data);
+            ChildData data = newChildData(fullPath, stat, bytes);
+            ChildData previousData = putCachedData(data);
             if ( previousData == null ) // i.e. new
             {
-                offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CHILD_ADDED, data)));
+                offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CHILD_ADDED, data), watchTimeMs));
             }
             else if ( previousData.getStat().getVersion() != stat.getVersion() )
             {
-                offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CHILD_UPDATED, data)));
+                offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CHILD_UPDATED, data), watchTimeMs));
+            }
+            if ( (watchTimeMs > 0) && ((previousData == null) || (previousData.getStat().getMzxid() != stat.getMzxid())) )
+            {
+                // only changes reported by a watch are recent enough for mtime to measure staleness
+                stats.changeApplied(stat);
             }
             updateInitialSet(ZKPaths.getNodeFromPath(fullPath), data);
         }
     }
 
+    private void currentDataChanged()
+    {
+        currentDataVersion.incrementAndGet();
+    }
+
+    private String keyFor(String fullPath)
+    {
+        if ( compactStatFields == null )
+        {
+            return fullPath;
+        }
+
+        // compact entries are keyed by node name - the key is shared with the entry
+        ZKPaths.PathAndNode pathAndNode = ZKPaths.getPathAndNode(fullPath);
+        return pathAndNode.getPath().equals(path) ? pathAndNode.getNode() : null;
+    }
+
+    private ChildData newChildData(String fullPath, Stat stat, byte[] bytes)
+    {
+        StatField[] localCompactStatFields = compactStatFields;
+        if ( localCompactStatFields == null )
+        {
+            return new ChildData(fullPath, stat, bytes);
+        }
+
+        String name = ZKPaths.getNodeFromPath(fullPath);
+        ChildData existing = currentData.get(name);
+        if ( existing instanceof CompactChildData )
+        {
+            name = ((CompactChildData)existing).getName(); // share the instance that's already the map key
+        }
+        return new CompactChildData(path, name, localCompactStatFields, stat, bytes);
+    }
+
+    private ChildData getCachedData(String fullPath)
+    {
+        String key = keyFor(fullPath);
+        return (key != null) ? currentData.get(key) : null;
+    }
+
+    private ChildData putCachedData(ChildData data)
+    {
+        String key = (data instanceof CompactChildData) ? ((CompactChildData)data).getName() : data.getPath();
+        ChildData previousData = currentData.put(key, data);
+        currentDataChanged();
+        stats.dataReplaced(previousData, data);
+
+        Cache<String, LazyData> localLazyData = lazyData;
+        if ( (localLazyData != null) && (previousData != null) && (previousData.getStat().getMzxid() != data.getStat().getMzxid()) )
+        {
+            localLazyData.invalidate(data.getPath());
+        }
+        return previousData;
+    }
+
+    private ChildData removeCachedData(String fullPath)
+    {
+        String key = keyFor(fullPath);
+        ChildData data = (key != null) ? currentData.remove(key) : null;
+        if ( data != null )
+        {
+            currentDataChanged();
+            stats.dataReplaced(data, null);
+        }
+
+        Cache<String, LazyData> localLazyData = lazyData;
+        if ( localLazyData != null )
+        {
+            localLazyData.invalidate(fullPath);
+        }
+        return data;
+    }
+
+    private ChildData loadLazyData(Cache<String, LazyData> localLazyData, ChildData data)
+    {
+        String fullPath = data.getPath();
+        LazyData loaded = localLazyData.getIfPresent(fullPath);
+        if ( (loaded == null) || (loaded.stat.getMzxid() < data.getStat().getMzxid()) )
+        {
+            stats.dataRead(1);
+            try
+            {
+                Stat stat = new Stat();
+                byte[] bytes = dataIsCompressed ? client.getData().decompressed().storingStatIn(stat).forPath(fullPath) : client.getData().storingStatIn(stat).forPath(fullPath);
+                loaded = new LazyData(stat, bytes);
+                localLazyData.put(fullPath, loaded);
+            }
+            catch ( KeeperException.NoNodeException ignore )
+            {
+                // node no longer exists - the watchers will remove it
+                return null;
+            }
+            catch ( Exception e )
+            {
+                handleException(e);
+                return data;
+            }
+        }
+
+        // the loaded data can be newer than the cached stat if the node has changed and the watcher hasn't been processed yet
+        return new ChildData(fullPath, loaded.stat, loaded.data);
+    }
+
+    private void addToInitialSet(String name)
+    {
+        ConcurrentMap<String, ChildData> localInitialSet = initialSet.get();
+        if ( (localInitialSet != null) && (localInitialSet.putIfAbsent(name, NULL_CHILD_DATA) == null) )
+        {
+            initialSetUninitializedCount.incrementAndGet();
+        }
+    }
+
     private void updateInitialSet(String name, ChildData data)
     {
         Map<String, ChildData> localInitialSet = initialSet.get();
         if ( localInitialSet != null )
         {
-            localInitialSet.put(name, data);
+            if ( localInitialSet.put(name, data) == NULL_CHILD_DATA )  // check against ref intentional
+            {
+                initialSetUninitializedCount.decrementAndGet();
+            }
             maybeOfferInitializedEvent(localInitialSet);
         }
     }
 
     private void maybeOfferInitializedEvent(Map<String, ChildData> localInitialSet)
     {
-        if ( !hasUninitialized(localInitialSet) )
+        if ( (localInitialSet != null) && (initialSetUninitializedCount.get() == 0) )
         {
             // all initial children have been processed - send initialized message
 
@@ -703,51 +1176,275 @@ public class PathChildrenCache implements Closeable
         }
     }
 
-    private boolean hasUninitialized(Map<String, ChildData> localInitialSet)
+    private void addToBatch(PathChildrenCacheEvent event)
+    {
+        switch ( event.getType() )
+        {
+            case CHILD_ADDED:
+            case CHILD_UPDATED:
+            case CHILD_REMOVED:
+            {
+                if ( pendingBatch.isEmpty() )
+                {
+                    scheduleBatchFlush(++pendingBatchId);
+                }
+                pendingBatch.add(event);
+                if ( pendingBatch.size() >= maxBatchSize )
+                {
+                    sendBatch();
+                }
+                break;
+            }
+
+            default:
+            {
+                // keep the batches in order with the other events
+                sendBatch();
+                break;
+            }
+        }
+    }
+
+    private void sendBatch()
     {
-        if ( localInitialSet == null )
+        if ( pendingBatch.isEmpty() )
+        {
+            return;
+        }
+
+        final List<PathChildrenCacheEvent> events = ImmutableList.copyOf(pendingBatch);
+        pendingBatch.clear();
+        batchListeners.forEach
+            (
+                new Function<PathChildrenCacheBatchListener, Void>()
+                {
+                    @Override
+                    public Void apply(PathChildrenCacheBatchListener listener)
+                    {
+                        try
+                        {
+                            listener.childEvents(client, events);
+                        }
+                        catch ( Exception e )
+                        {
+                            handleException(e);
+                        }
+                        return null;
+                    }
+                }
+            );
+    }
+
+    private void scheduleBatchFlush(final long batchId)
+    {
+        schedule
+            (
+                new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        offerOperation
+                            (
+                                new Operation()
+                                {
+                                    @Override
+                                    public void invoke()
+                                    {
+                                        // ignore if the batch was already sent because it filled up
+                                        if ( batchId == pendingBatchId )
+                                        {
+                                            sendBatch();
+                                        }
+                                    }
+                                }
+                            );
+                    }
+                },
+                maxBatchDelayMs
+            );
+    }
+
+    private void scheduleSnapshot()
+    {
+        schedule
+            (
+                new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        offerOperation
+                            (
+                                new Operation()
+                                {
+                                    @Override
+                                    public void invoke()
+                                    {
+                                        writeSnapshot();
+                                        scheduleSnapshot();
+                                    }
+                                }
+                            );
+                    }
+                },
+                snapshotPeriodMs
+            );
+    }
+
+    private void schedule(Runnable task, long delayMs)
+    {
+        if ( !executorService.isShutdown() )
+        {
+            try
+            {
+                executorService.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+            }
+            catch ( RuntimeException e )
+            {
+                // the cache was closed in the meantime
+            }
+        }
+    }
+
+    private boolean loadSnapshot()
+    {
+        CacheSnapshotFile localSnapshotFile = snapshotFile;
+        if ( localSnapshotFile == null )
         {
             return false;
         }
 
-        Map<String, ChildData> uninitializedChildren = Maps.filterValues
-        (
-            localInitialSet,
-            new Predicate<ChildData>()
+        List<ChildData> children;
+        try
+        {
+            children = localSnapshotFile.read(path);
+        }
+        catch ( IOException e )
+        {
+            log.warn("Could not load snapshot file, ignoring it: " + localSnapshotFile.getFile(), e);
+            return false;
+        }
+        if ( children == null )
+        {
+            return false;
+        }
+
+        for ( ChildData child : children )
+        {
+            ChildData data = newChildData(child.getPath(), child.getStat(), child.getData());
+            putCachedData(data);
+            offerOperation(new EventOperation(this, new PathChildrenCacheEvent(PathChildrenCacheEvent.Type.CHILD_ADDED, data)));
+        }
+        synchronized(this)
+        {
+            lastSnapshotVersion = currentDataVersion.get();
+        }
+        return true;
+    }
+
+    private synchronized void writeSnapshot()
+    {
+        long version = currentDataVersion.get();
+        if ( version == lastSnapshotVersion )
+        {
+            return;
+        }
+
+        try
+        {
+            snapshotFile.write(path, getCurrentData());
+            lastSnapshotVersion = version;
+        }
+        catch ( IOException e )
+        {
+            log.error("Could not write snapshot file: " + snapshotFile.getFile(), e);
+        }
+    }
+
+    private void drainOperations()
+    {
+        try
+        {
+            for ( int i = 0; i < MAX_OPERATIONS_PER_DRAIN; ++i )
             {
-                @Override
-                public boolean apply(ChildData input)
+                Operation operation = operations.poll();
+                if ( operation == null )
+                {
+                    break;
+                }
+
+                try
                 {
-                    return (input == NULL_CHILD_DATA);  // check against ref intentional
+                    operation.invoke();
+                }
+                catch ( InterruptedException e )
+                {
+                    // the cache is being closed
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                catch ( Exception e )
+                {
+                    handleException(e);
                 }
             }
-        );
-        return (uninitializedChildren.size() != 0);
+        }
+        finally
+        {
+            drainScheduled.set(false);
+        }
+
+        if ( !operations.isEmpty() )
+        {
+            scheduleDrain();
+        }
     }
 
-    private void mainLoop()
+    private void scheduleDrain()
     {
-        while ( !Thread.currentThread().isInterrupted() )
+        // at most one drain task per cache is queued/running so operations are processed in order
+        if ( !executorService.isShutdown() && drainScheduled.compareAndSet(false, true) )
         {
             try
             {
-                operations.take().invoke();
+                executorService.submit(drainTask);
             }
-            catch ( InterruptedException e )
+            catch ( RuntimeException e )
             {
-                Thread.currentThread().interrupt();
-                break;
-            }
-            catch ( Exception e )
-            {
-                handleException(e);
+                // the cache was closed in the meantime
+                drainScheduled.set(false);
             }
         }
     }
 
     private void offerOperation(Operation operation)
     {
-        operations.remove(operation);   // avoids herding for refresh operations
         operations.offer(operation);
+        scheduleDrain();
+    }
+
+    private static class LazyData
+    {
+        private final Stat stat;
+        private final byte[] data;
+
+        private LazyData(Stat stat, byte[] data)
+        {
+            this.stat = stat;
+            this.data = data;
+        }
+    }
+
+    private static class Snapshot
+    {
+        private final long version;
+        private final List<ChildData> data;
+
+        private Snapshot(long version, List<ChildData> data)
+        {
+            this.version = version;
+            this.data = data;
+        }
     }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.netflix.curator.framework.CuratorFramework;
+import java.util.List;
+
+/**
+ * Listener for batches of PathChildrenCache changes. See {@link PathChildrenCache#getBatchListenable()}
+ */
+public interface PathChildrenCacheBatchListener
+{
+    /**
+     * Called with a batch of changes. The events are in the order that they occurred and
+     * are all of type {@link PathChildrenCacheEvent.Type#CHILD_ADDED}, {@link PathChildrenCacheEvent.Type#CHILD_UPDATED}
+     * or {@link PathChildrenCacheEvent.Type#CHILD_REMOVED}.
+     *
+     * @param client the client
+     * @param events the changes - never empty
+     * @throws Exception errors
+     */
+    public void     childEvents(CuratorFramework client, List<PathChildrenCacheEvent> events) throws Exception;
+}
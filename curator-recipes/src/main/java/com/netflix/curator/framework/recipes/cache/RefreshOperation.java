@@ -20,17 +20,29 @@ class RefreshOperation implements Operation
 {
     private final PathChildrenCache cache;
     private final PathChildrenCache.RefreshMode mode;
+    private final long watchTimeMs;
 
     RefreshOperation(PathChildrenCache cache, PathChildrenCache.RefreshMode mode)
+    {
+        this(cache, mode, 0);
+    }
+
+    /**
+     * @param cache the cache
+     * @param mode refresh mode
+     * @param watchTimeMs time the watch that caused this refresh fired or 0
+     */
+    RefreshOperation(PathChildrenCache cache, PathChildrenCache.RefreshMode mode, long watchTimeMs)
     {
         this.cache = cache;
         this.mode = mode;
+        this.watchTimeMs = watchTimeMs;
     }
 
     @Override
     public void invoke() throws Exception
     {
-        cache.refresh(mode);
+        cache.refresh(mode, watchTimeMs);
     }
 
     @Override
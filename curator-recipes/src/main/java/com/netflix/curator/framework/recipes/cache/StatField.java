@@ -0,0 +1,196 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import org.apache.zookeeper.data.Stat;
+
+/**
+ * The fields of a {@link Stat}. Used to select the fields retained by a compact
+ * cache - see {@link PathChildrenCache#useCompactStorage(StatField...)}
+ */
+public enum StatField
+{
+    CZXID
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getCzxid();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setCzxid(value);
+        }
+    },
+
+    MZXID
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getMzxid();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setMzxid(value);
+        }
+    },
+
+    CTIME
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getCtime();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setCtime(value);
+        }
+    },
+
+    MTIME
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getMtime();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setMtime(value);
+        }
+    },
+
+    VERSION
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getVersion();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setVersion((int)value);
+        }
+    },
+
+    CVERSION
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getCversion();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setCversion((int)value);
+        }
+    },
+
+    AVERSION
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getAversion();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setAversion((int)value);
+        }
+    },
+
+    EPHEMERAL_OWNER
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getEphemeralOwner();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setEphemeralOwner(value);
+        }
+    },
+
+    DATA_LENGTH
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getDataLength();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setDataLength((int)value);
+        }
+    },
+
+    NUM_CHILDREN
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getNumChildren();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setNumChildren((int)value);
+        }
+    },
+
+    PZXID
+    {
+        @Override
+        long get(Stat stat)
+        {
+            return stat.getPzxid();
+        }
+
+        @Override
+        void set(Stat stat, long value)
+        {
+            stat.setPzxid(value);
+        }
+    };
+
+    abstract long get(Stat stat);
+
+    abstract void set(Stat stat, long value);
+}
@@ -0,0 +1,633 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.CuratorEvent;
+import com.netflix.curator.framework.listen.ListenerContainer;
+import com.netflix.curator.framework.state.ConnectionState;
+import com.netflix.curator.framework.state.ConnectionStateListener;
+import com.netflix.curator.utils.ThreadUtils;
+import com.netflix.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>A utility that attempts to keep all data from all nodes of a ZK subtree locally cached. Every node
+ * in the tree (down to an optional max depth) is watched. You can register a listener that will get
+ * notified when changes occur. Listeners are called from a single event thread.</p>
+ *
+ * <p>The tree is loaded asynchronously: each node's children and data are requested as soon as the
+ * node is discovered, so the initial load is pipelined rather than done level by level.
+ * A {@link TreeCacheEvent.Type#INITIALIZED} event is posted when the initial load completes.</p>
+ *
+ * <p><b>IMPORTANT</b> - it's not possible to stay transactionally in sync. Users of this class must
+ * be prepared for false-positives and false-negatives. Additionally, always use the version number
+ * when updating data to avoid overwriting another process' change.</p>
+ */
+public class TreeCache implements Closeable
+{
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final CuratorFramework client;
+    private final boolean cacheData;
+    private final boolean dataIsCompressed;
+    private final int maxDepth;
+    private final ExecutorService executorService;
+    private final TreeNode root;
+    private final ListenerContainer<TreeCacheListener> listeners = new ListenerContainer<TreeCacheListener>();
+    private final AtomicReference<State> state = new AtomicReference<State>(State.LATENT);
+    private final AtomicLong outstandingOperations = new AtomicLong(0);
+    private final AtomicBoolean isInitialized = new AtomicBoolean(false);
+
+    private final ConnectionStateListener connectionStateListener = new ConnectionStateListener()
+    {
+        @Override
+        public void stateChanged(CuratorFramework client, ConnectionState newState)
+        {
+            handleStateChange(newState);
+        }
+    };
+
+    private static final ThreadFactory defaultThreadFactory = ThreadUtils.newThreadFactory("TreeCache");
+    private static final Splitter pathSplitter = Splitter.on('/').omitEmptyStrings();
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    private enum NodeState
+    {
+        PENDING,
+        LIVE,
+        DEAD
+    }
+
+    private final class TreeNode implements Watcher, BackgroundCallback
+    {
+        private final AtomicReference<NodeState> nodeState = new AtomicReference<NodeState>(NodeState.PENDING);
+        private final AtomicReference<ChildData> childData = new AtomicReference<ChildData>();
+        private final AtomicReference<ConcurrentMap<String, TreeNode>> children = new AtomicReference<ConcurrentMap<String, TreeNode>>();
+        private final TreeNode parent;
+        private final String path;
+        private final int depth;
+
+        private TreeNode(String path, TreeNode parent)
+        {
+            this.path = path;
+            this.parent = parent;
+            this.depth = (parent != null) ? (parent.depth + 1) : 0;
+        }
+
+        private void refresh() throws Exception
+        {
+            refreshChildren();
+            refreshData();
+        }
+
+        private void refreshChildren() throws Exception
+        {
+            if ( depth < maxDepth )
+            {
+                outstandingOperations.incrementAndGet();
+                try
+                {
+                    client.getChildren().usingWatcher(this).inBackground(this).forPath(path);
+                }
+                catch ( Exception e )
+                {
+                    outstandingOperations.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+
+        private void refreshData() throws Exception
+        {
+            outstandingOperations.incrementAndGet();
+            try
+            {
+                if ( dataIsCompressed )
+                {
+                    client.getData().decompressed().usingWatcher(this).inBackground(this).forPath(path);
+                }
+                else
+                {
+                    client.getData().usingWatcher(this).inBackground(this).forPath(path);
+                }
+            }
+            catch ( Exception e )
+            {
+                outstandingOperations.decrementAndGet();
+                throw e;
+            }
+        }
+
+        private void wasReconnected() throws Exception
+        {
+            refresh();
+            ConcurrentMap<String, TreeNode> childMap = children.get();
+            if ( childMap != null )
+            {
+                for ( TreeNode child : childMap.values() )
+                {
+                    child.wasReconnected();
+                }
+            }
+        }
+
+        private void wasCreated() throws Exception
+        {
+            refresh();
+        }
+
+        private void wasDeleted() throws Exception
+        {
+            ChildData oldChildData = childData.getAndSet(null);
+            ConcurrentMap<String, TreeNode> childMap = children.getAndSet(null);
+            if ( childMap != null )
+            {
+                for ( TreeNode child : childMap.values() )
+                {
+                    child.wasDeleted();
+                }
+            }
+
+            if ( state.get() == State.CLOSED )
+            {
+                return;
+            }
+
+            if ( nodeState.compareAndSet(NodeState.LIVE, NodeState.DEAD) && (oldChildData != null) )
+            {
+                publishEvent(TreeCacheEvent.Type.NODE_REMOVED, oldChildData);
+            }
+
+            if ( parent == null )
+            {
+                // the root node - watch for it to be re-created
+                nodeState.set(NodeState.DEAD);
+                outstandingOperations.incrementAndGet();
+                client.checkExists().usingWatcher(this).inBackground(this).forPath(path);
+            }
+            else
+            {
+                ConcurrentMap<String, TreeNode> parentChildMap = parent.children.get();
+                if ( parentChildMap != null )
+                {
+                    parentChildMap.remove(ZKPaths.getNodeFromPath(path), this);
+                }
+            }
+        }
+
+        @Override
+        public void process(WatchedEvent event)
+        {
+            if ( state.get() == State.CLOSED )
+            {
+                return;
+            }
+
+            try
+            {
+                switch ( event.getType() )
+                {
+                    case NodeCreated:
+                    {
+                        if ( parent == null )
+                        {
+                            wasCreated();
+                        }
+                        break;
+                    }
+
+                    case NodeChildrenChanged:
+                    {
+                        refreshChildren();
+                        break;
+                    }
+
+                    case NodeDataChanged:
+                    {
+                        refreshData();
+                        break;
+                    }
+
+                    case NodeDeleted:
+                    {
+                        wasDeleted();
+                        break;
+                    }
+                }
+            }
+            catch ( Exception e )
+            {
+                handleException(e);
+            }
+        }
+
+        @Override
+        public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+        {
+            try
+            {
+                if ( state.get() != State.CLOSED )
+                {
+                    processEvent(event);
+                }
+            }
+            finally
+            {
+                if ( (outstandingOperations.decrementAndGet() == 0) && isInitialized.compareAndSet(false, true) )
+                {
+                    publishEvent(TreeCacheEvent.Type.INITIALIZED, null);
+                }
+            }
+        }
+
+        private void processEvent(CuratorEvent event) throws Exception
+        {
+            Stat newStat = event.getStat();
+            KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+            switch ( event.getType() )
+            {
+                case EXISTS:
+                {
+                    // only used for a deleted root node
+                    if ( (code == KeeperException.Code.OK) && nodeState.compareAndSet(NodeState.DEAD, NodeState.PENDING) )
+                    {
+                        wasCreated();
+                    }
+                    break;
+                }
+
+                case CHILDREN:
+                {
+                    if ( code == KeeperException.Code.OK )
+                    {
+                        processChildren(event.getChildren());
+                    }
+                    else if ( code == KeeperException.Code.NONODE )
+                    {
+                        wasDeleted();
+                    }
+                    break;
+                }
+
+                case GET_DATA:
+                {
+                    if ( code == KeeperException.Code.OK )
+                    {
+                        processData(newStat, event.getData());
+                    }
+                    else if ( code == KeeperException.Code.NONODE )
+                    {
+                        wasDeleted();
+                    }
+                    break;
+                }
+
+                default:
+                {
+                    break;
+                }
+            }
+
+            if ( (code != KeeperException.Code.OK) && (code != KeeperException.Code.NONODE) )
+            {
+                // the node will be refreshed when the connection is re-established
+                log.debug(String.format("Background %s for %s failed: %s", event.getType(), path, code));
+            }
+        }
+
+        private void processChildren(List<String> childNames) throws Exception
+        {
+            ConcurrentMap<String, TreeNode> childMap = children.get();
+            if ( childMap == null )
+            {
+                childMap = Maps.newConcurrentMap();
+                if ( !children.compareAndSet(null, childMap) )
+                {
+                    childMap = children.get();
+                }
+            }
+
+            for ( String name : childNames )
+            {
+                if ( !childMap.containsKey(name) )
+                {
+                    TreeNode node = new TreeNode(ZKPaths.makePath(path, name), this);
+                    if ( childMap.putIfAbsent(name, node) == null )
+                    {
+                        node.wasCreated();
+                    }
+                }
+            }
+        }
+
+        private void processData(Stat newStat, byte[] bytes)
+        {
+            ChildData newChildData = new ChildData(path, newStat, cacheData ? bytes : null);
+            ChildData oldChildData = childData.getAndSet(newChildData);
+            if ( nodeState.compareAndSet(NodeState.PENDING, NodeState.LIVE) || nodeState.compareAndSet(NodeState.DEAD, NodeState.LIVE) )
+            {
+                publishEvent(TreeCacheEvent.Type.NODE_ADDED, newChildData);
+            }
+            else if ( (oldChildData == null) || (oldChildData.getStat().getMzxid() != newStat.getMzxid()) )
+            {
+                publishEvent(TreeCacheEvent.Type.NODE_UPDATED, newChildData);
+            }
+        }
+    }
+
+    /**
+     * @param client    the client
+     * @param path      path of the root of the tree to cache
+     * @param cacheData if true, node contents are cached in addition to the stat
+     */
+    public TreeCache(CuratorFramework client, String path, boolean cacheData)
+    {
+        this(client, path, cacheData, false, Integer.MAX_VALUE, Executors.newSingleThreadExecutor(defaultThreadFactory));
+    }
+
+    /**
+     * @param client           the client
+     * @param path             path of the root of the tree to cache
+     * @param cacheData        if true, node contents are cached in addition to the stat
+     * @param dataIsCompressed if true, data in the tree is compressed
+     * @param maxDepth         max depth to cache - the root is at depth 0, its children at depth 1, etc.
+     * @param threadFactory    factory to use when creating the event thread
+     */
+    public TreeCache(CuratorFramework client, String path, boolean cacheData, boolean dataIsCompressed, int maxDepth, ThreadFactory threadFactory)
+    {
+        this(client, path, cacheData, dataIsCompressed, maxDepth, Executors.newSingleThreadExecutor(threadFactory));
+    }
+
+    /**
+     * @param client           the client
+     * @param path             path of the root of the tree to cache
+     * @param cacheData        if true, node contents are cached in addition to the stat
+     * @param dataIsCompressed if true, data in the tree is compressed
+     * @param maxDepth         max depth to cache - the root is at depth 0, its children at depth 1, etc.
+     * @param executorService  single threaded ExecutorService used to deliver events to listeners
+     */
+    public TreeCache(CuratorFramework client, String path, boolean cacheData, boolean dataIsCompressed, int maxDepth, ExecutorService executorService)
+    {
+        Preconditions.checkArgument(maxDepth >= 0, "maxDepth cannot be negative");
+
+        this.client = client;
+        this.cacheData = cacheData;
+        this.dataIsCompressed = dataIsCompressed;
+        this.maxDepth = maxDepth;
+        this.executorService = executorService;
+        root = new TreeNode(ZKPaths.makePath(path, null), null);
+    }
+
+    /**
+     * Start the cache. The cache is not started automatically. You must call this method.
+     *
+     * @throws Exception errors
+     */
+    public void start() throws Exception
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "already started");
+
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+        root.wasCreated();
+    }
+
+    /**
+     * Close/end the cache
+     *
+     * @throws IOException errors
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if ( state.compareAndSet(State.STARTED, State.CLOSED) )
+        {
+            client.getConnectionStateListenable().removeListener(connectionStateListener);
+            listeners.clear();
+            executorService.shutdownNow();
+            try
+            {
+                root.wasDeleted();
+            }
+            catch ( Exception e )
+            {
+                handleException(e);
+            }
+        }
+    }
+
+    /**
+     * Return the cache listenable
+     *
+     * @return listenable
+     */
+    public ListenerContainer<TreeCacheListener> getListenable()
+    {
+        return listeners;
+    }
+
+    /**
+     * Return the current set of children at the given path, mapped by child name. There are no
+     * guarantees of accuracy; this is merely the most recent view of the data. If there is no
+     * node at this path, <code>null</code> is returned.
+     *
+     * @param fullPath full path to the node to check
+     * @return a possibly-empty map of children if the node is alive, or null
+     */
+    public Map<String, ChildData> getCurrentChildren(String fullPath)
+    {
+        TreeNode node = find(fullPath);
+        if ( (node == null) || (node.nodeState.get() != NodeState.LIVE) )
+        {
+            return null;
+        }
+
+        ImmutableMap.Builder<String, ChildData> builder = ImmutableMap.builder();
+        ConcurrentMap<String, TreeNode> childMap = node.children.get();
+        if ( childMap != null )
+        {
+            for ( Map.Entry<String, TreeNode> entry : childMap.entrySet() )
+            {
+                TreeNode child = entry.getValue();
+                ChildData childData = child.childData.get();
+                if ( (childData != null) && (child.nodeState.get() == NodeState.LIVE) )
+                {
+                    builder.put(entry.getKey(), childData);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Return the current data for the given path. There are no guarantees of accuracy. This is
+     * merely the most recent view of the data. If there is no node at the given path,
+     * <code>null</code> is returned.
+     *
+     * @param fullPath full path to the node to check
+     * @return data or null
+     */
+    public ChildData getCurrentData(String fullPath)
+    {
+        TreeNode node = find(fullPath);
+        if ( (node == null) || (node.nodeState.get() != NodeState.LIVE) )
+        {
+            return null;
+        }
+        return node.childData.get();
+    }
+
+    /**
+     * Default behavior is just to log the exception
+     *
+     * @param e the exception
+     */
+    protected void handleException(Throwable e)
+    {
+        log.error("", e);
+    }
+
+    private TreeNode find(String fullPath)
+    {
+        if ( !fullPath.startsWith(root.path) )
+        {
+            return null;
+        }
+        String relativePath = fullPath.substring(root.path.length());
+        if ( (relativePath.length() > 0) && !relativePath.startsWith("/") && !root.path.endsWith("/") )
+        {
+            return null;    // e.g. "/foobar" when the root is "/foo"
+        }
+
+        TreeNode current = root;
+        for ( String name : pathSplitter.split(relativePath) )
+        {
+            ConcurrentMap<String, TreeNode> childMap = current.children.get();
+            if ( childMap == null )
+            {
+                return null;
+            }
+            current = childMap.get(name);
+            if ( current == null )
+            {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    private void handleStateChange(ConnectionState newState)
+    {
+        switch ( newState )
+        {
+        case SUSPENDED:
+        {
+            publishEvent(TreeCacheEvent.Type.CONNECTION_SUSPENDED, null);
+            break;
+        }
+
+        case LOST:
+        {
+            publishEvent(TreeCacheEvent.Type.CONNECTION_LOST, null);
+            break;
+        }
+
+        case RECONNECTED:
+        {
+            try
+            {
+                root.wasReconnected();
+                publishEvent(TreeCacheEvent.Type.CONNECTION_RECONNECTED, null);
+            }
+            catch ( Exception e )
+            {
+                handleException(e);
+            }
+            break;
+        }
+        }
+    }
+
+    private void publishEvent(TreeCacheEvent.Type type, ChildData data)
+    {
+        if ( state.get() != State.CLOSED )
+        {
+            final TreeCacheEvent event = new TreeCacheEvent(type, data);
+            executorService.submit
+            (
+                new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        callListeners(event);
+                    }
+                }
+            );
+        }
+    }
+
+    private void callListeners(final TreeCacheEvent event)
+    {
+        listeners.forEach
+        (
+            new Function<TreeCacheListener, Void>()
+            {
+                @Override
+                public Void apply(TreeCacheListener listener)
+                {
+                    try
+                    {
+                        listener.childEvent(client, event);
+                    }
+                    catch ( Exception e )
+                    {
+                        handleException(e);
+                    }
+                    return null;
+                }
+            }
+        );
+    }
+}
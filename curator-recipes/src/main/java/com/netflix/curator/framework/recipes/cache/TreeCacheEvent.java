@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.netflix.curator.framework.state.ConnectionState;
+
+/**
+ * POJO that abstracts a change to a node in a {@link TreeCache}
+ */
+public class TreeCacheEvent
+{
+    private final Type type;
+    private final ChildData data;
+
+    /**
+     * Type of change
+     */
+    public enum Type
+    {
+        /**
+         * A node was added to the tree. The event's data has the node's full path.
+         */
+        NODE_ADDED,
+
+        /**
+         * A node's data was changed
+         */
+        NODE_UPDATED,
+
+        /**
+         * A node was removed from the tree
+         */
+        NODE_REMOVED,
+
+        /**
+         * Called when the connection has changed to {@link ConnectionState#SUSPENDED}
+         */
+        CONNECTION_SUSPENDED,
+
+        /**
+         * Called when the connection has changed to {@link ConnectionState#RECONNECTED}
+         */
+        CONNECTION_RECONNECTED,
+
+        /**
+         * Called when the connection has changed to {@link ConnectionState#LOST}
+         */
+        CONNECTION_LOST,
+
+        /**
+         * Posted once the initial tree has been loaded. NODE_ADDED events are posted
+         * for the initial nodes before this event.
+         */
+        INITIALIZED
+    }
+
+    /**
+     * @param type event type
+     * @param data event data or null
+     */
+    public TreeCacheEvent(Type type, ChildData data)
+    {
+        this.type = type;
+        this.data = data;
+    }
+
+    /**
+     * @return change type
+     */
+    public Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return the node's data
+     */
+    public ChildData getData()
+    {
+        return data;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TreeCacheEvent{" +
+            "type=" + type +
+            ", data=" + data +
+            '}';
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A secondary index of a {@link TypedPathChildrenCache}. Maps the key extracted from
+ * each node's value to the set of nodes with that key. The index is updated as the cache changes
+ * and can be read from any thread. See {@link TypedPathChildrenCache#addIndex(Function)}
+ */
+public class TypedCacheIndex<K, T>
+{
+    private final Function<T, K> keyExtractor;
+    private final ConcurrentMap<K, Set<TypedChildData<T>>> index = Maps.newConcurrentMap();
+
+    TypedCacheIndex(Function<T, K> keyExtractor)
+    {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Return the nodes whose value has the given key. The returned set is an unmodifiable,
+     * weakly consistent view - copy it if you need a stable snapshot.
+     *
+     * @param key the key
+     * @return nodes - never null
+     */
+    public Set<TypedChildData<T>> get(K key)
+    {
+        Set<TypedChildData<T>> entries = index.get(key);
+        return (entries != null) ? Collections.unmodifiableSet(entries) : Collections.<TypedChildData<T>>emptySet();
+    }
+
+    /**
+     * Return the keys that currently have at least one node
+     *
+     * @return unmodifiable, weakly consistent view of the keys
+     */
+    public Set<K> keySet()
+    {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Called by the cache (with its lock held) when a node changes
+     *
+     * @param oldData the previous node or null
+     * @param newData the new node or null
+     */
+    void update(TypedChildData<T> oldData, TypedChildData<T> newData)
+    {
+        if ( oldData != null )
+        {
+            K oldKey = keyExtractor.apply(oldData.getValue());
+            Set<TypedChildData<T>> entries = (oldKey != null) ? index.get(oldKey) : null;
+            if ( entries != null )
+            {
+                entries.remove(oldData);
+                if ( entries.isEmpty() )
+                {
+                    index.remove(oldKey);
+                }
+            }
+        }
+
+        if ( newData != null )
+        {
+            K newKey = keyExtractor.apply(newData.getValue());
+            if ( newKey != null )
+            {
+                Set<TypedChildData<T>> entries = index.get(newKey);
+                if ( entries == null )
+                {
+                    entries = Sets.newConcurrentHashSet();
+                    index.put(newKey, entries);
+                }
+                entries.add(newData);
+            }
+        }
+    }
+}
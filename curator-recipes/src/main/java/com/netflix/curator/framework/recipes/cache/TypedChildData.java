@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import org.apache.zookeeper.data.Stat;
+
+/**
+ * A node of a {@link TypedPathChildrenCache}: its path, stat and decoded value
+ */
+public class TypedChildData<T>
+{
+    private final String path;
+    private final Stat stat;
+    private final T value;
+
+    TypedChildData(String path, Stat stat, T value)
+    {
+        this.path = path;
+        this.stat = stat;
+        this.value = value;
+    }
+
+    /**
+     * Returns the full path of the this child
+     *
+     * @return full path
+     */
+    public String getPath()
+    {
+        return path;
+    }
+
+    /**
+     * Returns the stat data for this child
+     *
+     * @return stat
+     */
+    public Stat getStat()
+    {
+        return stat;
+    }
+
+    /**
+     * Returns the decoded value of this child's data
+     *
+     * @return value
+     */
+    public T getValue()
+    {
+        return value;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TypedChildData{" +
+            "path='" + path + '\'' +
+            ", stat=" + stat +
+            ", value=" + value +
+            '}';
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.netflix.curator.framework.CuratorFramework;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>A typed view of a {@link PathChildrenCache}. Each node's data is decoded once per version
+ * with the given {@link ChildDataDecoder}, and any number of secondary indexes (see {@link #addIndex(Function)})
+ * are updated as the nodes change.</p>
+ *
+ * <p>The typed view is updated by a listener that is added to the cache when this instance is
+ * created, so listeners that are added to the cache afterwards see the updated typed view.</p>
+ */
+public class TypedPathChildrenCache<T> implements Closeable
+{
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final PathChildrenCache cache;
+    private final ChildDataDecoder<T> decoder;
+    private final ConcurrentMap<String, TypedChildData<T>> currentData = Maps.newConcurrentMap();
+    private final List<TypedCacheIndex<?, T>> indexes = new CopyOnWriteArrayList<TypedCacheIndex<?, T>>();
+
+    private final PathChildrenCacheListener listener = new PathChildrenCacheListener()
+    {
+        @Override
+        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+        {
+            switch ( event.getType() )
+            {
+                case CHILD_ADDED:
+                case CHILD_UPDATED:
+                {
+                    put(event.getData());
+                    break;
+                }
+
+                case CHILD_REMOVED:
+                {
+                    remove(event.getData().getPath());
+                    break;
+                }
+            }
+        }
+    };
+
+    /**
+     * @param cache the cache to wrap - it should not be started yet. This instance takes ownership of it.
+     * @param decoder decoder for the node data
+     */
+    public TypedPathChildrenCache(PathChildrenCache cache, ChildDataDecoder<T> decoder)
+    {
+        this.cache = Preconditions.checkNotNull(cache, "cache cannot be null");
+        this.decoder = Preconditions.checkNotNull(decoder, "decoder cannot be null");
+        cache.getListenable().addListener(listener);
+    }
+
+    /**
+     * Start the cache
+     *
+     * @throws Exception errors
+     */
+    public void start() throws Exception
+    {
+        start(PathChildrenCache.StartMode.NORMAL);
+    }
+
+    /**
+     * Start the cache
+     *
+     * @param mode Method for priming the cache
+     * @throws Exception errors
+     */
+    public void start(PathChildrenCache.StartMode mode) throws Exception
+    {
+        cache.start(mode);
+
+        if ( mode == PathChildrenCache.StartMode.BUILD_INITIAL_CACHE )
+        {
+            // BUILD_INITIAL_CACHE doesn't generate events
+            sync();
+        }
+    }
+
+    /**
+     * NOTE: this is a BLOCKING method. Rebuild the wrapped cache (see {@link PathChildrenCache#rebuild()})
+     * and then bring the typed view and its indexes up to date with it.
+     *
+     * @throws Exception errors
+     */
+    public void rebuild() throws Exception
+    {
+        cache.rebuild();
+        sync();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        cache.close();
+    }
+
+    /**
+     * Return the wrapped cache. NOTE: {@link PathChildrenCache#rebuild()}, {@link PathChildrenCache#clear()},
+     * etc. don't generate events so calling them directly leaves the typed view out of sync with the
+     * wrapped cache. Use {@link #rebuild()} instead.
+     *
+     * @return cache
+     */
+    public PathChildrenCache getCache()
+    {
+        return cache;
+    }
+
+    /**
+     * Add a secondary index. The index maps the key extracted from each node's value to the
+     * nodes with that key. Nodes for which the extractor returns <code>null</code> are not indexed.
+     * The index is populated with the current nodes and then kept up to date as nodes change.
+     *
+     * @param keyExtractor extracts the index key from a node's value
+     * @return the index
+     */
+    public synchronized <K> TypedCacheIndex<K, T> addIndex(Function<T, K> keyExtractor)
+    {
+        TypedCacheIndex<K, T> index = new TypedCacheIndex<K, T>(Preconditions.checkNotNull(keyExtractor, "keyExtractor cannot be null"));
+        for ( TypedChildData<T> data : currentData.values() )
+        {
+            index.update(null, data);
+        }
+        indexes.add(index);
+        return index;
+    }
+
+    /**
+     * Return the current nodes. There are no guarantees of accuracy. This is
+     * merely the most recent view of the data.
+     *
+     * @return list of nodes
+     */
+    public List<TypedChildData<T>> getCurrentData()
+    {
+        return ImmutableList.copyOf(currentData.values());
+    }
+
+    /**
+     * Return the current node for the given path or <code>null</code>
+     *
+     * @param fullPath full path to the node to check
+     * @return node or null
+     */
+    public TypedChildData<T> getCurrentData(String fullPath)
+    {
+        return currentData.get(fullPath);
+    }
+
+    private synchronized void sync()
+    {
+        // the listener is already running. Holding the lock, each node is re-read from the cache so a node
+        // that was removed after the snapshot isn't re-added - any event that is still pending is applied afterwards
+        for ( ChildData data : cache.getCurrentData() )
+        {
+            ChildData current = cache.getCurrentData(data.getPath());
+            if ( current != null )
+            {
+                put(current);
+            }
+        }
+        for ( String path : currentData.keySet() )
+        {
+            if ( cache.getCurrentData(path) == null )
+            {
+                remove(path);
+            }
+        }
+    }
+
+    private synchronized void put(ChildData data)
+    {
+        String path = data.getPath();
+        TypedChildData<T> oldData = currentData.get(path);
+        if ( (oldData != null) && (oldData.getStat().getMzxid() >= data.getStat().getMzxid()) )
+        {
+            return; // this version (or a newer one) has already been decoded
+        }
+
+        T value;
+        try
+        {
+            value = decoder.decode(path, data.getData());
+        }
+        catch ( Exception e )
+        {
+            log.error("Could not decode data for: " + path, e);
+            remove(path);
+            return;
+        }
+
+        TypedChildData<T> newData = new TypedChildData<T>(path, data.getStat(), value);
+        currentData.put(path, newData);
+        for ( TypedCacheIndex<?, T> index : indexes )
+        {
+            index.update(oldData, newData);
+        }
+    }
+
+    private synchronized void remove(String path)
+    {
+        TypedChildData<T> oldData = currentData.remove(path);
+        if ( oldData != null )
+        {
+            for ( TypedCacheIndex<?, T> index : indexes )
+            {
+                index.update(oldData, null);
+            }
+        }
+    }
+}
@@ -53,7 +53,8 @@ public class DistributedDelayQueue<T> implements Closeable, QueueBase<T>
             String lockPath,
             int maxItems,
             boolean putInBackground,
-            int finalFlushMs
+            int finalFlushMs,
+            int batchSize
         )
     {
         Preconditions.checkArgument(minItemsBeforeRefresh >= 0, "minItemsBeforeRefresh cannot be negative");
@@ -71,7 +72,8 @@ public class DistributedDelayQueue<T> implements Closeable, QueueBase<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            batchSize
         )
         {
             protected long getDelay(String itemNode)
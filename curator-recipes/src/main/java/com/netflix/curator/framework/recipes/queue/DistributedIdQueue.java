@@ -65,10 +65,11 @@ public class DistributedIdQueue<T> implements QueueBase<T>
         String lockPath,
         int maxItems,
         boolean putInBackground,
-        int finalFlushMs
+        int finalFlushMs,
+        int batchSize
     )
     {
-        queue = new DistributedQueue<T>(client, consumer, serializer, queuePath, threadFactory, executor, minItemsBeforeRefresh, refreshOnWatch, lockPath, maxItems, putInBackground, finalFlushMs)
+        queue = new DistributedQueue<T>(client, consumer, serializer, queuePath, threadFactory, executor, minItemsBeforeRefresh, refreshOnWatch, lockPath, maxItems, putInBackground, finalFlushMs, batchSize)
         {
             @Override
             protected void sortChildren(List<String> children)
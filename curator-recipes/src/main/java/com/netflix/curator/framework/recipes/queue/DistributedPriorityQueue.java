@@ -48,7 +48,8 @@ public class DistributedPriorityQueue<T> implements Closeable, QueueBase<T>
             String lockPath,
             int maxItems,
             boolean putInBackground,
-            int finalFlushMs
+            int finalFlushMs,
+            int batchSize
         )
     {
         Preconditions.checkArgument(minItemsBeforeRefresh >= 0, "minItemsBeforeRefresh cannot be negative");
@@ -66,7 +67,8 @@ public class DistributedPriorityQueue<T> implements Closeable, QueueBase<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            batchSize
         );
     }
 
@@ -19,11 +19,18 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.netflix.curator.framework.CuratorFramework;
 import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.BulkResult;
 import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.framework.api.CuratorEventType;
+import com.netflix.curator.framework.api.transaction.CuratorTransaction;
+import com.netflix.curator.framework.api.transaction.CuratorTransactionFinal;
+import com.netflix.curator.framework.api.transaction.CuratorTransactionResult;
 import com.netflix.curator.framework.listen.ListenerContainer;
 import com.netflix.curator.framework.recipes.leader.LeaderSelector;
 import com.netflix.curator.utils.ZKPaths;
@@ -33,8 +40,11 @@ import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -79,8 +89,10 @@ public class DistributedQueue<T> implements QueueBase<T>
     private final int finalFlushMs;
     private final boolean putInBackground;
     private final ChildrenCache childrenCache;
+    private final int batchSize;
 
     private final AtomicInteger     putCount = new AtomicInteger(0);
+    private final Set<String>       releasingItems = Sets.newConcurrentHashSet();
 
     private enum State
     {
@@ -113,6 +125,26 @@ public class DistributedQueue<T> implements QueueBase<T>
             boolean putInBackground,
             int finalFlushMs
         )
+    {
+        this(client, consumer, serializer, queuePath, threadFactory, executor, minItemsBeforeRefresh, refreshOnWatch, lockPath, maxItems, putInBackground, finalFlushMs, 1);
+    }
+
+    DistributedQueue
+        (
+            CuratorFramework client,
+            QueueConsumer<T> consumer,
+            QueueSerializer<T> serializer,
+            String queuePath,
+            ThreadFactory threadFactory,
+            Executor executor,
+            int minItemsBeforeRefresh,
+            boolean refreshOnWatch,
+            String lockPath,
+            int maxItems,
+            boolean putInBackground,
+            int finalFlushMs,
+            int batchSize
+        )
     {
         Preconditions.checkNotNull(client, "client cannot be null");
         Preconditions.checkNotNull(serializer, "serializer cannot be null");
@@ -120,6 +152,8 @@ public class DistributedQueue<T> implements QueueBase<T>
         Preconditions.checkNotNull(threadFactory, "threadFactory cannot be null");
         Preconditions.checkNotNull(executor, "executor cannot be null");
         Preconditions.checkArgument(maxItems > 0, "maxItems must be a positive number");
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be a positive number");
+        Preconditions.checkArgument((batchSize == 1) || (lockPath == null), "batchSize cannot be used with a lockPath");
 
         isProducerOnly = (consumer == null);
         this.lockPath = lockPath;
@@ -133,6 +167,7 @@ public class DistributedQueue<T> implements QueueBase<T>
         this.executor = executor;
         this.maxItems = maxItems;
         this.finalFlushMs = finalFlushMs;
+        this.batchSize = batchSize;
         service = Executors.newFixedThreadPool(2, threadFactory);
         childrenCache = new ChildrenCache(client, queuePath);
 
@@ -537,6 +572,11 @@ public class DistributedQueue<T> implements QueueBase<T>
             {
                 ChildrenCache.Data      data = (maxWaitMs > 0) ? childrenCache.blockingNextGetData(currentVersion, maxWaitMs, TimeUnit.MILLISECONDS) : childrenCache.blockingNextGetData(currentVersion);
                 currentVersion = data.version;
+                if ( releasingItems.size() > 0 )
+                {
+                    // items stay marked until the children cache no longer sees them
+                    releasingItems.retainAll(Sets.newHashSet(data.children));
+                }
 
                 List<String>        children = Lists.newArrayList(data.children);
                 sortChildren(children); // makes sure items are processed in the correct order
@@ -572,11 +612,14 @@ public class DistributedQueue<T> implements QueueBase<T>
         final Semaphore processedLatch = new Semaphore(0);
         final boolean   isUsingLockSafety = (lockPath != null);
         int             min = minItemsBeforeRefresh;
+        List<String>    batch = Lists.newArrayList();
+        boolean         stoppedEarly = false;
         for ( final String itemNode : children )
         {
             if ( Thread.currentThread().isInterrupted() )
             {
                 processedLatch.release(children.size());
+                stoppedEarly = true;
                 break;
             }
 
@@ -592,6 +635,7 @@ public class DistributedQueue<T> implements QueueBase<T>
                 if ( refreshOnWatch && (currentVersion != childrenCache.getData().version) )
                 {
                     processedLatch.release(children.size());
+                    stoppedEarly = true;
                     break;
                 }
             }
@@ -602,6 +646,24 @@ public class DistributedQueue<T> implements QueueBase<T>
                 continue;
             }
 
+            if ( releasingItems.contains(itemNode) )
+            {
+                // already processed - the transaction that removes it is in flight or not yet seen by the cache
+                processedLatch.release();
+                continue;
+            }
+
+            if ( batchSize > 1 )
+            {
+                batch.add(itemNode);
+                if ( batch.size() >= batchSize )
+                {
+                    executeBatch(batch, processedLatch);
+                    batch = Lists.newArrayList();
+                }
+                continue;
+            }
+
             executor.execute
             (
                 new Runnable()
@@ -633,9 +695,163 @@ public class DistributedQueue<T> implements QueueBase<T>
             );
         }
 
+        if ( !stoppedEarly && (batch.size() > 0) )
+        {
+            // flush the trailing partial batch - after an early exit its items are left for the next pass
+            executeBatch(batch, processedLatch);
+        }
+
         processedLatch.acquire(children.size());
     }
 
+    private void executeBatch(final List<String> itemNodes, final Semaphore processedLatch)
+    {
+        executor.execute
+        (
+            new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        processBatch(itemNodes);
+                    }
+                    catch ( Exception e )
+                    {
+                        log.error("Error processing messages at " + itemNodes, e);
+                    }
+                    finally
+                    {
+                        processedLatch.release(itemNodes.size());
+                    }
+                }
+            }
+        );
+    }
+
+    private void processBatch(List<String> itemNodes) throws Exception
+    {
+        List<String>        itemPaths = Lists.newArrayListWithCapacity(itemNodes.size());
+        for ( String itemNode : itemNodes )
+        {
+            itemPaths.add(ZKPaths.makePath(queuePath, itemNode));
+        }
+
+        // the reads are pipelined
+        Map<String, BulkResult<byte[]>>     results = client.getData().forPaths(itemPaths);
+        List<BulkResult<byte[]>>            items = Lists.newArrayList();
+        for ( BulkResult<byte[]> result : results.values() )
+        {
+            if ( result.isSuccess() )
+            {
+                items.add(result);
+            }
+            else if ( !(result.getError() instanceof KeeperException.NoNodeException) )
+            {
+                // NoNode means another process got it
+                throw result.getError();
+            }
+        }
+        if ( (items.size() == 0) || !client.isStarted() )
+        {
+            return;
+        }
+
+        List<T>     messages = Lists.newArrayList();
+        for ( BulkResult<byte[]> item : removeItems(items) )
+        {
+            String  itemNode = ZKPaths.getNodeFromPath(item.getPath());
+            try
+            {
+                MultiItem<T>    multiItem = ItemSerializer.deserialize(item.getValue(), serializer);
+                for ( T message = multiItem.nextItem(); message != null; message = multiItem.nextItem() )
+                {
+                    messages.add(message);
+                }
+            }
+            catch ( Throwable e )
+            {
+                log.error("Corrupted queue item: " + itemNode, e);
+            }
+        }
+
+        if ( consumer instanceof QueueBatchConsumer )
+        {
+            try
+            {
+                ((QueueBatchConsumer<T>)consumer).consumeMessages(messages);
+            }
+            catch ( Throwable e )
+            {
+                log.error("Exception processing queue items: " + itemNodes, e);
+            }
+        }
+        else
+        {
+            for ( T message : messages )
+            {
+                try
+                {
+                    consumer.consumeMessage(message);
+                }
+                catch ( Throwable e )
+                {
+                    log.error("Exception processing queue item", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the given items from the queue. A single transaction is tried first. If it fails
+     * (i.e. another process took one of the items) the items are removed individually.
+     *
+     * @param items the items read from the queue
+     * @return the items that were removed by this process
+     * @throws Exception errors
+     */
+    private List<BulkResult<byte[]>> removeItems(List<BulkResult<byte[]>> items) throws Exception
+    {
+        CuratorTransaction  transaction = client.inTransaction();
+        for ( BulkResult<byte[]> item : items )
+        {
+            transaction = transaction.delete().withVersion(item.getStat().getVersion()).forPath(item.getPath()).and();
+        }
+        try
+        {
+            ((CuratorTransactionFinal)transaction).commit();
+            return items;
+        }
+        catch ( KeeperException.NoNodeException ignore )
+        {
+            // another process got at least one of the items
+        }
+        catch ( KeeperException.BadVersionException ignore )
+        {
+            // another process got at least one of the items
+        }
+
+        List<BulkResult<byte[]>>    removed = Lists.newArrayList();
+        for ( BulkResult<byte[]> item : items )
+        {
+            try
+            {
+                client.delete().withVersion(item.getStat().getVersion()).forPath(item.getPath());
+                removed.add(item);
+            }
+            catch ( KeeperException.NoNodeException ignore )
+            {
+                // another process got it
+            }
+            catch ( KeeperException.BadVersionException ignore )
+            {
+                // another process got it
+            }
+        }
+        return removed;
+    }
+
     private enum ProcessMessageBytesCode
     {
         NORMAL,
@@ -740,14 +956,10 @@ public class DistributedQueue<T> implements QueueBase<T>
                 requeue = (processMessageBytes(itemNode, bytes) == ProcessMessageBytesCode.REQUEUE);
             }
 
-            if ( requeue )
+            if ( type == ProcessType.NORMAL )
             {
-                client.inTransaction()
-                    .delete().forPath(itemPath)
-                    .and()
-                    .create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(itemPath, bytes)
-                    .and()
-                    .commit();
+                releaseInBackground(itemNode, itemPath, lockNodePath, requeue ? bytes : null);
+                lockCreated = false;    // the lock is deleted by the release transaction
             }
             else
             {
@@ -778,4 +990,53 @@ public class DistributedQueue<T> implements QueueBase<T>
 
         return false;
     }
+
+    private void releaseInBackground(final String itemNode, String itemPath, final String lockNodePath, byte[] requeueBytes) throws Exception
+    {
+        // delete the item (requeueing it if needed) and its lock as an atomic unit without blocking the consumer thread
+        CuratorTransactionFinal     transaction = client.inTransaction().delete().forPath(itemPath).and();
+        if ( requeueBytes != null )
+        {
+            transaction = transaction.create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(itemPath, requeueBytes).and();
+        }
+        transaction = transaction.delete().forPath(lockNodePath).and();
+
+        releasingItems.add(itemNode);
+        Futures.addCallback
+        (
+            transaction.commitAsync(),
+            new FutureCallback<Collection<CuratorTransactionResult>>()
+            {
+                @Override
+                public void onSuccess(Collection<CuratorTransactionResult> result)
+                {
+                    // leave the item marked - runLoop() unmarks it once the children cache no longer contains it
+                }
+
+                @Override
+                public void onFailure(Throwable e)
+                {
+                    try
+                    {
+                        if ( !(e instanceof KeeperException.NoNodeException) )
+                        {
+                            log.error("Could not release queue item: " + itemNode, e);
+                        }
+                        if ( client.isStarted() )
+                        {
+                            client.delete().guaranteed().inBackground().forPath(lockNodePath);
+                        }
+                    }
+                    catch ( Exception deleteException )
+                    {
+                        log.error("Could not delete lock node: " + lockNodePath, deleteException);
+                    }
+                    finally
+                    {
+                        releasingItems.remove(itemNode);
+                    }
+                }
+            }
+        );
+    }
 }
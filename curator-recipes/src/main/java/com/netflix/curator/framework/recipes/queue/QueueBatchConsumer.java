@@ -0,0 +1,35 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.queue;
+
+import java.util.List;
+
+/**
+ * Message consumer that is given messages in batches when the queue is built with
+ * {@link QueueBuilder#batchSize(int)}
+ */
+public interface QueueBatchConsumer<T> extends QueueConsumer<T>
+{
+    /**
+     * Process a batch of messages from the queue. The messages are in queue order.
+     *
+     * @param messages messages to process
+     * @throws Exception any errors
+     */
+    public void         consumeMessages(List<T> messages) throws Exception;
+}
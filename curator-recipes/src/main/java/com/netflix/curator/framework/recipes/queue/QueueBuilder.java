@@ -41,6 +41,7 @@ public class QueueBuilder<T>
     private int maxItems = NOT_SET;
     private boolean putInBackground = true;
     private int finalFlushMs = 5000;
+    private int batchSize = 1;
 
     static final ThreadFactory  defaultThreadFactory = ThreadUtils.newThreadFactory("QueueBuilder");
 
@@ -81,7 +82,8 @@ public class QueueBuilder<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            batchSize
         );
     }
 
@@ -105,7 +107,8 @@ public class QueueBuilder<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            batchSize
         );
     }
 
@@ -142,7 +145,8 @@ public class QueueBuilder<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            batchSize
         );
     }
 
@@ -165,7 +169,8 @@ public class QueueBuilder<T>
             lockPath,
             maxItems,
             putInBackground,
-            finalFlushMs
+            finalFlushMs,
+            batchSize
         );
     }
 
@@ -258,6 +263,28 @@ public class QueueBuilder<T>
         return this;
     }
 
+    /**
+     * <p>By default, each queue item is read and removed with its own round trips. With a batch size greater
+     * than 1, consumers take up to <code>batchSize</code> items at a time: the items are read with pipelined
+     * requests and removed with a single transaction (if the transaction fails because another process took some
+     * of the items, the items are removed individually). If the consumer is a {@link QueueBatchConsumer} the
+     * messages are passed to {@link QueueBatchConsumer#consumeMessages(java.util.List)}, otherwise
+     * {@link QueueConsumer#consumeMessage(Object)} is called for each message.</p>
+     *
+     * <p>As with queues without a lock, items are removed before they are sent to the consumer. Batching
+     * cannot be combined with {@link #lockPath(String)}.</p>
+     *
+     * @param batchSize max number of items to take at a time
+     * @return this
+     */
+    public QueueBuilder<T>  batchSize(int batchSize)
+    {
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be greater than 0");
+
+        this.batchSize = batchSize;
+        return this;
+    }
+
     private QueueBuilder(CuratorFramework client, QueueConsumer<T> consumer, QueueSerializer<T> serializer, String queuePath)
     {
         this.client = client;
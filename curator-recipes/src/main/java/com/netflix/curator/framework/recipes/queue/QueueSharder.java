@@ -24,6 +24,7 @@ import com.google.common.collect.Sets;
 import com.google.common.io.Closeables;
 import com.netflix.curator.framework.CuratorFramework;
 import com.netflix.curator.framework.recipes.leader.LeaderLatch;
+import com.netflix.curator.utils.CloseableExecutorService;
 import com.netflix.curator.utils.ZKPaths;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
@@ -35,10 +36,9 @@ import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -72,7 +72,16 @@ public class QueueSharder<U, T extends QueueBase<U>> implements Closeable
     private final AtomicReference<State>    state = new AtomicReference<State>(State.LATENT);
     private final LeaderLatch               leaderLatch;
     private final Random                    random = new Random();
-    private final ExecutorService           service;
+    private final CloseableExecutorService  service;
+    private final Runnable                  thresholdCheckTask = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            checkThreshold();
+            scheduleThresholdCheck();
+        }
+    };
 
     private static final String         QUEUE_PREFIX = "queue-";
 
@@ -97,7 +106,14 @@ public class QueueSharder<U, T extends QueueBase<U>> implements Closeable
         this.queuePath = queuePath;
         this.policies = policies;
         leaderLatch = new LeaderLatch(client, leaderPath);
-        service = Executors.newSingleThreadExecutor(policies.getThreadFactory());
+        if ( policies.getExecutorService() != null )
+        {
+            service = new CloseableExecutorService(policies.getExecutorService().getExecutorService(), false);
+        }
+        else
+        {
+            service = new CloseableExecutorService(Executors.newSingleThreadExecutor(policies.getThreadFactory()), true);
+        }
     }
 
     /**
@@ -114,29 +130,7 @@ public class QueueSharder<U, T extends QueueBase<U>> implements Closeable
         getInitialQueues();
         leaderLatch.start();
 
-        service.submit
-        (
-            new Callable<Void>()
-            {
-                @Override
-                public Void call() throws Exception
-                {
-                    try
-                    {
-                        while ( !Thread.currentThread().isInterrupted() && (state.get() == State.STARTED) )
-                        {
-                            Thread.sleep(policies.getThresholdCheckMs());
-                            checkThreshold();
-                        }
-                    }
-                    catch ( InterruptedException e )
-                    {
-                        Thread.currentThread().interrupt();
-                    }
-                    return null;
-                }
-            }
-        );
+        scheduleThresholdCheck();
     }
 
     @Override
@@ -144,7 +138,7 @@ public class QueueSharder<U, T extends QueueBase<U>> implements Closeable
     {
         if ( state.compareAndSet(State.STARTED, State.CLOSED) )
         {
-            service.shutdownNow();
+            service.close();
 			try {
 				Closeables.close(leaderLatch, true);
 			} catch (IOException e) {
@@ -240,6 +234,21 @@ public class QueueSharder<U, T extends QueueBase<U>> implements Closeable
         }
     }
 
+    private void scheduleThresholdCheck()
+    {
+        if ( state.get() == State.STARTED )
+        {
+            try
+            {
+                service.schedule(thresholdCheckTask, policies.getThresholdCheckMs(), TimeUnit.MILLISECONDS);
+            }
+            catch ( RuntimeException e )
+            {
+                // the sharder was closed in the meantime
+            }
+        }
+    }
+
     private void checkThreshold()
     {
         try
@@ -17,6 +17,7 @@
 package com.netflix.curator.framework.recipes.queue;
 
 import com.google.common.base.Preconditions;
+import com.netflix.curator.utils.CloseableExecutorService;
 import java.util.concurrent.ThreadFactory;
 
 /**
@@ -29,6 +30,7 @@ public class QueueSharderPolicies
     private int           thresholdCheckMs;
     private int           maxQueues;
     private ThreadFactory threadFactory;
+    private CloseableExecutorService executorService;
 
     private static final int       DEFAULT_QUEUE_THRESHOLD = 10000;
     private static final int       DEFAULT_THRESHOLD_CHECK_MS = 30000;
@@ -94,6 +96,20 @@ public class QueueSharderPolicies
             return this;
         }
 
+        /**
+         * Run the sharder's threshold checks on the given executor instead of an internal thread. A single
+         * executor can be shared by many sharders. Closing the sharder cancels only its own tasks - the
+         * executor is neither closed nor shut down. If set, the thread factory is not used.
+         *
+         * @param executorService (possibly shared) executor
+         * @return this
+         */
+        public Builder executorService(CloseableExecutorService executorService)
+        {
+            policies.executorService = Preconditions.checkNotNull(executorService, "executorService cannot be null");
+            return this;
+        }
+
         public QueueSharderPolicies     build()
         {
             try
@@ -141,6 +157,11 @@ public class QueueSharderPolicies
         return threadFactory;
     }
 
+    CloseableExecutorService getExecutorService()
+    {
+        return executorService;
+    }
+
     private QueueSharderPolicies()
     {
         this.newQueueThreshold = DEFAULT_QUEUE_THRESHOLD;
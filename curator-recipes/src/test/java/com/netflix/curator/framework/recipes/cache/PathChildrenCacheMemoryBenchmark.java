@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.CuratorFrameworkFactory;
+import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.CuratorEvent;
+import com.netflix.curator.retry.RetryOneTime;
+import com.netflix.curator.test.TestingServer;
+import com.netflix.curator.utils.ZKPaths;
+import org.apache.zookeeper.data.Stat;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares the heap retained by a {@link PathChildrenCache} using standard storage and
+ * compact storage. The cache figures include the client's (and the in-process server's) watch tables -
+ * the storage figures are just the cached entries. Not run as part of the tests.
+ * Usage: <code>PathChildrenCacheMemoryBenchmark [nodeQty] [parentPath]</code>
+ */
+public class PathChildrenCacheMemoryBenchmark
+{
+    public static void main(String[] args) throws Exception
+    {
+        int nodeQty = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+        String parentPath = (args.length > 1) ? args[1] : "/test";
+
+        TestingServer server = new TestingServer();
+        try
+        {
+            createNodes(server, parentPath, nodeQty);
+
+            System.out.println(String.format("Nodes: %d under %s", nodeQty, parentPath));
+            measureStorage(parentPath, nodeQty, "storage: standard", null);
+            measureStorage(parentPath, nodeQty, "storage: compact (version, mzxid)", new StatField[]{StatField.VERSION, StatField.MZXID});
+            measureStorage(parentPath, nodeQty, "storage: compact (all stat fields)", StatField.values());
+            measure(server, parentPath, nodeQty, "cache: standard", null);
+            measure(server, parentPath, nodeQty, "cache: compact (version, mzxid)", new StatField[0]);
+            measure(server, parentPath, nodeQty, "cache: compact (all stat fields)", StatField.values());
+        }
+        finally
+        {
+            Closeables.close(server, true);
+        }
+    }
+
+    private static void createNodes(TestingServer server, String parentPath, int nodeQty) throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        client.create().creatingParentsIfNeeded().forPath(parentPath);
+
+        final CountDownLatch latch = new CountDownLatch(nodeQty);
+        BackgroundCallback callback = new BackgroundCallback()
+        {
+            @Override
+            public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+            {
+                latch.countDown();
+            }
+        };
+        for ( int i = 0; i < nodeQty; ++i )
+        {
+            client.create().inBackground(callback).forPath(ZKPaths.makePath(parentPath, String.format("node-%010d", i)), "data".getBytes());
+        }
+        latch.await();
+        client.close();
+    }
+
+    private static void measure(TestingServer server, String parentPath, int nodeQty, String name, StatField[] compactStatFields) throws Exception
+    {
+        // each mode gets its own client so that ZooKeeper's watch tables from a previous run aren't counted
+        long before = usedHeap();
+
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        PathChildrenCache cache = new PathChildrenCache(client, parentPath, true);
+        if ( compactStatFields != null )
+        {
+            cache.useCompactStorage(compactStatFields);
+        }
+        cache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+
+        long after = usedHeap();
+        System.out.println(String.format("%-40s %8d bytes/node", name, (after - before) / nodeQty));
+
+        cache.close();
+        client.close();
+    }
+
+    private static void measureStorage(String parentPath, int nodeQty, String name, StatField[] compactStatFields) throws Exception
+    {
+        long before = usedHeap();
+
+        Map<String, ChildData> storage = Maps.newConcurrentMap();
+        for ( int i = 0; i < nodeQty; ++i )
+        {
+            String nodeName = String.format("node-%010d", i);
+            Stat stat = new Stat(i, i, i, i, 0, 0, 0, 0, 4, 0, i);
+            if ( compactStatFields != null )
+            {
+                storage.put(nodeName, new CompactChildData(parentPath, nodeName, compactStatFields, stat, "data".getBytes()));
+            }
+            else
+            {
+                String fullPath = ZKPaths.makePath(parentPath, nodeName);
+                storage.put(fullPath, new ChildData(fullPath, stat, "data".getBytes()));
+            }
+        }
+
+        long after = usedHeap();
+        System.out.println(String.format("%-40s %8d bytes/node", name, (after - before) / storage.size()));
+    }
+
+    private static long usedHeap() throws InterruptedException
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for ( int i = 0; i < 5; ++i )
+        {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
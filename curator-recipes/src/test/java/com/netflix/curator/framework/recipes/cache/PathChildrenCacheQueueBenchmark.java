@@ -0,0 +1,197 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.io.Closeables;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.CuratorFrameworkFactory;
+import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.CuratorEvent;
+import com.netflix.curator.retry.RetryOneTime;
+import com.netflix.curator.test.TestingServer;
+import com.netflix.curator.utils.ZKPaths;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PathChildrenCache} operation/event throughput with large backlogs. The queue section
+ * compares de-duplicating by scanning the queue (the previous implementation) with {@link OperationQueue}
+ * while refresh and get-data operations are offered on top of a backlog (the timing includes draining
+ * the queue). The cache section times a storm of updates to every child until all CHILD_UPDATED events
+ * are received. Not run as part of the tests.
+ * Usage: <code>PathChildrenCacheQueueBenchmark [nodeQty] [parentPath]</code>
+ */
+public class PathChildrenCacheQueueBenchmark
+{
+    private static final int OFFER_QTY = 5000;
+
+    public static void main(String[] args) throws Exception
+    {
+        int nodeQty = (args.length > 0) ? Integer.parseInt(args[0]) : 10000;
+        String parentPath = (args.length > 1) ? args[1] : "/test";
+
+        for ( int backlog : new int[]{1000, 10000, 100000} )
+        {
+            measureScanningQueue(parentPath, backlog);
+            measureOperationQueue(parentPath, backlog);
+        }
+
+        TestingServer server = new TestingServer();
+        try
+        {
+            measureCache(server, parentPath, nodeQty);
+        }
+        finally
+        {
+            Closeables.close(server, true);
+        }
+    }
+
+    private static void measureScanningQueue(String parentPath, int backlog)
+    {
+        Queue<Operation> queue = new LinkedBlockingQueue<Operation>();
+        for ( int i = 0; i < backlog; ++i )
+        {
+            queue.offer(new GetDataOperation(null, ZKPaths.makePath(parentPath, "node-" + i)));
+        }
+
+        Random random = new Random(1);
+        long start = System.nanoTime();
+        for ( int i = 0; i < OFFER_QTY; ++i )
+        {
+            Operation operation = nextOperation(random, parentPath, backlog);
+            queue.remove(operation);
+            queue.offer(operation);
+        }
+        while ( queue.poll() != null )
+        {
+            // drain
+        }
+        report("queue: scanning", backlog, System.nanoTime() - start);
+    }
+
+    private static void measureOperationQueue(String parentPath, int backlog)
+    {
+        OperationQueue queue = new OperationQueue();
+        for ( int i = 0; i < backlog; ++i )
+        {
+            queue.offer(new GetDataOperation(null, ZKPaths.makePath(parentPath, "node-" + i)));
+        }
+
+        Random random = new Random(1);
+        long start = System.nanoTime();
+        for ( int i = 0; i < OFFER_QTY; ++i )
+        {
+            queue.offer(nextOperation(random, parentPath, backlog));
+        }
+        while ( queue.poll() != null )
+        {
+            // drain
+        }
+        report("queue: coalescing", backlog, System.nanoTime() - start);
+    }
+
+    private static Operation nextOperation(Random random, String parentPath, int backlog)
+    {
+        // a watch storm - children watches (refreshes) mixed with data watches for queued and new paths
+        if ( random.nextBoolean() )
+        {
+            return new RefreshOperation(null, PathChildrenCache.RefreshMode.STANDARD);
+        }
+        return new GetDataOperation(null, ZKPaths.makePath(parentPath, "node-" + random.nextInt(backlog * 2)));
+    }
+
+    private static void report(String name, int backlog, long elapsedNs)
+    {
+        double seconds = elapsedNs / 1000000000.0;
+        System.out.println(String.format("%-20s backlog %7d: %12.0f offers/sec", name, backlog, OFFER_QTY / seconds));
+    }
+
+    private static void measureCache(TestingServer server, String parentPath, int nodeQty) throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().creatingParentsIfNeeded().forPath(parentPath);
+            runInBackground(client, parentPath, nodeQty, true);
+
+            final CountDownLatch updatedLatch = new CountDownLatch(nodeQty);
+            PathChildrenCache cache = new PathChildrenCache(client, parentPath, true);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            if ( event.getType() == PathChildrenCacheEvent.Type.CHILD_UPDATED )
+                            {
+                                updatedLatch.countDown();
+                            }
+                        }
+                    }
+                );
+            cache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+
+            long start = System.nanoTime();
+            runInBackground(client, parentPath, nodeQty, false);
+            if ( !updatedLatch.await(5, TimeUnit.MINUTES) )
+            {
+                System.out.println("Timed out waiting for CHILD_UPDATED events");
+            }
+            double seconds = (System.nanoTime() - start) / 1000000000.0;
+            System.out.println(String.format("%-20s nodes %9d: %12.0f events/sec", "cache: update storm", nodeQty, (nodeQty - updatedLatch.getCount()) / seconds));
+
+            cache.close();
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    private static void runInBackground(CuratorFramework client, String parentPath, int nodeQty, boolean create) throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(nodeQty);
+        BackgroundCallback callback = new BackgroundCallback()
+        {
+            @Override
+            public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+            {
+                latch.countDown();
+            }
+        };
+        for ( int i = 0; i < nodeQty; ++i )
+        {
+            String path = ZKPaths.makePath(parentPath, "node-" + i);
+            if ( create )
+            {
+                client.create().inBackground(callback).forPath(path, "data".getBytes());
+            }
+            else
+            {
+                client.setData().inBackground(callback).forPath(path, "changed".getBytes());
+            }
+        }
+        latch.await();
+    }
+}
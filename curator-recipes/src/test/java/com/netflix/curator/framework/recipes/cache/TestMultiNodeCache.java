@@ -0,0 +1,149 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.io.Closeables;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.CuratorFrameworkFactory;
+import com.netflix.curator.framework.recipes.BaseClassForTests;
+import com.netflix.curator.retry.RetryOneTime;
+import com.netflix.curator.test.Timing;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class TestMultiNodeCache extends BaseClassForTests
+{
+    @Test
+    public void     testBasics() throws Exception
+    {
+        Timing              timing = new Timing();
+        MultiNodeCache      cache = null;
+        CuratorFramework    client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().creatingParentsIfNeeded().forPath("/test/a", "a".getBytes());
+            client.create().forPath("/test/b", "b".getBytes());
+
+            final BlockingQueue<String>     changes = new LinkedBlockingQueue<String>();
+            cache = new MultiNodeCache(client);
+            cache.getListenable().addListener
+            (
+                new MultiNodeCacheListener()
+                {
+                    @Override
+                    public void nodeChanged(String path) throws Exception
+                    {
+                        changes.add(path);
+                    }
+                }
+            );
+            cache.addPath("/test/a");
+            cache.addPath("/test/b");
+            cache.addPath("/test/c");
+            cache.start(true);
+
+            Assert.assertEquals(cache.getCurrentData("/test/a").getData(), "a".getBytes());
+            Assert.assertEquals(cache.getCurrentData("/test/b").getData(), "b".getBytes());
+            Assert.assertNull(cache.getCurrentData("/test/c"));
+
+            client.setData().forPath("/test/a", "a2".getBytes());
+            Assert.assertEquals(changes.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), "/test/a");
+            Assert.assertEquals(cache.getCurrentData("/test/a").getData(), "a2".getBytes());
+
+            client.create().forPath("/test/c", "c".getBytes());
+            Assert.assertEquals(changes.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), "/test/c");
+            Assert.assertEquals(cache.getCurrentData("/test/c").getData(), "c".getBytes());
+
+            client.delete().forPath("/test/b");
+            Assert.assertEquals(changes.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), "/test/b");
+            Assert.assertNull(cache.getCurrentData("/test/b"));
+
+            // removed paths are no longer cached or reported
+            cache.removePath("/test/a");
+            Assert.assertNull(cache.getCurrentData("/test/a"));
+            client.setData().forPath("/test/a", "a3".getBytes());
+
+            // paths can be added at runtime
+            client.create().forPath("/test/d", "d".getBytes());
+            cache.addPath("/test/d");
+            Assert.assertEquals(changes.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), "/test/d");
+            Assert.assertEquals(cache.getCurrentData("/test/d").getData(), "d".getBytes());
+            Assert.assertNull(changes.poll(timing.multiple(.25).milliseconds(), TimeUnit.MILLISECONDS));
+            Assert.assertEquals(cache.getPaths().size(), 3);
+        }
+        finally
+        {
+            Closeables.close(cache, true);
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void     testManyPaths() throws Exception
+    {
+        final int           PATH_QTY = 500;
+
+        Timing              timing = new Timing();
+        MultiNodeCache      cache = null;
+        CuratorFramework    client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().forPath("/test");
+            for ( int i = 0; i < PATH_QTY; ++i )
+            {
+                client.create().forPath("/test/" + i, Integer.toString(i).getBytes());
+            }
+
+            final CountDownLatch    loadedLatch = new CountDownLatch(PATH_QTY);
+            cache = new MultiNodeCache(client);
+            cache.getListenable().addListener
+            (
+                new MultiNodeCacheListener()
+                {
+                    @Override
+                    public void nodeChanged(String path) throws Exception
+                    {
+                        loadedLatch.countDown();
+                    }
+                }
+            );
+            cache.start();
+            for ( int i = 0; i < PATH_QTY; ++i )
+            {
+                cache.addPath("/test/" + i);
+            }
+            Assert.assertTrue(timing.awaitLatch(loadedLatch));
+
+            for ( int i = 0; i < PATH_QTY; ++i )
+            {
+                Assert.assertEquals(cache.getCurrentData("/test/" + i).getData(), Integer.toString(i).getBytes());
+            }
+        }
+        finally
+        {
+            Closeables.close(cache, true);
+            Closeables.close(client, true);
+        }
+    }
+}
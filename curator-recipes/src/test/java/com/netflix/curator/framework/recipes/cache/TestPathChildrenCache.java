@@ -16,19 +16,31 @@
 package com.netflix.curator.framework.recipes.cache;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.io.Closeables;
+import com.netflix.curator.drivers.TracerDriver;
 import com.netflix.curator.framework.CuratorFramework;
 import com.netflix.curator.framework.CuratorFrameworkFactory;
+import com.netflix.curator.framework.api.BackgroundCallback;
+import com.netflix.curator.framework.api.CuratorEvent;
 import com.netflix.curator.framework.api.UnhandledErrorListener;
 import com.netflix.curator.framework.recipes.BaseClassForTests;
 import com.netflix.curator.retry.RetryOneTime;
 import com.netflix.curator.test.KillSession;
+import com.netflix.curator.test.TestingServer;
 import com.netflix.curator.test.Timing;
+import com.netflix.curator.utils.CloseableExecutorService;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -71,6 +83,69 @@ public class TestPathChildrenCache extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testPostInitializedScale() throws Exception
+    {
+        final int CHILD_QTY = 20000;
+
+        Timing timing = new Timing();
+        PathChildrenCache cache = null;
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+
+            client.create().forPath("/test");
+            final Semaphore createdSemaphore = new Semaphore(0);
+            BackgroundCallback createdCallback = new BackgroundCallback()
+            {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception
+                {
+                    createdSemaphore.release();
+                }
+            };
+            for ( int i = 0; i < CHILD_QTY; ++i )
+            {
+                client.create().inBackground(createdCallback).forPath(String.format("/test/child-%05d", i));
+            }
+            Assert.assertTrue(createdSemaphore.tryAcquire(CHILD_QTY, timing.forWaiting().seconds() * 6, TimeUnit.SECONDS));
+
+            final BlockingQueue<PathChildrenCacheEvent> initializedEvent = new LinkedBlockingQueue<PathChildrenCacheEvent>();
+            final AtomicInteger addedCount = new AtomicInteger();
+            cache = new PathChildrenCache(client, "/test", true);
+            cache.getListenable().addListener
+            (
+                new PathChildrenCacheListener()
+                {
+                    @Override
+                    public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                    {
+                        if ( event.getType() == PathChildrenCacheEvent.Type.CHILD_ADDED )
+                        {
+                            addedCount.incrementAndGet();
+                        }
+                        else if ( event.getType() == PathChildrenCacheEvent.Type.INITIALIZED )
+                        {
+                            initializedEvent.offer(event);
+                        }
+                    }
+                }
+            );
+
+            cache.start(PathChildrenCache.StartMode.POST_INITIALIZED_EVENT);
+            PathChildrenCacheEvent event = initializedEvent.poll(timing.forWaiting().seconds() * 3, TimeUnit.SECONDS);
+            Assert.assertNotNull(event, "INITIALIZED was not posted");
+            Assert.assertEquals(event.getInitialData().size(), CHILD_QTY);
+            Assert.assertEquals(addedCount.get(), CHILD_QTY);
+        }
+        finally
+        {
+            Closeables.close(cache, true);
+            Closeables.close(client, true);
+        }
+    }
+
     @Test
     public void testAsyncInitialPopulation() throws Exception
     {
@@ -314,6 +389,57 @@ public class TestPathChildrenCache extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testPipelinedRebuild() throws Exception
+    {
+        final int CHILD_QTY = 500;
+
+        Timing timing = new Timing();
+        PathChildrenCache cache = null;
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        try
+        {
+            client.start();
+
+            client.create().forPath("/test");
+            for ( int i = 0; i < CHILD_QTY; ++i )
+            {
+                client.create().compressed().forPath("/test/" + i, Integer.toString(i).getBytes());
+            }
+
+            final AtomicInteger eventCount = new AtomicInteger();
+            cache = new PathChildrenCache(client, "/test", true, true, Executors.newSingleThreadExecutor());
+            cache.getListenable().addListener
+            (
+                new PathChildrenCacheListener()
+                {
+                    @Override
+                    public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                    {
+                        eventCount.incrementAndGet();
+                    }
+                }
+            );
+            cache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+            Assert.assertEquals(cache.getCurrentData().size(), CHILD_QTY);
+            Assert.assertEquals(cache.getCurrentData("/test/123").getData(), "123".getBytes());
+
+            timing.sleepABit();
+            Assert.assertEquals(eventCount.get(), 0);   // rebuilds don't generate events
+
+            client.delete().forPath("/test/0");
+            cache.rebuild(5);
+            Assert.assertEquals(cache.getCurrentData().size(), CHILD_QTY - 1);
+            Assert.assertNull(cache.getCurrentData("/test/0"));
+            Assert.assertEquals(cache.getCurrentData("/test/499").getData(), "499".getBytes());
+        }
+        finally
+        {
+            Closeables.close(cache, true);
+            Closeables.close(client, true);
+        }
+    }
+
     @Test
     public void testRebuildAgainstOtherProcesses() throws Exception
     {
@@ -407,6 +533,80 @@ public class TestPathChildrenCache extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testRebuildChildDeletedDuringRead() throws Exception
+    {
+        Timing timing = new Timing();
+        final CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().forPath("/test");
+            client.create().forPath("/test/a");
+            client.create().forPath("/test/b");
+            client.create().forPath("/test/c");
+
+            final List<String> removedPaths = Lists.newCopyOnWriteArrayList();
+            final CountDownLatch addedLatch = new CountDownLatch(1);
+            final PathChildrenCache cache = new PathChildrenCache(client, "/test", true);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            if ( event.getType() == PathChildrenCacheEvent.Type.CHILD_REMOVED )
+                            {
+                                removedPaths.add(event.getData().getPath());
+                            }
+                            else if ( (event.getType() == PathChildrenCacheEvent.Type.CHILD_ADDED) && event.getData().getPath().equals("/test/d") )
+                            {
+                                addedLatch.countDown();
+                            }
+                        }
+                    }
+                );
+            cache.rebuildTestChildrenExchanger = new Exchanger<Object>();
+            ExecutorService service = Executors.newSingleThreadExecutor();
+            Future<Object> future = service.submit
+                (
+                    new Callable<Object>()
+                    {
+                        @Override
+                        public Object call() throws Exception
+                        {
+                            cache.rebuildTestChildrenExchanger.exchange(new Object());
+
+                            // simulate another process removing a node after the children were read but before their data
+                            client.delete().forPath("/test/b");
+
+                            cache.rebuildTestChildrenExchanger.exchange(new Object());
+                            return null;
+                        }
+                    }
+                );
+            cache.rebuild();
+            future.get();
+            service.shutdown();
+
+            Assert.assertNotNull(cache.getCurrentData("/test/a"));
+            Assert.assertNull(cache.getCurrentData("/test/b"));
+            Assert.assertNotNull(cache.getCurrentData("/test/c"));
+
+            // had the rebuild kept the deleted node, the refresh that follows it would post a removal
+            client.create().forPath("/test/d");
+            Assert.assertTrue(timing.awaitLatch(addedLatch));
+            Assert.assertEquals(removedPaths.size(), 0);
+
+            cache.close();
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
     // see https://github.com/Netflix/curator/issues/27 - was caused by not comparing old->new data
     @Test
     public void testIssue27() throws Exception
@@ -573,6 +773,546 @@ public class TestPathChildrenCache extends BaseClassForTests
         }
     }
 
+    @Test
+    public void testResyncAfterReconnect() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().forPath("/test");
+            client.create().forPath("/test/one", "one".getBytes());
+            client.create().forPath("/test/two", "two".getBytes());
+
+            final CountDownLatch addedLatch = new CountDownLatch(2);
+            final CountDownLatch reconnectedLatch = new CountDownLatch(1);
+            final CountDownLatch updatedLatch = new CountDownLatch(1);
+            PathChildrenCache cache = new PathChildrenCache(client, "/test", true);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            if ( event.getType() == PathChildrenCacheEvent.Type.CHILD_ADDED )
+                            {
+                                addedLatch.countDown();
+                            }
+                            else if ( event.getType() == PathChildrenCacheEvent.Type.CONNECTION_RECONNECTED )
+                            {
+                                reconnectedLatch.countDown();
+                            }
+                            else if ( (event.getType() == PathChildrenCacheEvent.Type.CHILD_UPDATED) && event.getData().getPath().equals("/test/two") )
+                            {
+                                updatedLatch.countDown();
+                            }
+                        }
+                    }
+                );
+            cache.start();
+            Assert.assertTrue(timing.awaitLatch(addedLatch));
+
+            // if the node were re-read during the resync, the cleared bytes would come back
+            cache.clearDataBytes("/test/one");
+            Assert.assertNull(cache.getCurrentData("/test/one").getData());
+
+            server.stop();
+            server = new TestingServer(server.getPort(), server.getTempDirectory());
+            Assert.assertTrue(timing.awaitLatch(reconnectedLatch));
+
+            client.setData().forPath("/test/two", "changed".getBytes());
+            Assert.assertTrue(timing.awaitLatch(updatedLatch));
+
+            Assert.assertEquals(cache.getCurrentData("/test/two").getData(), "changed".getBytes());
+            Assert.assertNotNull(cache.getCurrentData("/test/one"));
+            Assert.assertNull(cache.getCurrentData("/test/one").getData());
+
+            cache.close();
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void testCurrentDataSnapshot() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().forPath("/test");
+            client.create().forPath("/test/a", "a".getBytes());
+
+            PathChildrenCache cache = new PathChildrenCache(client, "/test", true);
+            cache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+
+            List<ChildData> snapshot = cache.getCurrentData();
+            long version = cache.getCurrentDataVersion();
+            Assert.assertEquals(snapshot.size(), 1);
+            Assert.assertSame(cache.getCurrentData(), snapshot);
+            Assert.assertEquals(cache.getCurrentDataVersion(), version);
+
+            cache.clearDataBytes("/test/a");
+            Assert.assertTrue(cache.getCurrentDataVersion() > version);
+            version = cache.getCurrentDataVersion();
+
+            cache.clear();
+            Assert.assertTrue(cache.getCurrentDataVersion() > version);
+            Assert.assertEquals(cache.getCurrentData().size(), 0);
+            Assert.assertEquals(snapshot.size(), 1);
+
+            cache.close();
+        }
+        finally
+        {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testCompactStorage() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().forPath("/test");
+            client.create().forPath("/test/b", "b".getBytes());
+            client.create().forPath("/test/a", "a".getBytes());
+
+            final BlockingQueue<PathChildrenCacheEvent> events = new LinkedBlockingQueue<PathChildrenCacheEvent>();
+            PathChildrenCache cache = new PathChildrenCache(client, "/test", true);
+            cache.useCompactStorage(StatField.CTIME);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            events.offer(event);
+                        }
+                    }
+                );
+            cache.start();
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS).getType(), PathChildrenCacheEvent.Type.CHILD_ADDED);
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS).getType(), PathChildrenCacheEvent.Type.CHILD_ADDED);
+
+            List<ChildData> data = cache.getCurrentData();
+            Assert.assertEquals(data.size(), 2);
+            Assert.assertEquals(data.get(0).getPath(), "/test/a");
+            Assert.assertEquals(data.get(0).getData(), "a".getBytes());
+            Assert.assertEquals(data.get(1).getPath(), "/test/b");
+            Assert.assertTrue(data.get(0).getStat().getCtime() > 0);
+            Assert.assertTrue(data.get(0).getStat().getMzxid() > 0);
+            Assert.assertEquals(data.get(0).getStat().getCzxid(), 0);   // not retained
+            Assert.assertNull(cache.getCurrentData("/other/a"));
+
+            client.setData().forPath("/test/a", "changed".getBytes());
+            PathChildrenCacheEvent event = events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.assertEquals(event.getType(), PathChildrenCacheEvent.Type.CHILD_UPDATED);
+            Assert.assertEquals(event.getData().getPath(), "/test/a");
+            Assert.assertEquals(cache.getCurrentData("/test/a").getData(), "changed".getBytes());
+            Assert.assertEquals(cache.getCurrentData("/test/a").getStat().getVersion(), 1);
+
+            client.delete().forPath("/test/b");
+            event = events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.assertEquals(event.getType(), PathChildrenCacheEvent.Type.CHILD_REMOVED);
+            Assert.assertEquals(event.getData().getPath(), "/test/b");
+            Assert.assertNull(cache.getCurrentData("/test/b"));
+            Assert.assertEquals(cache.getCurrentData().size(), 1);
+
+            cache.close();
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void testBatchListener() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().forPath("/test");
+
+            final BlockingQueue<List<PathChildrenCacheEvent>> batches = new LinkedBlockingQueue<List<PathChildrenCacheEvent>>();
+            PathChildrenCache cache = new PathChildrenCache(client, "/test", true);
+            cache.setEventBatching(10, 250, TimeUnit.MILLISECONDS);
+            cache.getBatchListenable().addListener
+                (
+                    new PathChildrenCacheBatchListener()
+                    {
+                        @Override
+                        public void childEvents(CuratorFramework client, List<PathChildrenCacheEvent> events) throws Exception
+                        {
+                            batches.add(events);
+                        }
+                    }
+                );
+            cache.start();
+
+            for ( int i = 0; i < 25; ++i )
+            {
+                client.create().forPath("/test/" + i);
+            }
+
+            int eventCount = 0;
+            while ( eventCount < 25 )
+            {
+                List<PathChildrenCacheEvent> batch = batches.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+                Assert.assertNotNull(batch);
+                Assert.assertTrue(batch.size() <= 10);
+                for ( PathChildrenCacheEvent event : batch )
+                {
+                    Assert.assertEquals(event.getType(), PathChildrenCacheEvent.Type.CHILD_ADDED);
+                }
+                eventCount += batch.size();
+            }
+            Assert.assertEquals(eventCount, 25);
+
+            // the partial batch is sent once its delay has elapsed
+            client.delete().forPath("/test/0");
+            List<PathChildrenCacheEvent> batch = batches.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+            Assert.assertNotNull(batch);
+            Assert.assertEquals(batch.size(), 1);
+            Assert.assertEquals(batch.get(0).getType(), PathChildrenCacheEvent.Type.CHILD_REMOVED);
+
+            cache.close();
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void testSharedExecutor() throws Exception
+    {
+        final int CACHE_QTY = 20;
+
+        Timing timing = new Timing();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CloseableExecutorService sharedExecutor = new CloseableExecutorService(executor);
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            List<PathChildrenCache> caches = Lists.newArrayList();
+            final CountDownLatch addedLatch = new CountDownLatch(CACHE_QTY);
+            final CountDownLatch removedLatch = new CountDownLatch(CACHE_QTY - 1);
+            for ( int i = 0; i < CACHE_QTY; ++i )
+            {
+                client.create().creatingParentsIfNeeded().forPath("/test/" + i + "/child");
+
+                PathChildrenCache cache = new PathChildrenCache(client, "/test/" + i, true, false, sharedExecutor);
+                cache.getListenable().addListener
+                    (
+                        new PathChildrenCacheListener()
+                        {
+                            @Override
+                            public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                            {
+                                if ( event.getType() == PathChildrenCacheEvent.Type.CHILD_ADDED )
+                                {
+                                    addedLatch.countDown();
+                                }
+                                else if ( event.getType() == PathChildrenCacheEvent.Type.CHILD_REMOVED )
+                                {
+                                    removedLatch.countDown();
+                                }
+                            }
+                        }
+                    );
+                cache.start();
+                caches.add(cache);
+            }
+            // many more caches than threads - none of them holds a thread
+            Assert.assertTrue(timing.awaitLatch(addedLatch));
+
+            // closing a cache does not affect the shared executor or the other caches
+            caches.remove(0).close();
+            Assert.assertFalse(executor.isShutdown());
+            Assert.assertFalse(sharedExecutor.isShutdown());
+            for ( int i = 0; i < CACHE_QTY; ++i )
+            {
+                client.delete().forPath("/test/" + i + "/child");
+            }
+            Assert.assertTrue(timing.awaitLatch(removedLatch));
+
+            for ( PathChildrenCache cache : caches )
+            {
+                cache.close();
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void testStats() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            final Set<String> traces = Sets.newConcurrentHashSet();
+            client.getZookeeperClient().setTracerDriver
+                (
+                    new TracerDriver()
+                    {
+                        @Override
+                        public void addTrace(String name, long time, TimeUnit unit)
+                        {
+                            traces.add(name);
+                        }
+
+                        @Override
+                        public void addCount(String name, int increment)
+                        {
+                            traces.add(name);
+                        }
+                    }
+                );
+            client.create().forPath("/test");
+
+            final BlockingQueue<PathChildrenCacheEvent.Type> events = new LinkedBlockingQueue<PathChildrenCacheEvent.Type>();
+            PathChildrenCache cache = new PathChildrenCache(client, "/test", true);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            events.add(event.getType());
+                        }
+                    }
+                );
+            cache.start();
+
+            client.create().forPath("/test/one", "one".getBytes());
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), PathChildrenCacheEvent.Type.CHILD_ADDED);
+            client.setData().forPath("/test/one", "changed".getBytes());
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), PathChildrenCacheEvent.Type.CHILD_UPDATED);
+
+            CacheStats stats = cache.getStats();
+            Assert.assertTrue(stats.getRefreshCount() > 0);
+            Assert.assertTrue(stats.getGetDataCount() >= 2);
+            Assert.assertEquals(stats.getCachedBytes(), "changed".length());
+            Assert.assertTrue(stats.getMaxEventLagMs() >= stats.getLastEventLagMs());
+            Assert.assertTrue(stats.getMaxStalenessMs() >= stats.getLastStalenessMs());
+            Assert.assertTrue(traces.containsAll(Arrays.asList("PathChildrenCache-event-lag", "PathChildrenCache-staleness", "PathChildrenCache-refresh", "PathChildrenCache-get-data")), traces.toString());
+
+            client.delete().forPath("/test/one");
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), PathChildrenCacheEvent.Type.CHILD_REMOVED);
+            Assert.assertEquals(stats.getCachedBytes(), 0);
+
+            cache.close();
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void testSnapshotFile() throws Exception
+    {
+        Timing timing = new Timing();
+        File file = File.createTempFile("snapshot", ".dat");
+        Assert.assertTrue(file.delete());
+
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().forPath("/test");
+            client.create().forPath("/test/a", "a".getBytes());
+            client.create().forPath("/test/b", "b".getBytes());
+            client.create().forPath("/test/c", "c".getBytes());
+
+            final CountDownLatch addedLatch = new CountDownLatch(3);
+            PathChildrenCache cache = new PathChildrenCache(client, "/test", true);
+            cache.useSnapshotFile(file, 1, TimeUnit.MINUTES);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            if ( event.getType() == PathChildrenCacheEvent.Type.CHILD_ADDED )
+                            {
+                                addedLatch.countDown();
+                            }
+                        }
+                    }
+                );
+            cache.start();
+            Assert.assertTrue(timing.awaitLatch(addedLatch));
+            cache.close();
+            Assert.assertTrue(file.exists());
+
+            client.setData().forPath("/test/b", "changed".getBytes());
+            client.delete().forPath("/test/c");
+            client.create().forPath("/test/d", "d".getBytes());
+
+            final BlockingQueue<PathChildrenCacheEvent> events = new LinkedBlockingQueue<PathChildrenCacheEvent>();
+            cache = new PathChildrenCache(client, "/test", true);
+            cache.useSnapshotFile(file, 1, TimeUnit.MINUTES);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            events.add(event);
+                        }
+                    }
+                );
+            cache.start(PathChildrenCache.StartMode.POST_INITIALIZED_EVENT);
+
+            // served from the snapshot right away - if "a" were re-read, the cleared bytes would come back
+            Assert.assertEquals(cache.getCurrentData().size(), 3);
+            Assert.assertEquals(cache.getCurrentData("/test/c").getData(), "c".getBytes());
+            cache.clearDataBytes("/test/a");
+
+            Set<String> expected = Sets.newHashSet("CHILD_ADDED /test/a", "CHILD_ADDED /test/b", "CHILD_ADDED /test/c", "CHILD_REMOVED /test/c", "CHILD_UPDATED /test/b", "CHILD_ADDED /test/d", "INITIALIZED");
+            Set<String> changes = Sets.newHashSet();
+            while ( changes.size() < expected.size() )
+            {
+                PathChildrenCacheEvent event = events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+                Assert.assertNotNull(event, "received: " + changes);
+                changes.add((event.getData() != null) ? (event.getType() + " " + event.getData().getPath()) : event.getType().toString());
+            }
+            Assert.assertEquals(changes, expected);
+            Assert.assertNull(events.poll(timing.multiple(.25).milliseconds(), TimeUnit.MILLISECONDS));
+            Assert.assertEquals(cache.getCurrentData("/test/b").getData(), "changed".getBytes());
+            Assert.assertNull(cache.getCurrentData("/test/a").getData());
+
+            cache.close();
+
+            // lengths read from a corrupt file are checked before anything is allocated
+            for ( int[] counts : new int[][]{{Integer.MAX_VALUE, 0}, {1, Integer.MAX_VALUE}} )
+            {
+                DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+                try
+                {
+                    byte[] pathBytes = "/test".getBytes();
+                    out.writeInt(0x50434353);
+                    out.writeInt(1);
+                    out.writeInt(pathBytes.length);
+                    out.write(pathBytes);
+                    out.writeInt(counts[0]);
+                    out.writeInt(counts[1]);
+                    out.write(new byte[100]);
+                }
+                finally
+                {
+                    out.close();
+                }
+                try
+                {
+                    new CacheSnapshotFile(file).read("/test");
+                    Assert.fail();
+                }
+                catch ( IOException ignore )
+                {
+                    // expected
+                }
+            }
+        }
+        finally
+        {
+            Closeables.close(client, true);
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testLazyDataLoading() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().forPath("/test");
+            client.create().forPath("/test/a", "a".getBytes());
+            client.create().forPath("/test/b", "b".getBytes());
+
+            final CountDownLatch addedLatch = new CountDownLatch(2);
+            final CountDownLatch updatedLatch = new CountDownLatch(1);
+            final CountDownLatch removedLatch = new CountDownLatch(1);
+            PathChildrenCache cache = new PathChildrenCache(client, "/test", false);
+            cache.useLazyDataLoading(1);
+            cache.getListenable().addListener
+                (
+                    new PathChildrenCacheListener()
+                    {
+                        @Override
+                        public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                        {
+                            if ( event.getType() == PathChildrenCacheEvent.Type.CHILD_ADDED )
+                            {
+                                addedLatch.countDown();
+                            }
+                            else if ( event.getType() == PathChildrenCacheEvent.Type.CHILD_UPDATED )
+                            {
+                                updatedLatch.countDown();
+                            }
+                            else if ( event.getType() == PathChildrenCacheEvent.Type.CHILD_REMOVED )
+                            {
+                                removedLatch.countDown();
+                            }
+                        }
+                    }
+                );
+            cache.start();
+            Assert.assertTrue(timing.awaitLatch(addedLatch));
+
+            for ( ChildData data : cache.getCurrentData() )
+            {
+                Assert.assertNotNull(data.getStat());
+                Assert.assertNull(data.getData());
+            }
+            Assert.assertEquals(cache.getCurrentData("/test/a").getData(), "a".getBytes());
+            Assert.assertEquals(cache.getCurrentData("/test/b").getData(), "b".getBytes());
+            Assert.assertEquals(cache.getCurrentData("/test/a").getData(), "a".getBytes());
+
+            client.setData().forPath("/test/a", "changed".getBytes());
+            Assert.assertTrue(timing.awaitLatch(updatedLatch));
+            Assert.assertEquals(cache.getCurrentData("/test/a").getData(), "changed".getBytes());
+            Assert.assertEquals(cache.getCurrentData("/test/a").getStat().getVersion(), 1);
+
+            client.delete().forPath("/test/b");
+            Assert.assertTrue(timing.awaitLatch(removedLatch));
+            Assert.assertNull(cache.getCurrentData("/test/b"));
+
+            cache.close();
+        }
+        finally
+        {
+            Closeables.close(client, true);
+        }
+    }
+
     @Test
     public void testModes() throws Exception
     {
@@ -612,11 +1352,11 @@ public class TestPathChildrenCache extends BaseClassForTests
             cache = new PathChildrenCache(client, "/test", true)
             {
                 @Override
-                void getDataAndStat(String fullPath) throws Exception
+                void getDataAndStat(String fullPath, long watchTimeMs) throws Exception
                 {
                     semaphore.acquire();
                     counter.incrementAndGet();
-                    super.getDataAndStat(fullPath);
+                    super.getDataAndStat(fullPath, watchTimeMs);
                     latch.countDown();
                 }
             };
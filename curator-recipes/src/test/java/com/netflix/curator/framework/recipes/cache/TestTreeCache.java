@@ -0,0 +1,211 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
+import com.google.common.io.Closeables;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.CuratorFrameworkFactory;
+import com.netflix.curator.framework.recipes.BaseClassForTests;
+import com.netflix.curator.retry.RetryOneTime;
+import com.netflix.curator.test.Timing;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class TestTreeCache extends BaseClassForTests
+{
+    @Test
+    public void     testInitialLoad() throws Exception
+    {
+        Timing              timing = new Timing();
+        TreeCache           cache = null;
+        CuratorFramework    client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            Set<String>     expectedPaths = Sets.newHashSet("/test");
+            for ( int i = 0; i < 5; ++i )
+            {
+                for ( int j = 0; j < 5; ++j )
+                {
+                    String  path = "/test/" + i + "/" + j;
+                    client.create().creatingParentsIfNeeded().forPath(path, path.getBytes());
+                    expectedPaths.add("/test/" + i);
+                    expectedPaths.add(path);
+                }
+            }
+
+            final BlockingQueue<TreeCacheEvent>     events = Queues.newLinkedBlockingQueue();
+            cache = new TreeCache(client, "/test", true);
+            cache.getListenable().addListener
+            (
+                new TreeCacheListener()
+                {
+                    @Override
+                    public void childEvent(CuratorFramework client, TreeCacheEvent event) throws Exception
+                    {
+                        events.add(event);
+                    }
+                }
+            );
+            cache.start();
+
+            Set<String>     addedPaths = Sets.newHashSet();
+            for(;;)
+            {
+                TreeCacheEvent  event = events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+                Assert.assertNotNull(event);
+                if ( event.getType() == TreeCacheEvent.Type.INITIALIZED )
+                {
+                    break;
+                }
+                Assert.assertEquals(event.getType(), TreeCacheEvent.Type.NODE_ADDED);
+                Assert.assertTrue(addedPaths.add(event.getData().getPath()));
+            }
+            Assert.assertEquals(addedPaths, expectedPaths);
+
+            Assert.assertEquals(cache.getCurrentChildren("/test").keySet(), Sets.newHashSet("0", "1", "2", "3", "4"));
+            Assert.assertEquals(cache.getCurrentChildren("/test/3").size(), 5);
+            Assert.assertEquals(cache.getCurrentData("/test/3/4").getData(), "/test/3/4".getBytes());
+            Assert.assertNull(cache.getCurrentData("/test/3/5"));
+            Assert.assertNull(cache.getCurrentData("/tester"));
+        }
+        finally
+        {
+            Closeables.close(cache, true);
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void     testChanges() throws Exception
+    {
+        Timing              timing = new Timing();
+        TreeCache           cache = null;
+        CuratorFramework    client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            final BlockingQueue<TreeCacheEvent>     events = Queues.newLinkedBlockingQueue();
+            cache = new TreeCache(client, "/test", true);
+            cache.getListenable().addListener
+            (
+                new TreeCacheListener()
+                {
+                    @Override
+                    public void childEvent(CuratorFramework client, TreeCacheEvent event) throws Exception
+                    {
+                        events.add(event);
+                    }
+                }
+            );
+            cache.start();
+            assertEvent(events, timing, TreeCacheEvent.Type.INITIALIZED, null);
+
+            // the root doesn't exist yet
+            client.create().forPath("/test");
+            assertEvent(events, timing, TreeCacheEvent.Type.NODE_ADDED, "/test");
+
+            client.create().creatingParentsIfNeeded().forPath("/test/a/b", "one".getBytes());
+            assertEvent(events, timing, TreeCacheEvent.Type.NODE_ADDED, "/test/a");
+            assertEvent(events, timing, TreeCacheEvent.Type.NODE_ADDED, "/test/a/b");
+
+            client.setData().forPath("/test/a/b", "two".getBytes());
+            TreeCacheEvent      event = assertEvent(events, timing, TreeCacheEvent.Type.NODE_UPDATED, "/test/a/b");
+            Assert.assertEquals(event.getData().getData(), "two".getBytes());
+            Assert.assertEquals(cache.getCurrentData("/test/a/b").getData(), "two".getBytes());
+
+            client.delete().forPath("/test/a/b");
+            assertEvent(events, timing, TreeCacheEvent.Type.NODE_REMOVED, "/test/a/b");
+            Assert.assertEquals(cache.getCurrentChildren("/test/a").size(), 0);
+
+            client.delete().forPath("/test/a");
+            client.delete().forPath("/test");
+            assertEvent(events, timing, TreeCacheEvent.Type.NODE_REMOVED, "/test/a");
+            assertEvent(events, timing, TreeCacheEvent.Type.NODE_REMOVED, "/test");
+            Assert.assertNull(cache.getCurrentChildren("/test"));
+
+            client.create().forPath("/test");
+            assertEvent(events, timing, TreeCacheEvent.Type.NODE_ADDED, "/test");
+        }
+        finally
+        {
+            Closeables.close(cache, true);
+            Closeables.close(client, true);
+        }
+    }
+
+    @Test
+    public void     testMaxDepth() throws Exception
+    {
+        Timing              timing = new Timing();
+        TreeCache           cache = null;
+        CuratorFramework    client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            client.create().creatingParentsIfNeeded().forPath("/test/a/b/c");
+
+            final BlockingQueue<TreeCacheEvent>     events = Queues.newLinkedBlockingQueue();
+            cache = new TreeCache(client, "/test", false, false, 1, Executors.newSingleThreadExecutor());
+            cache.getListenable().addListener
+            (
+                new TreeCacheListener()
+                {
+                    @Override
+                    public void childEvent(CuratorFramework client, TreeCacheEvent event) throws Exception
+                    {
+                        events.add(event);
+                    }
+                }
+            );
+            cache.start();
+
+            assertEvent(events, timing, TreeCacheEvent.Type.NODE_ADDED, "/test");
+            assertEvent(events, timing, TreeCacheEvent.Type.NODE_ADDED, "/test/a");
+            assertEvent(events, timing, TreeCacheEvent.Type.INITIALIZED, null);
+            Assert.assertNull(cache.getCurrentData("/test/a").getData());
+            Assert.assertNull(cache.getCurrentData("/test/a/b"));
+
+            client.create().forPath("/test/a/b2");
+            client.create().forPath("/test/a2");
+            assertEvent(events, timing, TreeCacheEvent.Type.NODE_ADDED, "/test/a2");
+        }
+        finally
+        {
+            Closeables.close(cache, true);
+            Closeables.close(client, true);
+        }
+    }
+
+    private TreeCacheEvent assertEvent(BlockingQueue<TreeCacheEvent> events, Timing timing, TreeCacheEvent.Type type, String path) throws InterruptedException
+    {
+        TreeCacheEvent  event = events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+        Assert.assertNotNull(event, "Expected " + type + " " + path);
+        Assert.assertEquals(event.getType(), type, event.toString());
+        if ( path != null )
+        {
+            Assert.assertEquals(event.getData().getPath(), path);
+        }
+        return event;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2013 Netflix, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.netflix.curator.framework.recipes.cache;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Sets;
+import com.google.common.io.Closeables;
+import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.CuratorFrameworkFactory;
+import com.netflix.curator.framework.recipes.BaseClassForTests;
+import com.netflix.curator.retry.RetryOneTime;
+import com.netflix.curator.test.Timing;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestTypedPathChildrenCache extends BaseClassForTests
+{
+    @Test
+    public void testDecodeOnceAndIndex() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        TypedPathChildrenCache<String> cache = null;
+        try
+        {
+            client.create().forPath("/test");
+            client.create().forPath("/test/one", "east".getBytes());
+            client.create().forPath("/test/two", "west".getBytes());
+
+            final AtomicInteger decodeCount = new AtomicInteger();
+            cache = new TypedPathChildrenCache<String>
+            (
+                new PathChildrenCache(client, "/test", true),
+                new ChildDataDecoder<String>()
+                {
+                    @Override
+                    public String decode(String path, byte[] data) throws Exception
+                    {
+                        decodeCount.incrementAndGet();
+                        return new String(data);
+                    }
+                }
+            );
+            TypedCacheIndex<String, String> byRegion = cache.addIndex
+            (
+                new Function<String, String>()
+                {
+                    @Override
+                    public String apply(String value)
+                    {
+                        return value;
+                    }
+                }
+            );
+
+            final BlockingQueue<PathChildrenCacheEvent.Type> events = new LinkedBlockingQueue<PathChildrenCacheEvent.Type>();
+            cache.getCache().getListenable().addListener
+            (
+                new PathChildrenCacheListener()
+                {
+                    @Override
+                    public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception
+                    {
+                        events.add(event.getType());
+                    }
+                }
+            );
+            cache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+
+            Assert.assertEquals(cache.getCurrentData().size(), 2);
+            Assert.assertEquals(cache.getCurrentData("/test/one").getValue(), "east");
+            Assert.assertEquals(paths(byRegion.get("east")), Sets.newHashSet("/test/one"));
+            Assert.assertEquals(paths(byRegion.get("west")), Sets.newHashSet("/test/two"));
+            Assert.assertEquals(decodeCount.get(), 2);
+
+            client.setData().forPath("/test/two", "east".getBytes());
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), PathChildrenCacheEvent.Type.CHILD_UPDATED);
+            Assert.assertEquals(paths(byRegion.get("east")), Sets.newHashSet("/test/one", "/test/two"));
+            Assert.assertTrue(byRegion.get("west").isEmpty());
+            Assert.assertEquals(byRegion.keySet(), Sets.newHashSet("east"));
+            Assert.assertEquals(decodeCount.get(), 3);
+
+            client.delete().forPath("/test/one");
+            Assert.assertEquals(events.poll(timing.forWaiting().seconds(), TimeUnit.SECONDS), PathChildrenCacheEvent.Type.CHILD_REMOVED);
+            Assert.assertNull(cache.getCurrentData("/test/one"));
+            Assert.assertEquals(paths(byRegion.get("east")), Sets.newHashSet("/test/two"));
+
+            // a new index is populated from the current nodes
+            TypedCacheIndex<Integer, String> byLength = cache.addIndex
+            (
+                new Function<String, Integer>()
+                {
+                    @Override
+                    public Integer apply(String value)
+                    {
+                        return value.length();
+                    }
+                }
+            );
+            Assert.assertEquals(paths(byLength.get(4)), Sets.newHashSet("/test/two"));
+            Assert.assertEquals(decodeCount.get(), 3);
+
+            // rebuild() doesn't generate events - the typed view is resynced directly
+            cache.getCache().clear();
+            client.delete().forPath("/test/two");
+            client.create().forPath("/test/three", "north".getBytes());
+            cache.rebuild();
+            Assert.assertEquals(paths(Sets.newHashSet(cache.getCurrentData())), Sets.newHashSet("/test/three"));
+            Assert.assertTrue(byRegion.get("east").isEmpty());
+            Assert.assertEquals(paths(byRegion.get("north")), Sets.newHashSet("/test/three"));
+        }
+        finally
+        {
+            Closeables.close(cache, true);
+            Closeables.close(client, true);
+        }
+    }
+
+    private static Set<String> paths(Set<TypedChildData<String>> entries)
+    {
+        Set<String> paths = Sets.newHashSet();
+        for ( TypedChildData<String> data : entries )
+        {
+            paths.add(data.getPath());
+        }
+        return paths;
+    }
+}
@@ -37,6 +37,7 @@ import org.testng.annotations.Test;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -688,6 +689,87 @@ public class TestDistributedQueue extends BaseClassForTests
         }
     }
 
+    @Test
+    public void     testBatchConsumer() throws Exception
+    {
+        final int                   itemQty = 100;
+        final int                   batchSize = 10;
+
+        Timing                      timing = new Timing();
+        DistributedQueue<TestQueueItem>  producerQueue = null;
+        List<DistributedQueue<TestQueueItem>>   consumerQueues = Lists.newArrayList();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            producerQueue = QueueBuilder.builder(client, null, serializer, QUEUE_PATH).buildQueue();
+            producerQueue.start();
+            for ( int i = 0; i < itemQty; ++i )
+            {
+                producerQueue.put(new TestQueueItem(Integer.toString(i)));
+            }
+            Assert.assertTrue(producerQueue.flushPuts(timing.forWaiting().seconds(), TimeUnit.SECONDS));
+
+            final List<TestQueueItem>       consumed = new CopyOnWriteArrayList<TestQueueItem>();
+            final AtomicInteger             maxBatch = new AtomicInteger(0);
+            final CountDownLatch            consumedLatch = new CountDownLatch(itemQty);
+            QueueBatchConsumer<TestQueueItem>   consumer = new QueueBatchConsumer<TestQueueItem>()
+            {
+                @Override
+                public void consumeMessages(List<TestQueueItem> messages) throws Exception
+                {
+                    maxBatch.set(Math.max(maxBatch.get(), messages.size()));
+                    consumed.addAll(messages);
+                    for ( int i = 0; i < messages.size(); ++i )
+                    {
+                        consumedLatch.countDown();
+                    }
+                }
+
+                @Override
+                public void consumeMessage(TestQueueItem message) throws Exception
+                {
+                    Assert.fail("consumeMessages() should be called");
+                }
+
+                @Override
+                public void stateChanged(CuratorFramework client, ConnectionState newState)
+                {
+                }
+            };
+
+            // competing consumers - each item must be consumed exactly once
+            for ( int i = 0; i < 2; ++i )
+            {
+                DistributedQueue<TestQueueItem>     queue = QueueBuilder.builder(client, consumer, serializer, QUEUE_PATH).batchSize(batchSize).buildQueue();
+                consumerQueues.add(queue);
+                queue.start();
+            }
+            Assert.assertTrue(timing.awaitLatch(consumedLatch));
+            timing.sleepABit();
+
+            Assert.assertEquals(consumed.size(), itemQty);
+            Set<String>     strs = Sets.newHashSet();
+            for ( TestQueueItem item : consumed )
+            {
+                strs.add(item.str);
+            }
+            Assert.assertEquals(strs.size(), itemQty);
+            Assert.assertTrue(maxBatch.get() > 1);
+            Assert.assertTrue(maxBatch.get() <= batchSize);
+            Assert.assertEquals(client.getChildren().forPath(QUEUE_PATH).size(), 0);
+        }
+        finally
+        {
+            for ( DistributedQueue<TestQueueItem> queue : consumerQueues )
+            {
+                Closeables.close(queue, true);
+            }
+            Closeables.close(producerQueue, true);
+            Closeables.close(client, true);
+        }
+    }
+
     @Test
     public void     testSimple() throws Exception
     {
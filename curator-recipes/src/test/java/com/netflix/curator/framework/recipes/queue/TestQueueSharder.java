@@ -25,11 +25,14 @@ import com.netflix.curator.framework.state.ConnectionState;
 import com.netflix.curator.framework.state.ConnectionStateListener;
 import com.netflix.curator.retry.RetryOneTime;
 import com.netflix.curator.test.Timing;
+import com.netflix.curator.utils.CloseableExecutorService;
 import junit.framework.Assert;
 import org.apache.commons.math.stat.descriptive.SummaryStatistics;
 import org.testng.annotations.Test;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 public class TestQueueSharder extends BaseClassForTests
@@ -130,6 +133,53 @@ public class TestQueueSharder extends BaseClassForTests
         }
     }
 
+    @Test
+    public void     testSharedExecutor() throws Exception
+    {
+        Timing                  timing = new Timing();
+        CuratorFramework        client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+
+        ExecutorService                         executorService = Executors.newSingleThreadExecutor();
+        CloseableExecutorService                sharedExecutor = new CloseableExecutorService(executorService);
+        final BlockingQueueConsumer<String>     consumer = makeConsumer(new CountDownLatch(1));
+        QueueAllocator<String, DistributedQueue<String>>    distributedQueueAllocator = makeAllocator(consumer);
+        QueueSharderPolicies        policies = QueueSharderPolicies.builder().newQueueThreshold(2).thresholdCheckMs(1).executorService(sharedExecutor).build();
+
+        QueueSharder<String, DistributedQueue<String>>  sharder1 = new QueueSharder<String, DistributedQueue<String>>(client, distributedQueueAllocator, "/queues1", "/leader1", policies);
+        QueueSharder<String, DistributedQueue<String>>  sharder2 = new QueueSharder<String, DistributedQueue<String>>(client, distributedQueueAllocator, "/queues2", "/leader2", policies);
+        try
+        {
+            client.start();
+            sharder1.start();
+            sharder2.start();
+
+            for ( int i = 0; i < 4; ++i )
+            {
+                sharder1.getQueue().put(Integer.toString(i));
+            }
+            timing.forWaiting().sleepABit();
+            Assert.assertTrue(sharder1.getShardQty() > 1);
+
+            // closing one sharder must not stop the others using the executor
+            sharder1.close();
+            Assert.assertFalse(sharedExecutor.isShutdown());
+
+            for ( int i = 0; i < 4; ++i )
+            {
+                sharder2.getQueue().put(Integer.toString(i));
+            }
+            timing.forWaiting().sleepABit();
+            Assert.assertTrue(sharder2.getShardQty() > 1);
+        }
+        finally
+        {
+            Closeables.close(sharder1, true);
+            Closeables.close(sharder2, true);
+            Closeables.close(client, true);
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     public void     testSimpleDistributedQueue() throws Exception
     {
@@ -17,6 +17,7 @@
 package com.netflix.curator.x.discovery;
 
 import com.netflix.curator.framework.listen.Listenable;
+import com.netflix.curator.framework.recipes.cache.CacheStats;
 import com.netflix.curator.x.discovery.details.InstanceProvider;
 import com.netflix.curator.x.discovery.details.ServiceCacheListener;
 import java.io.Closeable;
@@ -39,4 +40,11 @@ public interface ServiceCache<T> extends Closeable, Listenable<ServiceCacheListe
      * @throws Exception errors
      */
     public void start() throws Exception;
+
+    /**
+     * Return lag/staleness gauges for the cache of the service's instances
+     *
+     * @return stats
+     */
+    public CacheStats getStats();
 }
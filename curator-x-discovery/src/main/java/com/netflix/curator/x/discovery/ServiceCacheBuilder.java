@@ -18,6 +18,7 @@
 
 package com.netflix.curator.x.discovery;
 
+import com.netflix.curator.utils.CloseableExecutorService;
 import java.util.concurrent.ThreadFactory;
 
 public interface ServiceCacheBuilder<T>
@@ -44,4 +45,14 @@ public interface ServiceCacheBuilder<T>
      * @return this
      */
     public ServiceCacheBuilder<T> threadFactory(ThreadFactory threadFactory);
+
+    /**
+     * Optional executor to run the cache's work on instead of an internal thread. A single
+     * executor can be shared by many caches. Closing the cache cancels only its own tasks - the
+     * executor is neither closed nor shut down. If set, the thread factory is not used.
+     *
+     * @param executorService (possibly shared) executor
+     * @return this
+     */
+    public ServiceCacheBuilder<T> executorService(CloseableExecutorService executorService);
 }
@@ -18,6 +18,7 @@
 
 package com.netflix.curator.x.discovery.details;
 
+import com.netflix.curator.utils.CloseableExecutorService;
 import com.netflix.curator.x.discovery.ServiceCache;
 import com.netflix.curator.x.discovery.ServiceCacheBuilder;
 import java.util.concurrent.ThreadFactory;
@@ -30,6 +31,7 @@ class ServiceCacheBuilderImpl<T> implements ServiceCacheBuilder<T>
     private ServiceDiscoveryImpl<T> discovery;
     private String name;
     private ThreadFactory threadFactory;
+    private CloseableExecutorService executorService;
 
     ServiceCacheBuilderImpl(ServiceDiscoveryImpl<T> discovery)
     {
@@ -44,7 +46,7 @@ class ServiceCacheBuilderImpl<T> implements ServiceCacheBuilder<T>
     @Override
     public ServiceCache<T> build()
     {
-        return new ServiceCacheImpl<T>(discovery, name, threadFactory);
+        return new ServiceCacheImpl<T>(discovery, name, threadFactory, executorService);
     }
 
     /**
@@ -72,4 +74,17 @@ class ServiceCacheBuilderImpl<T> implements ServiceCacheBuilder<T>
         this.threadFactory = threadFactory;
         return this;
     }
+
+    /**
+     * Optional executor to run the cache's work on instead of an internal thread
+     *
+     * @param executorService (possibly shared) executor
+     * @return this
+     */
+    @Override
+    public ServiceCacheBuilder<T> executorService(CloseableExecutorService executorService)
+    {
+        this.executorService = executorService;
+        return this;
+    }
 }
@@ -22,10 +22,12 @@ import com.google.common.collect.Maps;
 import com.google.common.io.Closeables;
 import com.netflix.curator.framework.CuratorFramework;
 import com.netflix.curator.framework.listen.ListenerContainer;
+import com.netflix.curator.framework.recipes.cache.CacheStats;
 import com.netflix.curator.framework.recipes.cache.ChildData;
 import com.netflix.curator.framework.recipes.cache.PathChildrenCache;
 import com.netflix.curator.framework.recipes.cache.PathChildrenCacheEvent;
 import com.netflix.curator.framework.recipes.cache.PathChildrenCacheListener;
+import com.netflix.curator.utils.CloseableExecutorService;
 import com.netflix.curator.utils.ZKPaths;
 import com.netflix.curator.x.discovery.ServiceCache;
 import com.netflix.curator.x.discovery.ServiceInstance;
@@ -51,13 +53,20 @@ public class ServiceCacheImpl<T> implements ServiceCache<T>, PathChildrenCacheLi
         STOPPED
     }
 
-    ServiceCacheImpl(ServiceDiscoveryImpl<T> discovery, String name, ThreadFactory threadFactory)
+    ServiceCacheImpl(ServiceDiscoveryImpl<T> discovery, String name, ThreadFactory threadFactory, CloseableExecutorService executorService)
     {
-        Preconditions.checkNotNull(threadFactory, "threadFactory cannot be null");
+        Preconditions.checkArgument((threadFactory != null) || (executorService != null), "threadFactory cannot be null");
 
         this.discovery = discovery;
 
-        cache = new PathChildrenCache(discovery.getClient(), discovery.pathForName(name), true, threadFactory);
+        if ( executorService != null )
+        {
+            cache = new PathChildrenCache(discovery.getClient(), discovery.pathForName(name), true, false, executorService);
+        }
+        else
+        {
+            cache = new PathChildrenCache(discovery.getClient(), discovery.pathForName(name), true, threadFactory);
+        }
         cache.getListenable().addListener(this);
     }
 
@@ -67,6 +76,12 @@ public class ServiceCacheImpl<T> implements ServiceCache<T>, PathChildrenCacheLi
         return Lists.newArrayList(instances.values());
     }
 
+    @Override
+    public CacheStats getStats()
+    {
+        return cache.getStats();
+    }
+
     @Override
     public void start() throws Exception
     {
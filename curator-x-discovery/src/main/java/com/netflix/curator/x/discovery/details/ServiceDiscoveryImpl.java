@@ -25,6 +25,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.io.Closeables;
 import com.netflix.curator.framework.CuratorFramework;
+import com.netflix.curator.framework.api.BulkResult;
 import com.netflix.curator.framework.state.ConnectionState;
 import com.netflix.curator.framework.state.ConnectionStateListener;
 import com.netflix.curator.utils.ThreadUtils;
@@ -336,12 +337,22 @@ public class ServiceDiscoveryImpl<T> implements ServiceDiscovery<T>
             }
         }
 
+        List<String>        instancePaths = Lists.newArrayList();
         for ( String id : instanceIds )
         {
-            ServiceInstance<T> instance = queryForInstance(name, id);
-            if ( instance != null )
+            instancePaths.add(pathForInstance(name, id));
+        }
+
+        // read the instances in one pipelined batch rather than one round trip each
+        for ( BulkResult<byte[]> result : client.getData().forPaths(instancePaths).values() )
+        {
+            if ( result.isSuccess() )
+            {
+                builder.add(serializer.deserialize(result.getValue()));
+            }
+            else if ( !(result.getError() instanceof KeeperException.NoNodeException) )
             {
-                builder.add(instance);
+                throw result.getError();
             }
         }
         return builder.build();